@@ -0,0 +1,138 @@
+/**
+ * @file BenchmarkComparison.java
+ * @brief Contiene la clase BenchmarkComparison, que compara dos ficheros de resultados CSV de JMH.
+ */
+package top.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import es.ull.esit.utilities.ExpositoUtilities;
+
+/**
+ * @class BenchmarkComparison
+ * @brief Compara los resultados de dos ejecuciones de JMH guardadas con `-rf csv`.
+ * @details Para cada benchmark y combinación de parámetros presente en ambos ficheros muestra la puntuación
+ * de referencia, la actual y su cociente. Marca con `*` los cambios mayores que la suma de los errores
+ * (intervalo del 99,9%) de ambas mediciones. Incluye las métricas secundarias, como las del perfilador `gc`.
+ *
+ * Uso: `java -cp target/benchmarks.jar top.benchmarks.BenchmarkComparison baseline/results.csv results.csv`
+ */
+public class BenchmarkComparison {
+    // Columnas del CSV de JMH
+    private static final int BENCHMARK = 0, SCORE = 4, ERROR = 5, UNIT = 6, FIRST_PARAM = 7;
+
+    /**
+     * @brief Punto de entrada: compara dos ficheros de resultados.
+     * @param args La ruta de los resultados de referencia y la de los resultados actuales.
+     * @throws IOException Si no se puede leer alguno de los ficheros.
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length != 2) {
+            System.err.println("Uso: BenchmarkComparison <referencia.csv> <actual.csv>");
+            System.exit(1);
+        }
+        Map<String, String[]> baseline = BenchmarkComparison.read(args[0]);
+        Map<String, String[]> current = BenchmarkComparison.read(args[1]);
+        final int[] WIDTH = {70, 16, 16, 10, 14};
+        StringBuilder text = new StringBuilder();
+        String[] header = {"BENCHMARK", "REFERENCIA", "ACTUAL", "COCIENTE", "UNIDAD"};
+        for(int i = 0; i < header.length; i++) {
+            ExpositoUtilities.appendFormat(text, header[i], WIDTH[i]);
+        }
+        text.append("\n");
+        for(Map.Entry<String, String[]> entry : baseline.entrySet()) {
+            String[] now = current.get(entry.getKey());
+            if(now == null) {
+                continue;
+            }
+            double before = BenchmarkComparison.parse(entry.getValue()[SCORE]);
+            double after = BenchmarkComparison.parse(now[SCORE]);
+            double error = BenchmarkComparison.parse(entry.getValue()[ERROR]) + BenchmarkComparison.parse(now[ERROR]);
+            boolean significant = !Double.isNaN(error) && Math.abs(after - before) > error;
+            ExpositoUtilities.appendFormat(text, entry.getKey(), WIDTH[0]);
+            ExpositoUtilities.appendFormat(text, before, WIDTH[1]);
+            ExpositoUtilities.appendFormat(text, after, WIDTH[2]);
+            ExpositoUtilities.appendFormat(text, before == 0.0 ? "-" : ExpositoUtilities.getFormat(after / before) + (significant ? "*" : " "), WIDTH[3]);
+            ExpositoUtilities.appendFormat(text, now[UNIT], WIDTH[4]);
+            text.append("\n");
+        }
+        System.out.print(text);
+    }
+
+    /**
+     * @brief Lee un fichero CSV de JMH indexado por benchmark y parámetros.
+     * @param path La ruta del fichero.
+     * @return Las filas del fichero, con la clave `benchmark[param1,param2,...]`.
+     * @throws IOException Si no se puede leer el fichero.
+     */
+    private static Map<String, String[]> read(String path) throws IOException {
+        Map<String, String[]> rows = new LinkedHashMap<String, String[]>();
+        List<String> lines = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
+        for(int i = 1; i < lines.size(); i++) { // la primera línea es la cabecera
+            String[] fields = BenchmarkComparison.split(lines.get(i));
+            if(fields.length <= UNIT) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder(fields[BENCHMARK].substring(fields[BENCHMARK].lastIndexOf('.', fields[BENCHMARK].indexOf(':') < 0 ? fields[BENCHMARK].length() : fields[BENCHMARK].indexOf(':')) + 1));
+            String separator = "[";
+            for(int p = FIRST_PARAM; p < fields.length; p++) {
+                key.append(separator).append(fields[p]);
+                separator = ",";
+            }
+            if(fields.length > FIRST_PARAM) {
+                key.append("]");
+            }
+            rows.put(key.toString(), fields);
+        }
+        return rows;
+    }
+
+    /**
+     * @brief Separa una línea CSV en campos, admitiendo campos entre comillas.
+     * @param line La línea.
+     * @return Los campos, sin comillas.
+     */
+    private static String[] split(String line) {
+        List<String> fields = new ArrayList<String>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for(int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if(c == '"') {
+                if(quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if(c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[fields.size()]);
+    }
+
+    /**
+     * @brief Convierte un número del CSV, que puede estar vacío o ser `NaN`.
+     * @param value El texto del campo.
+     * @return El valor, o `NaN` si el campo no es un número.
+     */
+    private static double parse(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * @file SolverBenchmark.java
+ * @brief Contiene los benchmarks JMH de las partes críticas del solver TOPTW.
+ */
+package top.benchmarks;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import top.TOPTW;
+import top.TOPTWCandidateList;
+import top.TOPTWCustomerPool;
+import top.TOPTWGRASP;
+import top.TOPTWReader;
+import top.TOPTWSolution;
+
+/**
+ * @class SolverBenchmark
+ * @brief Mide el rendimiento (operaciones por segundo) de las operaciones que el solver ejecuta en cada iteración.
+ * @details Cada benchmark se ejecuta para todas las instancias de `Instances/TOPTW` (parámetro `instance`).
+ * El directorio de instancias se toma de la propiedad del sistema `expositotop.instances` y, por defecto,
+ * es `../Instances/TOPTW`, relativo al directorio `benchmarks`. Las soluciones se construyen con una semilla
+ * fija, de modo que todas las ejecuciones miden el mismo trabajo.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+    // Semilla de las construcciones aleatorizadas
+    private static final long SEED = 42L;
+    // Tamaño de la RCL usado por mainTOPTW
+    private static final int MAX_SIZE_RCL = 3;
+    // Directorio de la caché binaria de instancias, relativo al directorio benchmarks
+    private static final String CACHE_DIRECTORY = "target/instance-cache";
+
+    @Param({"c101.txt", "c102.txt", "c103.txt", "c104.txt", "c105.txt", "c106.txt", "c107.txt", "c108.txt", "c109.txt",
+            "r101.txt", "r102.txt", "r103.txt", "r104.txt", "r105.txt", "r106.txt", "r107.txt", "r108.txt", "r109.txt",
+            "r110.txt", "r111.txt", "r112.txt",
+            "rc101.txt", "rc102.txt", "rc103.txt", "rc104.txt", "rc105.txt", "rc106.txt", "rc107.txt", "rc108.txt",
+            "pr01.txt", "pr02.txt", "pr03.txt", "pr04.txt", "pr05.txt", "pr06.txt", "pr07.txt", "pr08.txt", "pr09.txt",
+            "pr10.txt"})
+    public String instance;
+
+    private String path;
+    private TOPTW problem;
+    private TOPTW.Builder builder;
+    private TOPTWSolution solution;
+    private TOPTWGRASP grasp;
+
+    /**
+     * @brief Lee la instancia y prepara el GRASP con semilla fija.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        String directory = System.getProperty("expositotop.instances", "../Instances/TOPTW");
+        this.path = new File(directory, this.instance).getPath();
+        this.problem = TOPTWReader.readProblem(this.path);
+        this.builder = new TOPTW.Builder(this.problem);
+        TOPTWReader.readProblem(this.path, CACHE_DIRECTORY);
+        this.solution = new TOPTWSolution(this.problem);
+        this.grasp = new TOPTWGRASP(this.solution, new Random(SEED));
+    }
+
+    /**
+     * @brief Mide la lectura de la instancia, incluido el cálculo de la matriz de distancias.
+     * @return La instancia leída.
+     */
+    @Benchmark
+    public TOPTW readProblem() {
+        return TOPTWReader.readProblem(this.path);
+    }
+
+    /**
+     * @brief Mide la lectura de la instancia desde la caché binaria, escrita al preparar el benchmark.
+     * @return La instancia leída.
+     */
+    @Benchmark
+    public TOPTW readCachedProblem() {
+        return TOPTWReader.readProblem(this.path, CACHE_DIRECTORY);
+    }
+
+    /**
+     * @brief Mide la creación de la instancia a partir de sus datos, sin la lectura del archivo.
+     * @details Incluye el cálculo de la matriz de distancias, de las listas de vecinos y de la compatibilidad
+     * de los arcos.
+     * @return La instancia creada.
+     */
+    @Benchmark
+    public TOPTW buildProblem() {
+        return this.builder.build();
+    }
+
+    /**
+     * @brief Mide la evaluación completa de las inserciones de los clientes pendientes.
+     * @param state El estado con una construcción a medias.
+     * @return La lista de candidatos resultante.
+     */
+    @Benchmark
+    public TOPTWCandidateList comprehensiveEvaluation(PartialSolution state) {
+        state.grasp.comprehensiveEvaluation(state.customers, state.candidates);
+        return state.candidates;
+    }
+
+    /**
+     * @brief Mide una construcción greedy aleatorizada completa.
+     * @return La solución construida.
+     */
+    @Benchmark
+    public TOPTWSolution computeGreedySolution() {
+        this.grasp.computeGreedySolution(MAX_SIZE_RCL);
+        return this.solution;
+    }
+
+    /**
+     * @brief Mide la evaluación de la función objetivo de una solución construida.
+     * @param state El estado con una solución construida.
+     * @return La puntuación de la solución.
+     */
+    @Benchmark
+    public double evaluateFitness(BuiltSolution state) {
+        return state.solution.evaluateFitness();
+    }
+
+    /**
+     * @brief Mide la generación del informe de una solución construida.
+     * @param state El estado con una solución construida.
+     * @return El informe.
+     */
+    @Benchmark
+    public String getInfoSolution(BuiltSolution state) {
+        return state.solution.getInfoSolution();
+    }
+
+    /**
+     * @class BuiltSolution
+     * @brief Estado con una solución greedy construida con semilla fija, que no se modifica.
+     */
+    @State(Scope.Thread)
+    public static class BuiltSolution {
+        TOPTWSolution solution;
+
+        /**
+         * @brief Construye la solución a partir de la instancia del benchmark.
+         * @param benchmark El estado del benchmark, con la instancia leída.
+         */
+        @Setup(Level.Trial)
+        public void setUp(SolverBenchmark benchmark) {
+            this.solution = new TOPTWSolution(benchmark.problem);
+            new TOPTWGRASP(this.solution, new Random(SEED)).computeGreedySolution(MAX_SIZE_RCL);
+        }
+    }
+
+    /**
+     * @class PartialSolution
+     * @brief Estado con una construcción a medias: una solución greedy sin uno de cada dos POIs visitados.
+     */
+    @State(Scope.Thread)
+    public static class PartialSolution {
+        TOPTWGRASP grasp;
+        TOPTWCustomerPool customers;
+        TOPTWCandidateList candidates;
+
+        /**
+         * @brief Prepara la solución parcial y el conjunto de clientes pendientes.
+         * @param benchmark El estado del benchmark, con la instancia leída.
+         */
+        @Setup(Level.Trial)
+        public void setUp(SolverBenchmark benchmark) {
+            TOPTW problem = benchmark.problem;
+            TOPTWSolution solution = new TOPTWSolution(problem);
+            this.grasp = new TOPTWGRASP(solution, new Random(SEED));
+            this.grasp.computeGreedySolution(MAX_SIZE_RCL);
+            boolean remove = true;
+            for(int c = 1; c <= problem.getPOIs(); c++) {
+                if(solution.isVisited(c)) {
+                    if(remove) {
+                        solution.removeCustomer(c);
+                    }
+                    remove = !remove;
+                }
+            }
+            this.customers = new TOPTWCustomerPool(problem);
+            for(int c = 1; c <= problem.getPOIs(); c++) {
+                if(solution.isVisited(c)) {
+                    this.customers.remove(c);
+                }
+            }
+            this.candidates = new TOPTWCandidateList(problem);
+        }
+    }
+}
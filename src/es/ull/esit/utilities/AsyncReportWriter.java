@@ -0,0 +1,150 @@
+/**
+ * @file AsyncReportWriter.java
+ * @brief Contiene la clase AsyncReportWriter, un escritor de informes en segundo plano.
+ */
+package es.ull.esit.utilities;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * @class AsyncReportWriter
+ * @brief Escribe textos en un flujo de salida desde un hilo propio y con búfer.
+ * @details El hilo que genera los informes solo deposita el texto en una cola acotada; un hilo demonio
+ * lo escribe en un `BufferedWriter` y vacía el búfer cuando la cola queda vacía. Así la velocidad de la
+ * consola o del disco no frena al hilo productor, salvo que la cola se llene, lo que limita la memoria
+ * usada por los informes pendientes. `close` espera a que se escriban todos los textos y vacía el búfer,
+ * pero no cierra el flujo subyacente, que puede ser la salida estándar.
+ */
+public class AsyncReportWriter implements Closeable {
+    /**
+     * @brief Capacidad por defecto de la cola de textos pendientes.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+    // Marca de fin de la cola
+    private static final String END = new String("");
+    private final BlockingQueue<String> queue;
+    private final BufferedWriter out;
+    private final Thread worker;
+    private volatile IOException error;
+    private boolean closed;
+
+    /**
+     * @brief Constructor de la clase AsyncReportWriter con la capacidad por defecto.
+     * @param out El flujo donde se escribirán los textos.
+     */
+    public AsyncReportWriter(Writer out) {
+        this(out, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @brief Constructor de la clase AsyncReportWriter.
+     * @param out El flujo donde se escribirán los textos.
+     * @param capacity El número máximo de textos pendientes antes de bloquear al productor.
+     */
+    public AsyncReportWriter(Writer out, int capacity) {
+        this.queue = new ArrayBlockingQueue<String>(capacity);
+        this.out = new BufferedWriter(out, 1 << 16);
+        this.closed = false;
+        this.worker = new Thread(new Runnable() {
+            public void run() {
+                AsyncReportWriter.this.drain();
+            }
+        }, "AsyncReportWriter");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * @brief Encola un texto para escribirlo seguido de un salto de línea.
+     * @param text El texto a escribir.
+     * @throws IOException Si el hilo de escritura ha fallado o se interrumpe la espera.
+     */
+    public void println(String text) throws IOException {
+        this.write(text + System.lineSeparator());
+    }
+
+    /**
+     * @brief Encola un texto para escribirlo tal cual.
+     * @details Solo bloquea si la cola está llena.
+     * @param text El texto a escribir.
+     * @throws IOException Si el escritor está cerrado, el hilo de escritura ha fallado o se interrumpe la espera.
+     */
+    public void write(String text) throws IOException {
+        if(this.closed) {
+            throw new IOException("AsyncReportWriter cerrado");
+        }
+        this.checkError();
+        try {
+            this.queue.put(text);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Escritura de informe interrumpida", e);
+        }
+    }
+
+    /**
+     * @brief Espera a que se escriban todos los textos pendientes y vacía el búfer.
+     * @throws IOException Si la escritura ha fallado o se interrumpe la espera.
+     */
+    @Override
+    public void close() throws IOException {
+        if(this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            this.queue.put(END);
+            this.worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Cierre del escritor de informes interrumpido", e);
+        }
+        this.checkError();
+    }
+
+    /**
+     * @brief Bucle del hilo de escritura: escribe los textos hasta encontrar la marca de fin.
+     * @details Tras un error de escritura sigue vaciando la cola, descartando los textos, para que el
+     * productor no quede bloqueado; el error se relanza en su siguiente llamada.
+     */
+    private void drain() {
+        try {
+            String text = this.queue.take();
+            while(text != END) {
+                if(this.error == null) {
+                    try {
+                        this.out.write(text);
+                        if(this.queue.isEmpty()) {
+                            this.out.flush();
+                        }
+                    } catch (IOException e) {
+                        this.error = e;
+                    }
+                }
+                text = this.queue.take();
+            }
+            if(this.error == null) {
+                this.out.flush();
+            }
+        } catch (IOException e) {
+            this.error = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @brief Relanza en el hilo productor el error de escritura, si lo hubo.
+     * @throws IOException El error producido en el hilo de escritura.
+     */
+    private void checkError() throws IOException {
+        if(this.error != null) {
+            throw this.error;
+        }
+    }
+}
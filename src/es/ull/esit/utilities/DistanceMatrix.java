@@ -0,0 +1,43 @@
+/**
+ * @file DistanceMatrix.java
+ * @brief Contiene la interfaz DistanceMatrix, un almacén de distancias simétricas entre nodos.
+ */
+package es.ull.esit.utilities;
+
+/**
+ * @interface DistanceMatrix
+ * @brief Almacén de una matriz de distancias simétrica de tamaño n x n.
+ * @details Permite elegir la representación según el tamaño de la instancia y la precisión necesaria:
+ * `FlatDistanceMatrix` (array plano por filas), `PackedDistanceMatrix` (solo el triángulo superior) o
+ * `FloatDistanceMatrix` (triángulo superior en precisión simple).
+ */
+public interface DistanceMatrix {
+
+    /**
+     * @brief Obtiene el número de nodos de la matriz.
+     * @return El número de filas (y de columnas).
+     */
+    int size();
+
+    /**
+     * @brief Obtiene la distancia entre dos nodos.
+     * @param i El índice del primer nodo, entre 0 y `size()`-1.
+     * @param j El índice del segundo nodo, entre 0 y `size()`-1.
+     * @return La distancia entre `i` y `j`.
+     */
+    double get(int i, int j);
+
+    /**
+     * @brief Establece la distancia entre dos nodos en ambos sentidos.
+     * @param i El índice del primer nodo.
+     * @param j El índice del segundo nodo.
+     * @param distance La distancia entre `i` y `j`.
+     */
+    void set(int i, int j, double distance);
+
+    /**
+     * @brief Obtiene la memoria ocupada por los datos de la matriz.
+     * @return El número de bytes del array de distancias.
+     */
+    long getMemoryBytes();
+}
@@ -38,6 +38,19 @@ public class ExpositoUtilities {
      * @brief Constante para alineación a la derecha.
      */
     public static final int ALIGNMENT_RIGHT = 2;
+    /**
+     * @brief Formateador con tres decimales reutilizado por hilo (`DecimalFormat` no es seguro entre hilos).
+     */
+    private static final ThreadLocal<DecimalFormat> THREE_DECIMALS = new ThreadLocal<DecimalFormat>() {
+        @Override
+        protected DecimalFormat initialValue() {
+            DecimalFormat decimalFormatter = new DecimalFormat("0.000");
+            DecimalFormatSymbols symbols = new DecimalFormatSymbols();
+            symbols.setDecimalSeparator('.');
+            decimalFormatter.setDecimalFormatSymbols(symbols);
+            return decimalFormatter;
+        }
+    };
 
     /**
      * @brief Encuentra la primera aparición de un elemento en un vector.
@@ -171,6 +184,45 @@ public class ExpositoUtilities {
         return decimalFormatter.format(value);
     }
 
+    /**
+     * @brief Añade a un StringBuilder una cadena alineada a la derecha en un ancho fijo.
+     * @details Equivale a `getFormat(string, width)` sin crear cadenas de formato intermedias.
+     * @param builder El StringBuilder donde se escribe.
+     * @param string La cadena a añadir.
+     * @param width El ancho mínimo de la columna.
+     * @return El mismo StringBuilder, para encadenar llamadas.
+     */
+    public static StringBuilder appendFormat(StringBuilder builder, String string, int width) {
+        for (int i = string.length(); i < width; i++) {
+            builder.append(' ');
+        }
+        return builder.append(string);
+    }
+
+    /**
+     * @brief Añade a un StringBuilder un entero alineado a la derecha en un ancho fijo.
+     * @param builder El StringBuilder donde se escribe.
+     * @param value El valor a añadir.
+     * @param width El ancho mínimo de la columna.
+     * @return El mismo StringBuilder, para encadenar llamadas.
+     */
+    public static StringBuilder appendFormat(StringBuilder builder, int value, int width) {
+        return ExpositoUtilities.appendFormat(builder, Integer.toString(value), width);
+    }
+
+    /**
+     * @brief Añade a un StringBuilder un valor doble con tres decimales, alineado a la derecha en un ancho fijo.
+     * @details Produce el mismo texto que `getFormat(String[], int)` para un valor doble, pero reutiliza
+     * un formateador por hilo en lugar de crear uno en cada llamada.
+     * @param builder El StringBuilder donde se escribe.
+     * @param value El valor a añadir.
+     * @param width El ancho mínimo de la columna.
+     * @return El mismo StringBuilder, para encadenar llamadas.
+     */
+    public static StringBuilder appendFormat(StringBuilder builder, double value, int width) {
+        return ExpositoUtilities.appendFormat(builder, THREE_DECIMALS.get().format(value), width);
+    }
+
     /**
      * @brief Formatea una cadena para que ocupe un ancho fijo, con alineación a la derecha.
      * @param string La cadena a formatear.
@@ -0,0 +1,50 @@
+/**
+ * @file FlatDistanceMatrix.java
+ * @brief Contiene la clase FlatDistanceMatrix, una matriz de distancias en un único array por filas.
+ */
+package es.ull.esit.utilities;
+
+/**
+ * @class FlatDistanceMatrix
+ * @brief Matriz de distancias completa almacenada en un `double[]` por filas.
+ * @details Evita la indirección y las cabeceras de un `double[][]`: el acceso es una multiplicación y una
+ * lectura, y cada fila es contigua en memoria. Guarda ambos triángulos, por lo que ocupa n*n doubles.
+ */
+public class FlatDistanceMatrix implements DistanceMatrix {
+    private final int size;
+    private final double[] distances;
+
+    /**
+     * @brief Constructor de la clase FlatDistanceMatrix, con todas las distancias a 0.
+     * @param size El número de nodos.
+     * @throws IllegalArgumentException Si la matriz no cabe en un array.
+     */
+    public FlatDistanceMatrix(int size) {
+        if((long) size * size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Matriz de distancias demasiado grande: " + size + " nodos");
+        }
+        this.size = size;
+        this.distances = new double[size * size];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return this.distances[i * this.size + j];
+    }
+
+    @Override
+    public void set(int i, int j, double distance) {
+        this.distances[i * this.size + j] = distance;
+        this.distances[j * this.size + i] = distance;
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return 8L * this.distances.length;
+    }
+}
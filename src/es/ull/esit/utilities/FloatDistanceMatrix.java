@@ -0,0 +1,49 @@
+/**
+ * @file FloatDistanceMatrix.java
+ * @brief Contiene la clase FloatDistanceMatrix, una matriz de distancias simétrica empaquetada en precisión simple.
+ */
+package es.ull.esit.utilities;
+
+/**
+ * @class FloatDistanceMatrix
+ * @brief Matriz de distancias simétrica que guarda el triángulo superior como `float`.
+ * @details Ocupa n*(n+1)/2 floats, la cuarta parte que la matriz completa en `double`. Las distancias se
+ * redondean a precisión simple (unos 7 dígitos significativos), lo que puede cambiar decisiones de
+ * factibilidad en los límites de las ventanas de tiempo; conviene solo para instancias muy grandes.
+ */
+public class FloatDistanceMatrix implements DistanceMatrix {
+    private final int size;
+    private final int[] rowStart;
+    private final float[] distances;
+
+    /**
+     * @brief Constructor de la clase FloatDistanceMatrix, con todas las distancias a 0.
+     * @param size El número de nodos.
+     * @throws IllegalArgumentException Si el triángulo no cabe en un array.
+     */
+    public FloatDistanceMatrix(int size) {
+        this.size = size;
+        this.rowStart = PackedDistanceMatrix.rowStarts(size);
+        this.distances = new float[(int) PackedDistanceMatrix.packedLength(size)];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return this.distances[this.rowStart[Math.min(i, j)] + Math.max(i, j)];
+    }
+
+    @Override
+    public void set(int i, int j, double distance) {
+        this.distances[this.rowStart[Math.min(i, j)] + Math.max(i, j)] = (float) distance;
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return 4L * this.distances.length;
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * @file LossyLongSet.java
+ * @brief Contiene la clase LossyLongSet, un conjunto concurrente de claves `long` con memoria acotada.
+ */
+package es.ull.esit.utilities;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @class LossyLongSet
+ * @brief Conjunto de claves `long` de tamaño fijo, seguro entre hilos y sin bloqueos, que puede olvidar claves.
+ * @details Es una tabla de direccionamiento abierto sobre un `AtomicLongArray` con sondeo lineal limitado a
+ * `MAX_PROBES` posiciones. Si todas están ocupadas, la nueva clave sobrescribe la de su posición inicial, de
+ * modo que la memoria nunca crece: el conjunto puede olvidar claves antiguas, pero nunca da por vista una
+ * clave que no se ha añadido. Pensado para detectar resultados repetidos a partir de su hash, donde olvidar
+ * alguno solo cuesta repetir trabajo.
+ */
+public class LossyLongSet {
+    // Posición libre de la tabla; la clave 0 se guarda como EMPTY_KEY
+    private static final long EMPTY = 0L;
+    private static final long EMPTY_KEY = 0x9E3779B97F4A7C15L;
+    // Número máximo de posiciones consultadas por clave
+    private static final int MAX_PROBES = 8;
+    private final AtomicLongArray table;
+    private final int mask;
+
+    /**
+     * @brief Constructor de la clase LossyLongSet.
+     * @param capacity El número de claves que puede guardar, redondeado a la potencia de dos siguiente.
+     * @throws IllegalArgumentException Si la capacidad no es positiva o supera 2^30.
+     */
+    public LossyLongSet(int capacity) {
+        if(capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacidad no válida: "+capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if(size < capacity) {
+            size <<= 1;
+        }
+        this.table = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @brief Añade una clave al conjunto.
+     * @param key La clave.
+     * @return `true` si la clave no estaba en el conjunto (o se había olvidado), `false` si ya estaba.
+     */
+    public boolean add(long key) {
+        long stored = key == EMPTY ? EMPTY_KEY : key;
+        int start = this.indexOf(stored);
+        for(int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (start + probe) & this.mask;
+            long current = this.table.get(slot);
+            if(current == stored) {
+                return false;
+            }
+            if(current == EMPTY) {
+                if(this.table.compareAndSet(slot, EMPTY, stored)) {
+                    return true;
+                }
+                if(this.table.get(slot) == stored) {
+                    return false;
+                }
+            }
+        }
+        this.table.set(start, stored);
+        return true;
+    }
+
+    /**
+     * @brief Comprueba si una clave está en el conjunto.
+     * @param key La clave.
+     * @return `true` si la clave se ha añadido y no se ha olvidado.
+     */
+    public boolean contains(long key) {
+        long stored = key == EMPTY ? EMPTY_KEY : key;
+        int start = this.indexOf(stored);
+        for(int probe = 0; probe < MAX_PROBES; probe++) {
+            long current = this.table.get((start + probe) & this.mask);
+            if(current == stored) {
+                return true;
+            }
+            if(current == EMPTY) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @brief Vacía el conjunto.
+     * @details No debe llamarse mientras otros hilos añaden claves.
+     */
+    public void clear() {
+        for(int i = 0; i < this.table.length(); i++) {
+            this.table.set(i, EMPTY);
+        }
+    }
+
+    /**
+     * @brief Obtiene el número de posiciones de la tabla.
+     * @return La capacidad del conjunto.
+     */
+    public int capacity() {
+        return this.table.length();
+    }
+
+    /**
+     * @brief Calcula la posición inicial de una clave, mezclando sus bits para repartir las claves poco aleatorias.
+     * @param key La clave.
+     * @return La posición inicial en la tabla.
+     */
+    private int indexOf(long key) {
+        long z = key * 0x9E3779B97F4A7C15L;
+        return (int) (z ^ (z >>> 32)) & this.mask;
+    }
+}
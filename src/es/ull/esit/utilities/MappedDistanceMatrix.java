@@ -0,0 +1,73 @@
+/**
+ * @file MappedDistanceMatrix.java
+ * @brief Contiene la clase MappedDistanceMatrix, una matriz de distancias de solo lectura sobre un búfer.
+ */
+package es.ull.esit.utilities;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * @class MappedDistanceMatrix
+ * @brief Matriz de distancias simétrica de solo lectura que lee el triángulo superior de un `DoubleBuffer`.
+ * @details Usa la misma disposición que `PackedDistanceMatrix`, pero los datos están fuera del montículo,
+ * normalmente en un fichero proyectado en memoria: crearla no copia ni recorre las distancias, y el sistema
+ * operativo carga las páginas a medida que se consultan.
+ */
+public class MappedDistanceMatrix implements DistanceMatrix {
+    private final int size;
+    private final int[] rowStart;
+    private final DoubleBuffer distances;
+
+    /**
+     * @brief Constructor de la clase MappedDistanceMatrix.
+     * @param size El número de nodos.
+     * @param distances El búfer con el triángulo superior por filas, diagonal incluida, desde su posición actual.
+     * @throws IllegalArgumentException Si el búfer tiene menos de n*(n+1)/2 elementos restantes.
+     */
+    public MappedDistanceMatrix(int size, DoubleBuffer distances) {
+        long length = PackedDistanceMatrix.packedLength(size);
+        if(distances.remaining() < length) {
+            throw new IllegalArgumentException("El búfer tiene " + distances.remaining() + " distancias y la matriz necesita " + length);
+        }
+        this.size = size;
+        this.rowStart = PackedDistanceMatrix.rowStarts(size);
+        this.distances = distances.slice().limit((int) length);
+    }
+
+    /**
+     * @brief Escribe el triángulo superior de una matriz en un búfer, con la disposición que lee esta clase.
+     * @param matrix La matriz.
+     * @param distances El búfer, a partir de su posición actual, que avanza.
+     */
+    public static void write(DistanceMatrix matrix, DoubleBuffer distances) {
+        for(int i = 0; i < matrix.size(); i++) {
+            for(int j = i; j < matrix.size(); j++) {
+                distances.put(matrix.get(i, j));
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return this.distances.get(this.rowStart[Math.min(i, j)] + Math.max(i, j));
+    }
+
+    /**
+     * @brief No se permite modificar la matriz.
+     * @throws UnsupportedOperationException Siempre.
+     */
+    @Override
+    public void set(int i, int j, double distance) {
+        throw new UnsupportedOperationException("La matriz de distancias proyectada es de solo lectura");
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return 8L * this.distances.capacity();
+    }
+}
@@ -0,0 +1,267 @@
+/**
+ * @file NumberTokenizer.java
+ * @brief Contiene la clase NumberTokenizer, un lector de números orientado a líneas sobre un ByteBuffer.
+ */
+package es.ull.esit.utilities;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @class NumberTokenizer
+ * @brief Lee números separados por espacios o tabuladores directamente de los bytes de un ByteBuffer.
+ * @details Pensado para ficheros de datos numéricos en ASCII, normalmente proyectados en memoria. Los números
+ * se convierten sin crear cadenas: los enteros se acumulan en un `long` y los reales usan la conversión exacta
+ * rápida (mantisa de hasta 53 bits y potencia de diez exacta), recurriendo a `Double.parseDouble` solo en los
+ * casos que no la admiten. Los tokens no pueden cruzar un salto de línea, de modo que una línea
+ * con menos datos de los esperados se detecta y se informa con su número de línea.
+ */
+public class NumberTokenizer {
+    // Potencias de diez exactas en double
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Mayor mantisa que se convierte a double sin redondeo
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private final ByteBuffer buffer;
+    private int line;
+
+    /**
+     * @brief Constructor de la clase NumberTokenizer.
+     * @param buffer Los bytes a leer, desde su posición actual hasta su límite.
+     */
+    public NumberTokenizer(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.line = 1;
+    }
+
+    /**
+     * @brief Obtiene el número de la línea actual, empezando en 1.
+     * @return El número de línea.
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * @brief Comprueba si quedan bytes por leer.
+     * @return `true` si no se ha alcanzado el final del buffer.
+     */
+    public boolean hasRemaining() {
+        return this.buffer.hasRemaining();
+    }
+
+    /**
+     * @brief Avanza hasta el comienzo de la línea siguiente, descartando el resto de la actual.
+     */
+    public void nextLine() {
+        while(this.buffer.hasRemaining()) {
+            if(this.buffer.get() == '\n') {
+                this.line++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @brief Descarta el siguiente token de la línea actual.
+     * @throws TokenParseException Si la línea no tiene más tokens.
+     */
+    public void skipToken() {
+        this.startToken();
+        while(!this.atTokenEnd()) {
+            this.buffer.get();
+        }
+    }
+
+    /**
+     * @brief Lee el siguiente token de la línea actual como entero.
+     * @return El entero leído.
+     * @throws TokenParseException Si la línea no tiene más tokens o el token no es un entero.
+     */
+    public int nextInt() {
+        int start = this.startToken();
+        boolean negative = this.acceptSign();
+        long value = 0;
+        int digits = 0;
+        while(this.buffer.hasRemaining() && isDigit(this.buffer.get(this.buffer.position()))) {
+            value = value * 10 + (this.buffer.get() - '0');
+            if(value > (long) Integer.MAX_VALUE + 1) {
+                throw this.error("entero fuera de rango", start);
+            }
+            digits++;
+        }
+        value = negative ? -value : value;
+        if(digits == 0 || !this.atTokenEnd() || value > Integer.MAX_VALUE) {
+            throw this.error("se esperaba un entero", start);
+        }
+        return (int) value;
+    }
+
+    /**
+     * @brief Lee el siguiente token de la línea actual como número real.
+     * @details Admite signo, parte decimal y exponente (`e` o `E`). Si la mantisa cabe en 53 bits y la
+     * potencia de diez es exacta (|exponente| <= 22), el resultado es una sola operación redondeada y por
+     * tanto correcto; en otro caso se delega en `Double.parseDouble`.
+     * @return El valor leído, idéntico al que devolvería `Double.parseDouble` para el mismo token.
+     * @throws TokenParseException Si la línea no tiene más tokens o el token no es un número.
+     */
+    public double nextDouble() {
+        int start = this.startToken();
+        boolean negative = this.acceptSign();
+        long mantissa = 0;
+        int significant = 0, digits = 0, exponent = 0;
+        boolean truncated = false, fraction = false;
+        while(this.buffer.hasRemaining()) {
+            byte b = this.buffer.get(this.buffer.position());
+            if(b == '.' && !fraction) {
+                fraction = true;
+            } else if(isDigit(b)) {
+                int digit = b - '0';
+                if(significant < 18 && (significant > 0 || digit != 0)) {
+                    mantissa = mantissa * 10 + digit;
+                    significant++;
+                    if(fraction) { exponent--; }
+                } else if(significant >= 18) {
+                    truncated |= digit != 0;
+                    if(!fraction) { exponent++; }
+                } else if(fraction) {
+                    exponent--; // cero a la izquierda de la parte decimal
+                }
+                digits++;
+            } else {
+                break;
+            }
+            this.buffer.get();
+        }
+        if(digits == 0) {
+            throw this.error("se esperaba un número", start);
+        }
+        if(this.buffer.hasRemaining() && (this.buffer.get(this.buffer.position()) | 0x20) == 'e') {
+            this.buffer.get();
+            boolean negativeExponent = this.acceptSign();
+            int value = 0, exponentDigits = 0;
+            while(this.buffer.hasRemaining() && isDigit(this.buffer.get(this.buffer.position()))) {
+                value = Math.min(value * 10 + (this.buffer.get() - '0'), 100000);
+                exponentDigits++;
+            }
+            if(exponentDigits == 0) {
+                throw this.error("exponente incompleto", start);
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        if(!this.atTokenEnd()) {
+            throw this.error("se esperaba un número", start);
+        }
+        if(mantissa == 0 && !truncated) {
+            return negative ? -0.0 : 0.0;
+        }
+        if(!truncated && mantissa <= MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+            double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+        return this.parseFallback(start);
+    }
+
+    /**
+     * @brief Convierte el token con `Double.parseDouble` para los casos sin conversión exacta rápida.
+     * @param start La posición de comienzo del token.
+     * @return El valor del token.
+     */
+    private double parseFallback(int start) {
+        int end = this.buffer.position();
+        byte[] bytes = new byte[end - start];
+        for(int i = 0; i < bytes.length; i++) {
+            bytes[i] = this.buffer.get(start + i);
+        }
+        return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @brief Salta los separadores hasta el comienzo del siguiente token de la línea actual.
+     * @return La posición del comienzo del token.
+     * @throws TokenParseException Si se alcanza el final de la línea o del buffer.
+     */
+    private int startToken() {
+        while(this.buffer.hasRemaining() && isSeparator(this.buffer.get(this.buffer.position()))) {
+            this.buffer.get();
+        }
+        if(!this.buffer.hasRemaining() || isLineEnd(this.buffer.get(this.buffer.position()))) {
+            throw new TokenParseException("faltan datos en la línea", this.line);
+        }
+        return this.buffer.position();
+    }
+
+    /**
+     * @brief Consume un signo opcional.
+     * @return `true` si el signo es negativo.
+     */
+    private boolean acceptSign() {
+        if(this.buffer.hasRemaining()) {
+            byte b = this.buffer.get(this.buffer.position());
+            if(b == '-' || b == '+') {
+                this.buffer.get();
+                return b == '-';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @brief Comprueba si la posición actual es el final de un token.
+     * @return `true` si sigue un separador, un fin de línea o el final del buffer.
+     */
+    private boolean atTokenEnd() {
+        if(!this.buffer.hasRemaining()) {
+            return true;
+        }
+        byte b = this.buffer.get(this.buffer.position());
+        return isSeparator(b) || isLineEnd(b);
+    }
+
+    /**
+     * @brief Crea la excepción de un token mal formado, incluyendo el texto del token.
+     * @param message La descripción del error.
+     * @param start La posición de comienzo del token.
+     * @return La excepción.
+     */
+    private TokenParseException error(String message, int start) {
+        int end = start;
+        while(end < this.buffer.limit() && !isSeparator(this.buffer.get(end)) && !isLineEnd(this.buffer.get(end))) {
+            end++;
+        }
+        byte[] bytes = new byte[end - start];
+        for(int i = 0; i < bytes.length; i++) {
+            bytes[i] = this.buffer.get(start + i);
+        }
+        return new TokenParseException(message + ": '" + new String(bytes, StandardCharsets.US_ASCII) + "'", this.line);
+    }
+
+    /**
+     * @brief Comprueba si un byte es un dígito decimal ASCII.
+     * @param b El byte.
+     * @return `true` si es un dígito.
+     */
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * @brief Comprueba si un byte separa tokens dentro de una línea.
+     * @param b El byte.
+     * @return `true` si es un espacio, un tabulador o un retorno de carro.
+     */
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /**
+     * @brief Comprueba si un byte termina una línea.
+     * @param b El byte.
+     * @return `true` si es un salto de línea.
+     */
+    private static boolean isLineEnd(byte b) {
+        return b == '\n';
+    }
+}
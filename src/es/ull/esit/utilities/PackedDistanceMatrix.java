@@ -0,0 +1,79 @@
+/**
+ * @file PackedDistanceMatrix.java
+ * @brief Contiene la clase PackedDistanceMatrix, una matriz de distancias simétrica empaquetada.
+ */
+package es.ull.esit.utilities;
+
+/**
+ * @class PackedDistanceMatrix
+ * @brief Matriz de distancias simétrica que solo guarda el triángulo superior (diagonal incluida).
+ * @details Ocupa n*(n+1)/2 doubles, la mitad que la matriz completa. La fila `i` del triángulo empieza en
+ * `rowStart[i]`, precalculado, de modo que el acceso a (i, j) con i <= j es `rowStart[i] + j`; si i > j se
+ * intercambian los índices.
+ */
+public class PackedDistanceMatrix implements DistanceMatrix {
+    private final int size;
+    private final int[] rowStart;
+    private final double[] distances;
+
+    /**
+     * @brief Constructor de la clase PackedDistanceMatrix, con todas las distancias a 0.
+     * @param size El número de nodos.
+     * @throws IllegalArgumentException Si el triángulo no cabe en un array.
+     */
+    public PackedDistanceMatrix(int size) {
+        this.size = size;
+        this.rowStart = PackedDistanceMatrix.rowStarts(size);
+        this.distances = new double[(int) PackedDistanceMatrix.packedLength(size)];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return this.distances[this.rowStart[Math.min(i, j)] + Math.max(i, j)];
+    }
+
+    @Override
+    public void set(int i, int j, double distance) {
+        this.distances[this.rowStart[Math.min(i, j)] + Math.max(i, j)] = distance;
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return 8L * this.distances.length;
+    }
+
+    /**
+     * @brief Calcula el número de elementos del triángulo superior, diagonal incluida.
+     * @param size El número de nodos.
+     * @return n*(n+1)/2.
+     * @throws IllegalArgumentException Si el triángulo no cabe en un array.
+     */
+    static long packedLength(int size) {
+        long length = (long) size * (size + 1) / 2;
+        if(length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Matriz de distancias demasiado grande: " + size + " nodos");
+        }
+        return length;
+    }
+
+    /**
+     * @brief Calcula el desplazamiento de cada fila del triángulo, de modo que (i, j) está en `rowStart[i] + j`.
+     * @param size El número de nodos.
+     * @return Los desplazamientos de las filas.
+     */
+    static int[] rowStarts(int size) {
+        PackedDistanceMatrix.packedLength(size);
+        int[] rowStart = new int[size];
+        int start = 0;
+        for(int i = 0; i < size; i++) {
+            rowStart[i] = start - i; // la fila i guarda las columnas i..n-1
+            start += size - i;
+        }
+        return rowStart;
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * @file SpatialGrid.java
+ * @brief Contiene la clase SpatialGrid, un índice espacial de rejilla uniforme para buscar vecinos cercanos.
+ */
+package es.ull.esit.utilities;
+
+/**
+ * @class SpatialGrid
+ * @brief Índice espacial sobre puntos del plano que reparte los puntos en celdas cuadradas del mismo tamaño.
+ * @details Las celdas se dimensionan para que contengan `POINTS_PER_CELL` puntos de media y se guardan en
+ * formato comprimido: los puntos ordenados por celda y, para cada celda, la posición de su primer punto.
+ * La búsqueda de los k vecinos más cercanos recorre anillos de celdas alrededor de la del punto y se detiene
+ * cuando ningún punto de los anillos siguientes puede estar más cerca que el k-ésimo encontrado, por lo que
+ * con puntos bien repartidos solo consulta unas pocas celdas.
+ */
+public class SpatialGrid {
+    // Número medio de puntos por celda
+    private static final int POINTS_PER_CELL = 2;
+    private final double[] x;
+    private final double[] y;
+    private final double minX;
+    private final double minY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] cellStart;
+    private final int[] cellPoints;
+    private final int[] cellOfPoint;
+
+    /**
+     * @brief Constructor de la clase SpatialGrid.
+     * @param x Las coordenadas X de los puntos.
+     * @param y Las coordenadas Y de los puntos.
+     * @param first El índice del primer punto indexado.
+     * @param last El índice del último punto indexado (incluido).
+     * @throws IllegalArgumentException Si el intervalo de puntos está vacío o se sale de los arrays.
+     */
+    public SpatialGrid(double[] x, double[] y, int first, int last) {
+        if(first < 0 || last < first || last >= x.length || last >= y.length) {
+            throw new IllegalArgumentException("Intervalo de puntos no válido: ["+first+", "+last+"]");
+        }
+        this.x = x;
+        this.y = y;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for(int i = first; i <= last; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        int points = last - first + 1;
+        double width = Math.max(maxX - minX, maxY - minY);
+        // La segunda cota limita el número de celdas cuando los puntos están casi alineados
+        double cellSize = Math.max(Math.sqrt((maxX - minX) * (maxY - minY) * POINTS_PER_CELL / points),
+            width * POINTS_PER_CELL / points);
+        if(!(cellSize > 0.0)) { // todos los puntos coinciden
+            cellSize = 1.0;
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.cellSize = cellSize;
+        this.columns = (int) ((maxX - minX) / cellSize) + 1;
+        this.rows = (int) ((maxY - minY) / cellSize) + 1;
+        this.cellStart = new int[this.columns * this.rows + 1];
+        this.cellPoints = new int[points];
+        this.cellOfPoint = new int[last + 1];
+        for(int i = first; i <= last; i++) {
+            this.cellOfPoint[i] = this.cellOf(x[i], y[i]);
+            this.cellStart[this.cellOfPoint[i] + 1]++;
+        }
+        for(int c = 0; c < this.columns * this.rows; c++) {
+            this.cellStart[c + 1] += this.cellStart[c];
+        }
+        int[] next = new int[this.columns * this.rows];
+        System.arraycopy(this.cellStart, 0, next, 0, next.length);
+        for(int i = first; i <= last; i++) {
+            this.cellPoints[next[this.cellOfPoint[i]]++] = i;
+        }
+    }
+
+    /**
+     * @brief Busca los k puntos indexados más cercanos a uno de ellos, sin contarlo a él.
+     * @details A igual distancia se prefiere el punto de menor índice, de modo que el resultado no depende del
+     * reparto en celdas. No reserva memoria.
+     * @param point El índice del punto, que debe estar indexado.
+     * @param k El número de vecinos buscados.
+     * @param neighbors Array de al menos `k` posiciones donde se guardan los vecinos, del más cercano al más lejano.
+     * @param squaredDistances Array auxiliar de al menos `k` posiciones con el cuadrado de las distancias.
+     * @return El número de vecinos encontrados: `k`, o menos si no hay tantos puntos indexados.
+     */
+    public int nearest(int point, int k, int[] neighbors, double[] squaredDistances) {
+        int found = 0;
+        int column = this.cellOfPoint[point] % this.columns;
+        int row = this.cellOfPoint[point] / this.columns;
+        int maxRing = Math.max(this.columns, this.rows);
+        for(int ring = 0; ring <= maxRing; ring++) {
+            for(int r = row - ring; r <= row + ring; r++) {
+                if(r < 0 || r >= this.rows) {
+                    continue;
+                }
+                // En las filas interiores del anillo solo se visitan las dos columnas del borde
+                int step = (r == row - ring || r == row + ring) ? 1 : Math.max(2 * ring, 1);
+                for(int c = column - ring; c <= column + ring; c += step) {
+                    if(c < 0 || c >= this.columns) {
+                        continue;
+                    }
+                    int cell = r * this.columns + c;
+                    for(int p = this.cellStart[cell]; p < this.cellStart[cell + 1]; p++) {
+                        int candidate = this.cellPoints[p];
+                        if(candidate != point) {
+                            found = this.offer(candidate, this.squaredDistance(point, candidate), k, found, neighbors, squaredDistances);
+                        }
+                    }
+                }
+            }
+            // Los puntos de los anillos siguientes están al menos a ring * cellSize
+            double bound = ring * this.cellSize;
+            if(found == k && squaredDistances[k - 1] < bound * bound) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @brief Obtiene el número de celdas de la rejilla.
+     * @return Columnas por filas.
+     */
+    public int getCells() {
+        return this.columns * this.rows;
+    }
+
+    /**
+     * @brief Añade un candidato a la lista ordenada de vecinos si está entre los k más cercanos.
+     * @param candidate El candidato.
+     * @param distance El cuadrado de su distancia al punto consultado.
+     * @param k El número de vecinos buscados.
+     * @param found El número de vecinos en la lista.
+     * @param neighbors La lista de vecinos.
+     * @param squaredDistances Los cuadrados de sus distancias.
+     * @return El nuevo número de vecinos en la lista.
+     */
+    private int offer(int candidate, double distance, int k, int found, int[] neighbors, double[] squaredDistances) {
+        int position = found;
+        while(position > 0 && (distance < squaredDistances[position - 1]
+                || (distance == squaredDistances[position - 1] && candidate < neighbors[position - 1]))) {
+            position--;
+        }
+        if(position >= k) {
+            return found;
+        }
+        int last = Math.min(found, k - 1);
+        for(int i = last; i > position; i--) {
+            neighbors[i] = neighbors[i - 1];
+            squaredDistances[i] = squaredDistances[i - 1];
+        }
+        neighbors[position] = candidate;
+        squaredDistances[position] = distance;
+        return Math.min(found + 1, k);
+    }
+
+    /**
+     * @brief Calcula el cuadrado de la distancia euclídea entre dos puntos.
+     * @param i El primer punto.
+     * @param j El segundo punto.
+     * @return El cuadrado de la distancia.
+     */
+    private double squaredDistance(int i, int j) {
+        double dx = this.x[i] - this.x[j];
+        double dy = this.y[i] - this.y[j];
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * @brief Obtiene la celda que contiene unas coordenadas.
+     * @param px La coordenada X.
+     * @param py La coordenada Y.
+     * @return El índice de la celda.
+     */
+    private int cellOf(double px, double py) {
+        int c = Math.min((int) ((px - this.minX) / this.cellSize), this.columns - 1);
+        int r = Math.min((int) ((py - this.minY) / this.cellSize), this.rows - 1);
+        return r * this.columns + c;
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * @file SplitMixRandom.java
+ * @brief Contiene la clase SplitMixRandom, un generador aleatorio SplitMix64 con flujos independientes.
+ */
+package es.ull.esit.utilities;
+
+import java.util.Random;
+
+/**
+ * @class SplitMixRandom
+ * @brief Generador pseudoaleatorio SplitMix64 que puede situarse al comienzo de un flujo dado por (semilla, índice).
+ * @details El estado es un único `long` que avanza una constante impar en cada número y se pasa por una
+ * función de mezcla, igual que `java.util.SplittableRandom`. Cada flujo parte de un estado obtenido mezclando
+ * la semilla y el índice, de modo que la secuencia de un flujo solo depende de ese par: quien lo consume puede
+ * repartir los flujos entre hilos en cualquier orden y obtener los mismos números. Extiende `Random` para
+ * poder usarse donde se espera un `Random`, pero no comparte su estado ni su sincronización; no debe usarse
+ * desde varios hilos a la vez.
+ */
+public class SplitMixRandom extends Random {
+    private static final long serialVersionUID = 1L;
+    // Incremento del estado: parte fraccionaria de la razón áurea, impar
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    private long state;
+
+    /**
+     * @brief Constructor de la clase SplitMixRandom.
+     * @param seed La semilla.
+     */
+    public SplitMixRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * @brief Constructor de la clase SplitMixRandom situado al comienzo de un flujo.
+     * @param seed La semilla común de los flujos.
+     * @param stream El índice del flujo.
+     */
+    public SplitMixRandom(long seed, long stream) {
+        super(SplitMixRandom.streamSeed(seed, stream));
+    }
+
+    /**
+     * @brief Calcula el estado inicial de un flujo.
+     * @details Flujos distintos de una misma semilla, o el mismo flujo de semillas distintas, parten de
+     * estados sin relación aparente, sin solaparse salvo con probabilidad despreciable.
+     * @param seed La semilla común de los flujos.
+     * @param stream El índice del flujo.
+     * @return El estado inicial del flujo.
+     */
+    public static long streamSeed(long seed, long stream) {
+        return SplitMixRandom.mix64(SplitMixRandom.mix64(seed) + GOLDEN_GAMMA * (stream + 1));
+    }
+
+    /**
+     * @brief Sitúa el generador al comienzo de un flujo.
+     * @details No reserva memoria, por lo que puede llamarse en cada iteración de un algoritmo.
+     * @param seed La semilla común de los flujos.
+     * @param stream El índice del flujo.
+     */
+    public void setStream(long seed, long stream) {
+        this.setSeed(SplitMixRandom.streamSeed(seed, stream));
+    }
+
+    /**
+     * @brief Reinicia el generador con una semilla.
+     * @param seed La semilla.
+     */
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed); // descarta el gaussiano guardado por Random
+        this.state = seed;
+    }
+
+    /**
+     * @brief Genera los siguientes bits aleatorios, de los que `Random` obtiene el resto de métodos.
+     * @param bits El número de bits, entre 1 y 32.
+     * @return Un entero con los bits aleatorios en las posiciones menos significativas.
+     */
+    @Override
+    protected int next(int bits) {
+        return (int) (this.nextLong() >>> (64 - bits));
+    }
+
+    /**
+     * @brief Genera un `long` aleatorio.
+     * @return El número generado.
+     */
+    @Override
+    public long nextLong() {
+        this.state += GOLDEN_GAMMA;
+        return SplitMixRandom.mix64(this.state);
+    }
+
+    /**
+     * @brief Genera un `double` aleatorio uniforme en [0, 1).
+     * @return El número generado, con 53 bits aleatorios.
+     */
+    @Override
+    public double nextDouble() {
+        return (this.nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * @brief Función de mezcla de SplitMix64 (variante 13 de Stafford).
+     * @param z El valor a mezclar.
+     * @return El valor mezclado.
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * @file TokenParseException.java
+ * @brief Contiene la excepción TokenParseException, lanzada al leer un token mal formado.
+ */
+package es.ull.esit.utilities;
+
+/**
+ * @class TokenParseException
+ * @brief Excepción no comprobada que indica un dato mal formado o ausente y la línea en que aparece.
+ */
+public class TokenParseException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    private final int line;
+    private final String reason;
+
+    /**
+     * @brief Constructor de la clase TokenParseException.
+     * @param message La descripción del error.
+     * @param line El número de línea, empezando en 1.
+     */
+    public TokenParseException(String message, int line) {
+        super("línea " + line + ": " + message);
+        this.line = line;
+        this.reason = message;
+    }
+
+    /**
+     * @brief Obtiene el número de la línea del error.
+     * @return El número de línea, empezando en 1.
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * @brief Obtiene la descripción del error sin el número de línea.
+     * @return La descripción del error.
+     */
+    public String getReason() {
+        return this.reason;
+    }
+}
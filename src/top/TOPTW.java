@@ -7,7 +7,12 @@ package top;
 import java.util.ArrayList;
 import java.util.Arrays;
 
+import es.ull.esit.utilities.DistanceMatrix;
 import es.ull.esit.utilities.ExpositoUtilities;
+import es.ull.esit.utilities.FlatDistanceMatrix;
+import es.ull.esit.utilities.FloatDistanceMatrix;
+import es.ull.esit.utilities.PackedDistanceMatrix;
+import es.ull.esit.utilities.SpatialGrid;
 
 /**
  * @class TOPTW
@@ -15,45 +20,350 @@ import es.ull.esit.utilities.ExpositoUtilities;
  * @details Esta clase almacena todos los datos de una instancia del problema, incluyendo la información
  * de los nodos (coordenadas, puntuaciones, ventanas de tiempo), el número de vehículos, y las restricciones
  * generales como el tiempo máximo por ruta. También proporciona métodos para calcular distancias y acceder a los datos.
+ *
+ * Las instancias son inmutables: se crean con un `TOPTW.Builder`, que calcula al construirlas la matriz de
+ * distancias, las listas de vecinos y la compatibilidad de los arcos, y ningún método las modifica después.
+ * Las copias del depósito de cada ruta (índices mayores que el número de POIs) se resuelven al índice 0 en
+ * cada consulta, sin registrarlas en la instancia. Por ello una misma instancia puede compartirse sin
+ * sincronización entre cualquier número de hilos que resuelvan el problema a la vez.
  */
 public class TOPTW {
-    private int nodes;
-    private double[] x;
-    private double[] y;
-    private double[] score;
-    private double[] readyTime;
-    private double[] dueTime;
-    private double[] serviceTime;
-    private int vehicles;
-    private int depots;
-    private double maxTimePerRoute;
-    private double maxRoutes;
-    private double[][] distanceMatrix;
-
-    /**
-     * @brief Constructor de la clase TOPTW.
-     * @param nodes El número de nodos (clientes/POIs) en el problema, sin contar el depósito.
-     * @param routes El número de rutas (vehículos) disponibles.
-     */
-    public TOPTW(int nodes, int routes) {
-        this.nodes = nodes;
-        this.depots = 0;
-        this.x = new double[this.nodes + 1];
-        this.y = new double[this.nodes + 1];
-        this.score = new double[this.nodes + 1];
-        this.readyTime = new double[this.nodes + 1];
-        this.dueTime = new double[this.nodes + 1];
-        this.serviceTime = new double[this.nodes + 1];
-        this.distanceMatrix = new double[this.nodes + 1][this.nodes + 1];
-        for (int i = 0; i < this.nodes + 1; i++) {
-            for (int j = 0; j < this.nodes + 1; j++) {
-                this.distanceMatrix[i][j] = 0.0;
+    /**
+     * @brief Número de nodos a partir del cual la matriz de distancias se empaqueta por defecto.
+     * @details Por debajo, la matriz completa (8 MB con 1000 nodos) cabe en caché y su acceso directo es más
+     * rápido; por encima, guardar solo el triángulo superior reduce la memoria a la mitad sin perder velocidad.
+     */
+    public static final int PACKED_DISTANCES_MIN_NODES = 1000;
+    /**
+     * @brief Número de nodos a partir del cual se calculan por defecto las listas de vecinos cercanos.
+     * @details Con listas de vecinos, la construcción y la búsqueda local solo evalúan las inserciones junto a
+     * los vecinos de cada POI (vecindarios granulares). En instancias pequeñas recorrer las rutas completas es
+     * barato y no descarta ninguna inserción.
+     */
+    public static final int GRANULAR_MIN_NODES = 1000;
+    /**
+     * @brief Número de vecinos cercanos por POI que se calculan por defecto.
+     */
+    public static final int DEFAULT_NEIGHBORS = 25;
+    /**
+     * @brief Almacén de distancias: el que corresponde al tamaño de la instancia (ver `PACKED_DISTANCES_MIN_NODES`).
+     */
+    public static final int DISTANCES_DEFAULT = 0;
+    /**
+     * @brief Almacén de distancias: matriz completa de `double` (`FlatDistanceMatrix`).
+     */
+    public static final int DISTANCES_FLAT = 1;
+    /**
+     * @brief Almacén de distancias: triángulo superior de `double` (`PackedDistanceMatrix`).
+     */
+    public static final int DISTANCES_PACKED = 2;
+    /**
+     * @brief Almacén de distancias: triángulo superior de `float` (`FloatDistanceMatrix`).
+     */
+    public static final int DISTANCES_FLOAT = 3;
+    // Margen con el que se descartan arcos y POIs, para no descartar por errores de redondeo nada factible
+    private static final double COMPATIBILITY_EPSILON = 1e-6;
+    private final int nodes;
+    private final double[] x;
+    private final double[] y;
+    private final double[] score;
+    private final double[] readyTime;
+    private final double[] dueTime;
+    private final double[] serviceTime;
+    private final int vehicles;
+    private final double maxTimePerRoute;
+    private final double maxRoutes;
+    private final DistanceMatrix distanceMatrix;
+    private final int neighborCount;
+    private final int[] neighbors;
+    private final int compatibilityWords;
+    private final long[] compatibility;
+    private final boolean[] reachable;
+
+    /**
+     * @class Builder
+     * @brief Construye instancias inmutables de TOPTW.
+     * @details Se rellenan los datos de los nodos con los métodos `set...`, que devuelven el propio constructor
+     * para encadenar llamadas, y `build` crea la instancia con una copia de esos datos, de modo que el
+     * constructor puede seguir modificándose y reutilizarse para crear variantes.
+     */
+    public static class Builder {
+        private final int nodes;
+        private final int routes;
+        private final double[] x;
+        private final double[] y;
+        private final double[] score;
+        private final double[] readyTime;
+        private final double[] dueTime;
+        private final double[] serviceTime;
+        private double maxTimePerRoute;
+        private double maxRoutes;
+        private int neighbors;
+        private int distanceStore;
+        // Tablas precalculadas de la caché binaria, o null para calcularlas
+        private DistanceMatrix distanceMatrix;
+        private int[] neighborTable;
+        private long[] compatibilityTable;
+
+        /**
+         * @brief Constructor de la clase Builder.
+         * @param nodes El número de nodos (clientes/POIs) en el problema, sin contar el depósito.
+         * @param routes El número de rutas (vehículos) disponibles.
+         * @throws IllegalArgumentException Si el número de nodos es negativo o el de rutas no es positivo.
+         */
+        public Builder(int nodes, int routes) {
+            if(nodes < 0 || routes < 1) {
+                throw new IllegalArgumentException("Número de nodos ("+nodes+") o de rutas ("+routes+") no válido");
+            }
+            this.nodes = nodes;
+            this.routes = routes;
+            this.x = new double[nodes + 1];
+            this.y = new double[nodes + 1];
+            this.score = new double[nodes + 1];
+            this.readyTime = new double[nodes + 1];
+            this.dueTime = new double[nodes + 1];
+            this.serviceTime = new double[nodes + 1];
+            this.maxTimePerRoute = Double.NaN; // sin fijar: el cierre de la ventana del depósito
+            this.maxRoutes = routes;
+            this.neighbors = nodes + 1 >= GRANULAR_MIN_NODES ? DEFAULT_NEIGHBORS : 0;
+            this.distanceStore = DISTANCES_DEFAULT;
+            this.distanceMatrix = null;
+            this.neighborTable = null;
+            this.compatibilityTable = null;
+        }
+
+        /**
+         * @brief Constructor de la clase Builder con los datos de una instancia existente.
+         * @details Permite crear variantes de una instancia, por ejemplo con otro almacén de distancias.
+         * @param problem La instancia de la que se copian los datos.
+         */
+        public Builder(TOPTW problem) {
+            this(problem.nodes, problem.vehicles);
+            System.arraycopy(problem.x, 0, this.x, 0, this.x.length);
+            System.arraycopy(problem.y, 0, this.y, 0, this.y.length);
+            System.arraycopy(problem.score, 0, this.score, 0, this.score.length);
+            System.arraycopy(problem.readyTime, 0, this.readyTime, 0, this.readyTime.length);
+            System.arraycopy(problem.dueTime, 0, this.dueTime, 0, this.dueTime.length);
+            System.arraycopy(problem.serviceTime, 0, this.serviceTime, 0, this.serviceTime.length);
+            this.maxTimePerRoute = problem.maxTimePerRoute;
+            this.maxRoutes = problem.maxRoutes;
+            this.neighbors = problem.neighborCount;
+        }
+
+        /**
+         * @brief Establece la coordenada X de un nodo.
+         * @param index Índice del nodo.
+         * @param x El valor de la coordenada X.
+         * @return Este constructor.
+         */
+        public Builder setX(int index, double x) {
+            this.x[index] = x;
+            return this;
+        }
+
+        /**
+         * @brief Establece la coordenada Y de un nodo.
+         * @param index Índice del nodo.
+         * @param y El valor de la coordenada Y.
+         * @return Este constructor.
+         */
+        public Builder setY(int index, double y) {
+            this.y[index] = y;
+            return this;
+        }
+
+        /**
+         * @brief Establece la puntuación de un nodo.
+         * @param index Índice del nodo.
+         * @param score El valor de la puntuación.
+         * @return Este constructor.
+         */
+        public Builder setScore(int index, double score) {
+            this.score[index] = score;
+            return this;
+        }
+
+        /**
+         * @brief Establece el tiempo de inicio de la ventana de tiempo (ready time) de un nodo.
+         * @param index Índice del nodo.
+         * @param readyTime El valor del ready time.
+         * @return Este constructor.
+         */
+        public Builder setReadyTime(int index, double readyTime) {
+            this.readyTime[index] = readyTime;
+            return this;
+        }
+
+        /**
+         * @brief Establece el tiempo de fin de la ventana de tiempo (due time) de un nodo.
+         * @param index Índice del nodo.
+         * @param dueTime El valor del due time.
+         * @return Este constructor.
+         */
+        public Builder setDueTime(int index, double dueTime) {
+            this.dueTime[index] = dueTime;
+            return this;
+        }
+
+        /**
+         * @brief Establece el tiempo de servicio de un nodo.
+         * @param index Índice del nodo.
+         * @param serviceTime El valor del tiempo de servicio.
+         * @return Este constructor.
+         */
+        public Builder setServiceTime(int index, double serviceTime) {
+            this.serviceTime[index] = serviceTime;
+            return this;
+        }
+
+        /**
+         * @brief Establece el tiempo máximo permitido por ruta.
+         * @details Si no se establece, es el cierre de la ventana de tiempo del depósito.
+         * @param maxTimePerRoute El tiempo máximo por ruta.
+         * @return Este constructor.
+         */
+        public Builder setMaxTimePerRoute(double maxTimePerRoute) {
+            this.maxTimePerRoute = maxTimePerRoute;
+            return this;
+        }
+
+        /**
+         * @brief Establece el número máximo de rutas.
+         * @details Si no se establece, es el número de vehículos.
+         * @param maxRoutes El número máximo de rutas.
+         * @return Este constructor.
+         */
+        public Builder setMaxRoutes(double maxRoutes) {
+            this.maxRoutes = maxRoutes;
+            return this;
+        }
+
+        /**
+         * @brief Establece el número de vecinos cercanos por POI de los vecindarios granulares.
+         * @details Por defecto es `DEFAULT_NEIGHBORS` a partir de `GRANULAR_MIN_NODES` nodos y 0 por debajo.
+         * @param neighbors El número de vecinos, o 0 para no calcular listas de vecinos.
+         * @return Este constructor.
+         * @throws IllegalArgumentException Si el número de vecinos es negativo.
+         */
+        public Builder setNeighbors(int neighbors) {
+            if(neighbors < 0) {
+                throw new IllegalArgumentException("Número de vecinos no válido: "+neighbors);
             }
+            this.neighbors = neighbors;
+            return this;
         }
-        this.maxRoutes = routes;
-        this.vehicles = routes;
+
+        /**
+         * @brief Establece el tipo de almacén en el que se calcula la matriz de distancias.
+         * @details Permite elegir entre `FlatDistanceMatrix`, `PackedDistanceMatrix` o `FloatDistanceMatrix`
+         * según el tamaño de la instancia y la precisión necesaria. Por defecto se usa un `FlatDistanceMatrix`,
+         * o un `PackedDistanceMatrix` a partir de `PACKED_DISTANCES_MIN_NODES` nodos. Cada `build` crea su
+         * propio almacén, al que solo tiene acceso la instancia creada.
+         * @param distanceStore `DISTANCES_DEFAULT`, `DISTANCES_FLAT`, `DISTANCES_PACKED` o `DISTANCES_FLOAT`.
+         * @return Este constructor.
+         * @throws IllegalArgumentException Si el tipo de almacén es desconocido.
+         */
+        public Builder setDistanceStore(int distanceStore) {
+            if(distanceStore != DISTANCES_DEFAULT && distanceStore != DISTANCES_FLAT
+                    && distanceStore != DISTANCES_PACKED && distanceStore != DISTANCES_FLOAT) {
+                throw new IllegalArgumentException("Almacén de distancias desconocido: "+distanceStore);
+            }
+            this.distanceStore = distanceStore;
+            return this;
+        }
+
+        /**
+         * @brief Establece las tablas ya calculadas de la próxima instancia, leídas de la caché binaria.
+         * @details `build` usa las tablas sin copiarlas ni recalcularlas; pasan a ser de la instancia creada.
+         * @param distanceMatrix La matriz de distancias, ya rellena.
+         * @param neighborTable Las listas de vecinos, `getNeighborCount()` por nodo empezando por el depósito.
+         * @param compatibilityTable La matriz de bits de compatibilidad de los arcos, una fila por nodo.
+         * @return Este constructor.
+         */
+        Builder setPrecomputed(DistanceMatrix distanceMatrix, int[] neighborTable, long[] compatibilityTable) {
+            if(distanceMatrix.size() != this.nodes + 1) {
+                throw new IllegalArgumentException("La matriz de distancias tiene tamaño "+distanceMatrix.size()+" y la instancia "+(this.nodes + 1)+" nodos");
+            }
+            this.distanceMatrix = distanceMatrix;
+            this.neighbors = neighborTable.length / (this.nodes + 1);
+            this.neighborTable = neighborTable;
+            this.compatibilityTable = compatibilityTable;
+            return this;
+        }
+
+        /**
+         * @brief Crea la instancia con los datos actuales.
+         * @details Calcula la matriz de distancias, las listas de vecinos cercanos si se han pedido y la
+         * compatibilidad de los arcos con las ventanas de tiempo.
+         * @return La instancia, inmutable.
+         */
+        public TOPTW build() {
+            DistanceMatrix store = this.distanceMatrix;
+            if(store == null) {
+                store = this.createDistanceStore();
+            }
+            TOPTW problem = new TOPTW(this, store);
+            this.distanceMatrix = null;
+            this.neighborTable = null;
+            this.compatibilityTable = null;
+            return problem;
+        }
+
+        /**
+         * @brief Crea un almacén de distancias vacío del tipo elegido con `setDistanceStore`.
+         * @return El almacén, de tamaño número de POIs + 1.
+         */
+        private DistanceMatrix createDistanceStore() {
+            switch(this.distanceStore) {
+                case DISTANCES_FLAT:
+                    return new FlatDistanceMatrix(this.nodes + 1);
+                case DISTANCES_PACKED:
+                    return new PackedDistanceMatrix(this.nodes + 1);
+                case DISTANCES_FLOAT:
+                    return new FloatDistanceMatrix(this.nodes + 1);
+                default:
+                    return this.nodes + 1 < PACKED_DISTANCES_MIN_NODES
+                        ? new FlatDistanceMatrix(this.nodes + 1) : new PackedDistanceMatrix(this.nodes + 1);
+            }
+        }
+    }
+
+    /**
+     * @brief Constructor de la clase TOPTW a partir de los datos de un constructor.
+     * @param builder El constructor con los datos de los nodos.
+     * @param distanceMatrix El almacén vacío de la matriz de distancias.
+     */
+    private TOPTW(Builder builder, DistanceMatrix distanceMatrix) {
+        this.nodes = builder.nodes;
+        this.vehicles = builder.routes;
+        this.x = builder.x.clone();
+        this.y = builder.y.clone();
+        this.score = builder.score.clone();
+        this.readyTime = builder.readyTime.clone();
+        this.dueTime = builder.dueTime.clone();
+        this.serviceTime = builder.serviceTime.clone();
+        this.maxTimePerRoute = Double.isNaN(builder.maxTimePerRoute) ? this.dueTime[0] : builder.maxTimePerRoute;
+        this.maxRoutes = builder.maxRoutes;
+        this.distanceMatrix = distanceMatrix;
+        this.compatibilityWords = (this.nodes + 1 + 63) >>> 6;
+        this.reachable = new boolean[this.nodes + 1];
+        if(builder.compatibilityTable != null) {
+            this.neighborCount = builder.neighbors;
+            this.neighbors = builder.neighborTable;
+            this.compatibility = builder.compatibilityTable;
+            for(int i = 1; i <= this.nodes; i++) {
+                this.reachable[i] = this.isCompatible(0, i);
+            }
+            return;
+        }
+        this.calculateDistanceMatrix();
+        this.neighborCount = Math.max(Math.min(builder.neighbors, this.nodes - 1), 0);
+        this.neighbors = new int[(this.nodes + 1) * this.neighborCount];
+        this.calculateNeighbors();
+        this.compatibility = new long[(this.nodes + 1) * this.compatibilityWords];
+        this.calculateCompatibility();
     }
-    
+
     /**
      * @brief Comprueba si un índice de nodo corresponde a un depósito.
      * @param a El índice del nodo a comprobar. Los depósitos tienen índices mayores que el número de nodos.
@@ -112,37 +422,155 @@ public class TOPTW {
     /**
      * @brief Calcula y almacena la matriz de distancias euclidianas entre todos los nodos.
      * @details Utiliza las coordenadas X e Y de los nodos para calcular la distancia.
-     * La matriz es simétrica.
+     * La matriz es simétrica, por lo que cada par se calcula una sola vez.
      */
-    public void calculateDistanceMatrix() {
+    private void calculateDistanceMatrix() {
         for (int i = 0; i < this.nodes + 1; i++) {
-            for (int j = 0; j < this.nodes + 1; j++) {
-                if (i != j) {
-                    double diffXs = this.x[i] - this.x[j];
-                    double diffYs = this.y[i] - this.y[j];
-                    this.distanceMatrix[i][j] = Math.sqrt(diffXs * diffXs + diffYs * diffYs);
-                    this.distanceMatrix[j][i] = this.distanceMatrix[i][j];
-                } else {
-                    this.distanceMatrix[i][j] = 0.0;
+            this.distanceMatrix.set(i, i, 0.0);
+            for (int j = i + 1; j < this.nodes + 1; j++) {
+                double diffXs = this.x[i] - this.x[j];
+                double diffYs = this.y[i] - this.y[j];
+                this.distanceMatrix.set(i, j, Math.sqrt(diffXs * diffXs + diffYs * diffYs));
+            }
+        }
+    }
+
+    /**
+     * @brief Obtiene el almacén de la matriz de distancias, para escribirlo en la caché binaria.
+     * @details No es público: el almacén admite `set`, y modificarlo rompería la inmutabilidad de la instancia.
+     * Fuera del paquete, las distancias se consultan con `getDistance`.
+     * @return El almacén de distancias.
+     */
+    DistanceMatrix getDistanceMatrix() {
+        return this.distanceMatrix;
+    }
+
+    /**
+     * @brief Calcula para cada POI la lista de sus `neighborCount` POIs más cercanos.
+     * @details Indexa los POIs en una rejilla uniforme (`SpatialGrid`) a partir de sus coordenadas, de modo que
+     * cada búsqueda solo consulta las celdas próximas en lugar de todos los POIs.
+     */
+    private void calculateNeighbors() {
+        if(this.neighborCount == 0) {
+            return;
+        }
+        SpatialGrid grid = new SpatialGrid(this.x, this.y, 1, this.nodes);
+        int[] nearest = new int[this.neighborCount];
+        double[] distances = new double[this.neighborCount];
+        for(int i = 1; i <= this.nodes; i++) {
+            grid.nearest(i, this.neighborCount, nearest, distances);
+            System.arraycopy(nearest, 0, this.neighbors, i * this.neighborCount, this.neighborCount);
+        }
+    }
+
+    /**
+     * @brief Preprocesa las ventanas de tiempo: qué arcos pueden recorrerse y qué POIs pueden visitarse.
+     * @details El arco (i, j) es compatible si, saliendo de i lo antes posible (tras llegar directamente desde
+     * el depósito o al abrirse su ventana, y tras el servicio), se llega a j antes del cierre de su ventana y
+     * se puede servir j y volver al depósito dentro del tiempo máximo por ruta. Si no lo es, i y j nunca
+     * pueden ser consecutivos en una ruta factible. La compatibilidad se guarda como una matriz de bits, una
+     * fila de `long` por nodo (unos 3 MB con 5000 POIs). Un POI es alcanzable si el arco desde el depósito es
+     * compatible; los demás no caben en ninguna ruta y se excluyen de la construcción y de la búsqueda local.
+     */
+    private void calculateCompatibility() {
+        double maxTime = this.maxTimePerRoute + COMPATIBILITY_EPSILON;
+        for(int i = 0; i <= this.nodes; i++) {
+            double earliestDeparture = 0.0;
+            if(i != 0) {
+                earliestDeparture = Math.max(this.readyTime[i], this.getDistance(0, i)) + this.serviceTime[i];
+            }
+            for(int j = 0; j <= this.nodes; j++) {
+                double arrival = earliestDeparture + this.getDistance(i, j);
+                double departure = Math.max(arrival, this.readyTime[j]) + this.serviceTime[j];
+                if(j != 0) {
+                    departure += this.getDistance(j, 0);
+                }
+                if(arrival < this.dueTime[j] + COMPATIBILITY_EPSILON && departure <= maxTime) {
+                    this.compatibility[i * this.compatibilityWords + (j >>> 6)] |= 1L << j;
                 }
             }
         }
+        for(int i = 1; i <= this.nodes; i++) {
+            this.reachable[i] = this.isCompatible(0, i);
+        }
     }
 
     /**
-     * @brief Obtiene el tiempo máximo permitido por ruta.
-     * @return El tiempo máximo por ruta.
+     * @brief Obtiene el número de `long` de cada fila de la matriz de compatibilidad.
+     * @return El número de palabras por nodo.
      */
-    public double getMaxTimePerRoute() {
-        return maxTimePerRoute;
+    int getCompatibilityWords() {
+        return this.compatibilityWords;
+    }
+
+    /**
+     * @brief Obtiene una palabra de la matriz de bits de compatibilidad, para guardarla en la caché binaria.
+     * @param i El nodo anterior de los arcos.
+     * @param word La palabra de la fila, que contiene los nodos siguientes `64*word` a `64*word+63`.
+     * @return Los bits de compatibilidad de esos arcos.
+     */
+    long getCompatibilityWord(int i, int word) {
+        return this.compatibility[i * this.compatibilityWords + word];
+    }
+
+    /**
+     * @brief Comprueba si un nodo puede ir a continuación de otro en una ruta factible.
+     * @details Consulta un bit de la matriz de compatibilidad, sin calcular tiempos.
+     * @param i El nodo anterior. Los depósitos tienen índices mayores que el número de POIs.
+     * @param j El nodo siguiente.
+     * @return `false` si el arco nunca es factible; `true` si puede serlo.
+     */
+    public boolean isCompatible(int i, int j) {
+        if(i > this.nodes) {
+            i = 0;
+        }
+        if(j > this.nodes) {
+            j = 0;
+        }
+        return (this.compatibility[i * this.compatibilityWords + (j >>> 6)] & (1L << j)) != 0;
+    }
+
+    /**
+     * @brief Comprueba si un POI cabe en alguna ruta factible.
+     * @param poi El índice del POI, entre 1 y `getPOIs()`.
+     * @return `false` si el POI no puede visitarse; `true` si puede.
+     */
+    public boolean isReachable(int poi) {
+        return this.reachable[poi];
     }
 
     /**
-     * @brief Establece el tiempo máximo permitido por ruta.
-     * @param maxTimePerRoute El nuevo tiempo máximo por ruta.
+     * @brief Comprueba si se han calculado las listas de vecinos cercanos.
+     * @return `true` si la construcción y la búsqueda local deben usar vecindarios granulares.
      */
-    public void setMaxTimePerRoute(double maxTimePerRoute) {
-        this.maxTimePerRoute = maxTimePerRoute;
+    public boolean hasNeighbors() {
+        return this.neighborCount > 0;
+    }
+
+    /**
+     * @brief Obtiene el número de vecinos de cada POI.
+     * @return El número de vecinos, o 0 si no se han calculado.
+     */
+    public int getNeighborCount() {
+        return this.neighborCount;
+    }
+
+    /**
+     * @brief Obtiene uno de los vecinos más cercanos de un POI.
+     * @param poi El índice del POI, entre 1 y `getPOIs()`.
+     * @param i La posición del vecino, de 0 (el más cercano) a `getNeighborCount()`-1.
+     * @return El índice del POI vecino.
+     */
+    public int getNeighbor(int poi, int i) {
+        return this.neighbors[poi * this.neighborCount + i];
+    }
+
+    /**
+     * @brief Obtiene el tiempo máximo permitido por ruta.
+     * @return El tiempo máximo por ruta.
+     */
+    public double getMaxTimePerRoute() {
+        return maxTimePerRoute;
     }
 
     /**
@@ -153,14 +581,6 @@ public class TOPTW {
         return maxRoutes;
     }
 
-    /**
-     * @brief Establece el número máximo de rutas.
-     * @param maxRoutes El nuevo número máximo de rutas.
-     */
-    public void setMaxRoutes(double maxRoutes) {
-        this.maxRoutes = maxRoutes;
-    }
-    
     /**
      * @brief Obtiene el número de Puntos de Interés (POIs), sin contar el depósito.
      * @return El número de nodos cliente.
@@ -177,9 +597,7 @@ public class TOPTW {
      * @return La distancia entre los nodos i y j.
      */
     public double getDistance(int i, int j) {
-        if(this.isDepot(i)) { i=0; }
-        if(this.isDepot(j)) { j=0; }
-        return this.distanceMatrix[i][j];
+        return this.distanceMatrix.get(i > this.nodes ? 0 : i, j > this.nodes ? 0 : j);
     }
 
     /**
@@ -189,9 +607,7 @@ public class TOPTW {
      * @return El tiempo de viaje entre i y j.
      */
     public double getTime(int i, int j) {
-        if(this.isDepot(i)) { i=0; }
-        if(this.isDepot(j)) { j=0; }
-        return this.distanceMatrix[i][j];
+        return this.distanceMatrix.get(i > this.nodes ? 0 : i, j > this.nodes ? 0 : j);
     }
 
     /**
@@ -202,14 +618,6 @@ public class TOPTW {
         return this.nodes;
     }
 
-    /**
-     * @brief Establece el número de nodos.
-     * @param nodes El nuevo número de nodos.
-     */
-    public void setNodes(int nodes) {
-        this.nodes = nodes;
-    }
-
     /**
      * @brief Obtiene la coordenada X de un nodo.
      * @param index Índice del nodo.
@@ -220,15 +628,6 @@ public class TOPTW {
         return this.x[index];
     }
 
-    /**
-     * @brief Establece la coordenada X de un nodo.
-     * @param index Índice del nodo.
-     * @param x El valor de la coordenada X.
-     */
-    public void setX(int index, double x) {
-        this.x[index] = x;
-    }
-
     /**
      * @brief Obtiene la coordenada Y de un nodo.
      * @param index Índice del nodo.
@@ -239,15 +638,6 @@ public class TOPTW {
         return this.y[index];
     }
 
-    /**
-     * @brief Establece la coordenada Y de un nodo.
-     * @param index Índice del nodo.
-     * @param y El valor de la coordenada Y.
-     */
-    public void setY(int index, double y) {
-        this.y[index] = y;
-    }
-
     /**
      * @brief Obtiene la puntuación (score) de un nodo.
      * @param index Índice del nodo.
@@ -257,22 +647,13 @@ public class TOPTW {
         if(this.isDepot(index)) { index=0; }
         return this.score[index];
     }
-    
+
     /**
      * @brief Obtiene el array completo de puntuaciones de todos los nodos.
-     * @return Un array de doubles con las puntuaciones.
+     * @return Una copia del array de puntuaciones, que puede modificarse sin afectar a la instancia.
      */
     public double[] getScore() {
-        return this.score;
-    }
-
-    /**
-     * @brief Establece la puntuación de un nodo.
-     * @param index Índice del nodo.
-     * @param score El valor de la puntuación.
-     */
-    public void setScore(int index, double score) {
-        this.score[index] = score;
+        return this.score.clone();
     }
 
     /**
@@ -285,15 +666,6 @@ public class TOPTW {
         return this.readyTime[index];
     }
 
-    /**
-     * @brief Establece el tiempo de inicio de la ventana de tiempo (ready time) de un nodo.
-     * @param index Índice del nodo.
-     * @param readyTime El valor del ready time.
-     */
-    public void setReadyTime(int index, double readyTime) {
-        this.readyTime[index] = readyTime;
-    }
-
     /**
      * @brief Obtiene el tiempo de fin de la ventana de tiempo (due time) de un nodo.
      * @param index Índice del nodo.
@@ -304,15 +676,6 @@ public class TOPTW {
         return this.dueTime[index];
     }
 
-    /**
-     * @brief Establece el tiempo de fin de la ventana de tiempo (due time) de un nodo.
-     * @param index Índice del nodo.
-     * @param dueTime El valor del due time.
-     */
-    public void setDueTime(int index, double dueTime) {
-        this.dueTime[index] = dueTime;
-    }
-
     /**
      * @brief Obtiene el tiempo de servicio requerido en un nodo.
      * @param index Índice del nodo.
@@ -323,15 +686,6 @@ public class TOPTW {
         return this.serviceTime[index];
     }
 
-    /**
-     * @brief Establece el tiempo de servicio de un nodo.
-     * @param index Índice del nodo.
-     * @param serviceTime El valor del tiempo de servicio.
-     */
-    public void setServiceTime(int index, double serviceTime) {
-        this.serviceTime[index] = serviceTime;
-    }
-
     /**
      * @brief Obtiene el número de vehículos disponibles.
      * @return El número de vehículos.
@@ -339,7 +693,7 @@ public class TOPTW {
     public int getVehicles() {
         return this.vehicles;
     }
-    
+
     /**
      * @brief Genera una representación en formato de cadena de la instancia del problema.
      * @return Una cadena formateada con los detalles de los nodos y vehículos.
@@ -373,24 +727,4 @@ public class TOPTW {
         text += ExpositoUtilities.getFormat(strings, width) + "\n";
         return text;
     }
-
-    /**
-     * @brief Incrementa el contador de nodos.
-     * @deprecated Este método parece no ser utilizado de forma segura, ya que no redimensiona los arrays.
-     * @return El nuevo número de nodos.
-     */
-    public int addNode() {
-        this.nodes++;
-        return this.nodes;
-    }
-    
-    /**
-     * @brief Incrementa el contador de depósitos.
-     * @deprecated Este método parece no ser utilizado de forma segura.
-     * @return El nuevo número de depósitos.
-     */
-    public int addNodeDepot() {
-        this.depots++;
-        return this.depots;
-    }
 }
@@ -0,0 +1,695 @@
+/**
+ * @file TOPTWBatchRunner.java
+ * @brief Contiene la clase TOPTWBatchRunner, que ejecuta lotes de experimentos GRASP en paralelo.
+ */
+package top;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import es.ull.esit.utilities.AsyncReportWriter;
+
+/**
+ * @class TOPTWBatchRunner
+ * @brief Ejecuta el GRASP sobre todas las combinaciones de instancias, configuraciones y semillas de un lote.
+ * @details Las instancias se indican con patrones glob (`Instances/TOPTW/r1??.txt`) y las configuraciones con
+ * listas de tamaños de RCL, iteraciones, tiempos límite y semillas, cuyo producto cartesiano forma los
+ * trabajos. Cada trabajo es una ejecución secuencial del GRASP; los trabajos se reparten entre los hilos de un
+ * `ForkJoinPool`, que roba trabajo entre hilos, empezando por los más largos para que los últimos en terminar
+ * sean cortos. Las instancias se leen una sola vez, a través de la caché binaria, y se comparten entre los
+ * trabajos, ya que `TOPTW` es inmutable. El resultado de cada trabajo se escribe, en CSV o en NDJSON (un
+ * objeto JSON por línea), en cuanto termina. Todos los trabajos acumulan sus contadores en un mismo
+ * `TOPTWMetrics` (`getMetrics`), que con `--metrics` se vuelca periódicamente en la salida de error.
+ */
+public class TOPTWBatchRunner {
+    /**
+     * @brief Formato de salida: CSV con una cabecera.
+     */
+    public static final int FORMAT_CSV = 0;
+    /**
+     * @brief Formato de salida: un objeto JSON por línea.
+     */
+    public static final int FORMAT_NDJSON = 1;
+    /**
+     * @brief Instancias por defecto: las de Solomon adaptadas al TOPTW (c1, r1 y rc1).
+     */
+    public static final String DEFAULT_INSTANCES = "Instances/TOPTW/{c1??,r1??,rc1??}.txt";
+    /**
+     * @brief Número de iteraciones por defecto si no se indica ningún límite.
+     */
+    public static final int DEFAULT_ITERATIONS = 10000;
+    /**
+     * @brief Descripción de los argumentos de `fromArguments`.
+     */
+    public static final String USAGE = "Uso: mainTOPTW [opciones] [glob de instancias...]\n"
+        + "  --rcl 3,5,7          tamaños de RCL fijos, uno por configuración\n"
+        + "  --reactive 3,5,7     GRASP reactivo con estos tamaños de RCL (por defecto, si no hay --rcl)\n"
+        + "  --iterations 1000,.. límites de iteraciones (por defecto " + DEFAULT_ITERATIONS + " si no hay --time)\n"
+        + "  --time 1000,...      límites de tiempo en milisegundos\n"
+        + "  --seeds 1,2,...      semillas (por defecto, una aleatoria común a todo el lote)\n"
+        + "  --threads N          hilos de trabajo (por defecto, los procesadores disponibles)\n"
+        + "  --format csv|ndjson  formato de los resultados (por defecto, csv)\n"
+        + "  --output FICHERO     fichero de resultados (por defecto, la salida estándar)\n"
+        + "  --no-local-search    desactiva la búsqueda local\n"
+        + "  --metrics MS         vuelca las métricas del GRASP en la salida de error cada MS milisegundos\n"
+        + "Sin globs se usan las instancias " + DEFAULT_INSTANCES + ".";
+    // Columnas de los resultados
+    private static final String[] COLUMNS = {"instance", "pois", "rcl", "iterations", "time_ms", "seed",
+        "best", "average", "time_to_best_ms", "elapsed_ms", "evaluations"};
+    // Directorio de la caché binaria de instancias, configurable con la propiedad expositotop.cache
+    private static final String CACHE_DIRECTORY = System.getProperty("expositotop.cache", "target/instance-cache");
+    private final List<String> instances;
+    private int[] rclSizes;
+    private int[] reactiveSizes;
+    private int[] iterations;
+    private long[] timeMillis;
+    private long[] seeds;
+    private int threads;
+    private int format;
+    private boolean localSearch;
+    private String outputFile;
+    private final TOPTWMetrics metrics;
+    private long metricsPeriod;
+
+    /**
+     * @class Job
+     * @brief Una ejecución del GRASP: instancia, configuración y semilla.
+     */
+    private static class Job {
+        private final String instance;
+        private final TOPTW problem;
+        private final int rclSize;
+        private final int[] reactiveSizes;
+        private final int iterations;
+        private final long timeMillis;
+        private final long seed;
+
+        /**
+         * @brief Constructor de la clase Job.
+         * @param instance La ruta de la instancia.
+         * @param problem La instancia.
+         * @param rclSize El tamaño de la RCL, o `TOPTWStopCondition.NO_LIMIT` con el GRASP reactivo.
+         * @param reactiveSizes Los tamaños del GRASP reactivo, o `null`.
+         * @param iterations El límite de iteraciones, o `TOPTWStopCondition.NO_LIMIT`.
+         * @param timeMillis El límite de tiempo, o `TOPTWStopCondition.NO_LIMIT`.
+         * @param seed La semilla.
+         */
+        private Job(String instance, TOPTW problem, int rclSize, int[] reactiveSizes, int iterations, long timeMillis, long seed) {
+            this.instance = instance;
+            this.problem = problem;
+            this.rclSize = rclSize;
+            this.reactiveSizes = reactiveSizes;
+            this.iterations = iterations;
+            this.timeMillis = timeMillis;
+            this.seed = seed;
+        }
+
+        /**
+         * @brief Estima el trabajo de las iteraciones: cada construcción evalúa del orden de POIs² inserciones.
+         * @return La estimación, o infinito si no hay límite de iteraciones.
+         */
+        private double getIterationWork() {
+            if(this.iterations == TOPTWStopCondition.NO_LIMIT) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return (double) this.iterations * this.problem.getPOIs() * this.problem.getPOIs();
+        }
+
+        /**
+         * @brief Obtiene el límite de tiempo para ordenar los trabajos.
+         * @return El límite, o el máximo si no hay límite de tiempo.
+         */
+        private long getTimeBound() {
+            return this.timeMillis == TOPTWStopCondition.NO_LIMIT ? Long.MAX_VALUE : this.timeMillis;
+        }
+
+        /**
+         * @brief Describe la RCL del trabajo.
+         * @return El tamaño, o los tamaños del GRASP reactivo separados por `|`.
+         */
+        private String getRCL() {
+            if(this.reactiveSizes == null) {
+                return Integer.toString(this.rclSize);
+            }
+            StringBuilder text = new StringBuilder();
+            for(int i = 0; i < this.reactiveSizes.length; i++) {
+                text.append(i == 0 ? "" : "|").append(this.reactiveSizes[i]);
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * @brief Constructor de la clase TOPTWBatchRunner con la configuración por defecto de `mainTOPTW`.
+     * @details GRASP reactivo con tamaños de RCL 3, 5 y 7, 10000 iteraciones, búsqueda local, una semilla
+     * aleatoria, tantos hilos como procesadores y resultados en CSV. Sin instancias: si no se añade
+     * ninguna, se usan las de `DEFAULT_INSTANCES`.
+     */
+    public TOPTWBatchRunner() {
+        this.instances = new ArrayList<String>();
+        this.rclSizes = new int[0];
+        this.reactiveSizes = new int[]{3, 5, 7};
+        this.iterations = new int[]{DEFAULT_ITERATIONS};
+        this.timeMillis = new long[0];
+        this.seeds = new long[]{new SecureRandom().nextLong()};
+        this.threads = Runtime.getRuntime().availableProcessors();
+        this.format = FORMAT_CSV;
+        this.localSearch = true;
+        this.outputFile = null;
+        this.metrics = new TOPTWMetrics();
+        this.metricsPeriod = 0;
+    }
+
+    /**
+     * @brief Crea un lote a partir de los argumentos de la línea de comandos (ver `USAGE`).
+     * @param args Los argumentos.
+     * @return El lote configurado.
+     * @throws IllegalArgumentException Si algún argumento no es válido.
+     */
+    public static TOPTWBatchRunner fromArguments(String[] args) {
+        TOPTWBatchRunner runner = new TOPTWBatchRunner();
+        boolean fixedRCL = false, reactive = false, limitedIterations = false, limitedTime = false;
+        for(int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if(!option.startsWith("--")) {
+                runner.addInstances(option);
+                continue;
+            }
+            if(option.equals("--no-local-search")) {
+                runner.setLocalSearch(false);
+                continue;
+            }
+            if(i + 1 >= args.length) {
+                throw new IllegalArgumentException("Falta el valor de " + option);
+            }
+            String value = args[++i];
+            switch(option) {
+                case "--rcl":
+                    runner.setRCLSizes(TOPTWBatchRunner.parseInts(option, value));
+                    fixedRCL = true;
+                    break;
+                case "--reactive":
+                    runner.setReactiveSizes(TOPTWBatchRunner.parseInts(option, value));
+                    reactive = true;
+                    break;
+                case "--iterations":
+                    runner.setIterations(TOPTWBatchRunner.parseInts(option, value));
+                    limitedIterations = true;
+                    break;
+                case "--time":
+                    runner.setTimeMillis(TOPTWBatchRunner.parsePositiveLongs(option, value));
+                    limitedTime = true;
+                    break;
+                case "--seeds":
+                    runner.setSeeds(TOPTWBatchRunner.parseLongs(option, value));
+                    break;
+                case "--threads":
+                    runner.setThreads(TOPTWBatchRunner.parseInts(option, value)[0]);
+                    break;
+                case "--format":
+                    if(value.equals("csv")) {
+                        runner.setFormat(FORMAT_CSV);
+                    } else if(value.equals("ndjson")) {
+                        runner.setFormat(FORMAT_NDJSON);
+                    } else {
+                        throw new IllegalArgumentException("Formato desconocido: " + value);
+                    }
+                    break;
+                case "--output":
+                    runner.setOutputFile(value);
+                    break;
+                case "--metrics":
+                    runner.setMetricsPeriod(TOPTWBatchRunner.parseInts(option, value)[0]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Opción desconocida: " + option);
+            }
+        }
+        if(fixedRCL && !reactive) {
+            runner.setReactiveSizes(null);
+        }
+        if(limitedTime && !limitedIterations) {
+            runner.setIterations(new int[0]);
+        }
+        return runner;
+    }
+
+    /**
+     * @brief Ejecuta todos los trabajos del lote y escribe sus resultados a medida que terminan.
+     * @param output El flujo de los resultados; se vacía al terminar, pero no se cierra.
+     * @return El número de trabajos ejecutados.
+     * @throws IllegalArgumentException Si algún patrón no coincide con ningún fichero o el lote está vacío.
+     * @throws TOPTWReaderException Si alguna instancia no se puede leer.
+     * @throws IllegalStateException Si falla algún trabajo; los pendientes se cancelan.
+     * @throws UncheckedIOException Si no se pueden buscar las instancias o escribir los resultados.
+     */
+    public int run(Writer output) {
+        List<String> files = this.expandInstances();
+        ForkJoinPool pool = new ForkJoinPool(this.threads);
+        AsyncReportWriter writer = new AsyncReportWriter(output);
+        Closeable metricsDump = null;
+        if(this.metricsPeriod > 0) {
+            metricsDump = this.metrics.startDump(new OutputStreamWriter(System.err, StandardCharsets.UTF_8), this.metricsPeriod,
+                this.format == FORMAT_NDJSON ? TOPTWMetrics.FORMAT_JSON : TOPTWMetrics.FORMAT_TEXT);
+        }
+        try {
+            List<Callable<TOPTW>> readers = new ArrayList<Callable<TOPTW>>();
+            for(final String file : files) {
+                readers.add(new Callable<TOPTW>() {
+                    public TOPTW call() {
+                        return TOPTWReader.readProblem(file, CACHE_DIRECTORY);
+                    }
+                });
+            }
+            List<Job> jobs = new ArrayList<Job>();
+            List<Future<TOPTW>> problems = pool.invokeAll(readers);
+            for(int f = 0; f < files.size(); f++) {
+                this.addJobs(jobs, files.get(f), problems.get(f).get());
+            }
+            if(jobs.isEmpty()) {
+                throw new IllegalArgumentException("El lote no tiene trabajos: falta algún tamaño de RCL, límite o semilla");
+            }
+            // Los más largos primero; la ordenación es estable, así que los empates siguen el orden del lote
+            Collections.sort(jobs, new Comparator<Job>() {
+                public int compare(Job a, Job b) {
+                    int time = Long.compare(b.getTimeBound(), a.getTimeBound());
+                    return time != 0 ? time : Double.compare(b.getIterationWork(), a.getIterationWork());
+                }
+            });
+            if(this.format == FORMAT_CSV) {
+                writer.println(String.join(",", COLUMNS));
+            }
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for(final Job job : jobs) {
+                final AsyncReportWriter out = writer;
+                results.add(pool.submit(new Callable<Void>() {
+                    public Void call() throws IOException {
+                        out.println(TOPTWBatchRunner.this.runJob(job));
+                        return null;
+                    }
+                }));
+            }
+            for(Future<Void> result : results) {
+                result.get();
+            }
+            writer.close();
+            return jobs.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Lote interrumpido", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof TOPTWReaderException) {
+                throw (TOPTWReaderException) e.getCause();
+            }
+            throw new IllegalStateException("Error en un trabajo del lote", e.getCause());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al escribir los resultados del lote", e);
+        } finally {
+            pool.shutdownNow();
+            try {
+                writer.close();
+            } catch (IOException e) {
+                // ya se ha informado del error principal
+            }
+            try {
+                if(metricsDump != null) {
+                    metricsDump.close();
+                }
+            } catch (IOException e) {
+                // las métricas son informativas; no ocultan el resultado del lote
+            }
+        }
+    }
+
+    /**
+     * @brief Añade los trabajos de una instancia: todas las combinaciones de RCL, límites y semillas.
+     * @param jobs La lista de trabajos.
+     * @param file La ruta de la instancia.
+     * @param problem La instancia.
+     */
+    private void addJobs(List<Job> jobs, String file, TOPTW problem) {
+        List<int[]> stops = new ArrayList<int[]>(); // índices de iteraciones y de tiempo, o -1 sin límite
+        for(int it = this.iterations.length == 0 ? -1 : 0; it < this.iterations.length; it++) {
+            for(int t = this.timeMillis.length == 0 ? -1 : 0; t < this.timeMillis.length; t++) {
+                if(it >= 0 || t >= 0) {
+                    stops.add(new int[]{it, t});
+                }
+            }
+        }
+        int rcls = this.rclSizes.length + (this.reactiveSizes == null ? 0 : 1);
+        for(int r = 0; r < rcls; r++) {
+            boolean reactive = r == this.rclSizes.length;
+            for(int[] stop : stops) {
+                for(long seed : this.seeds) {
+                    jobs.add(new Job(file, problem, reactive ? TOPTWStopCondition.NO_LIMIT : this.rclSizes[r],
+                        reactive ? this.reactiveSizes : null,
+                        stop[0] < 0 ? TOPTWStopCondition.NO_LIMIT : this.iterations[stop[0]],
+                        stop[1] < 0 ? TOPTWStopCondition.NO_LIMIT : this.timeMillis[stop[1]], seed));
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Ejecuta un trabajo y formatea su resultado.
+     * @param job El trabajo.
+     * @return La línea de resultados, sin salto de línea.
+     */
+    private String runJob(Job job) {
+        long start = System.nanoTime();
+        TOPTWSolution solution = new TOPTWSolution(job.problem);
+        TOPTWGRASP grasp = new TOPTWGRASP(solution, job.seed);
+        grasp.setLocalSearch(this.localSearch);
+        grasp.setReportMode(TOPTWGRASP.REPORT_NONE);
+        grasp.setMetrics(this.metrics);
+        TOPTWStopCondition stopCondition = new TOPTWStopCondition();
+        stopCondition.setMaxIterations(job.iterations);
+        stopCondition.setMaxTimeMillis(job.timeMillis);
+        if(job.reactiveSizes == null) {
+            grasp.GRASP(stopCondition, job.rclSize);
+        } else {
+            grasp.reactiveGRASP(stopCondition, new TOPTWReactiveRCL(job.reactiveSizes));
+        }
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        Object[] values = {job.instance, job.problem.getPOIs(), job.getRCL(), job.iterations, job.timeMillis, job.seed,
+            grasp.getBestFitness(), grasp.getAverageFitness(), grasp.getSolutionTime(), elapsed, solution.getEvaluations()};
+        StringBuilder line = new StringBuilder();
+        line.append(this.format == FORMAT_NDJSON ? "{" : "");
+        for(int c = 0; c < COLUMNS.length; c++) {
+            line.append(c == 0 ? "" : ",");
+            if(this.format == FORMAT_NDJSON) {
+                line.append('"').append(COLUMNS[c]).append("\":").append(TOPTWBatchRunner.toJSON(values[c]));
+            } else {
+                line.append(TOPTWBatchRunner.toCSV(values[c]));
+            }
+        }
+        line.append(this.format == FORMAT_NDJSON ? "}" : "");
+        return line.toString();
+    }
+
+    /**
+     * @brief Busca los ficheros que coinciden con los patrones de instancias.
+     * @return Las rutas, ordenadas y sin repetir.
+     * @throws IllegalArgumentException Si algún patrón no coincide con ningún fichero.
+     * @throws UncheckedIOException Si no se puede recorrer algún directorio.
+     */
+    private List<String> expandInstances() {
+        List<String> patterns = this.instances.isEmpty() ? Collections.singletonList(DEFAULT_INSTANCES) : this.instances;
+        TreeSet<String> files = new TreeSet<String>();
+        for(String pattern : patterns) {
+            List<String> matches = TOPTWBatchRunner.expand(pattern);
+            if(matches.isEmpty()) {
+                throw new IllegalArgumentException("Ninguna instancia coincide con " + pattern);
+            }
+            files.addAll(matches);
+        }
+        return new ArrayList<String>(files);
+    }
+
+    /**
+     * @brief Busca los ficheros que coinciden con un patrón glob.
+     * @details Recorre el directorio formado por los componentes del patrón anteriores al primer comodín.
+     * @param pattern El patrón, relativo al directorio de trabajo o absoluto.
+     * @return Las rutas de los ficheros.
+     * @throws UncheckedIOException Si no se puede recorrer el directorio.
+     */
+    private static List<String> expand(String pattern) {
+        String normalized = pattern.replace('\\', '/');
+        int wildcard = -1;
+        for(int i = 0; i < normalized.length() && wildcard < 0; i++) {
+            if("*?[{".indexOf(normalized.charAt(i)) >= 0) {
+                wildcard = i;
+            }
+        }
+        List<String> files = new ArrayList<String>();
+        if(wildcard < 0) {
+            if(Files.isRegularFile(Paths.get(pattern))) {
+                files.add(pattern);
+            }
+            return files;
+        }
+        Path base = Paths.get(normalized.substring(0, normalized.lastIndexOf('/', wildcard) + 1));
+        if(!Files.isDirectory(base.toString().isEmpty() ? Paths.get(".") : base)) {
+            return files;
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + normalized);
+        try (Stream<Path> paths = Files.walk(base)) {
+            Iterator<Path> iterator = paths.iterator();
+            while(iterator.hasNext()) {
+                Path path = iterator.next();
+                if(Files.isRegularFile(path) && matcher.matches(path)) {
+                    files.add(path.toString());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pueden buscar las instancias de " + pattern, e);
+        }
+        return files;
+    }
+
+    /**
+     * @brief Convierte una lista de enteros separados por comas.
+     * @param option La opción, para los mensajes de error.
+     * @param value La lista.
+     * @return Los enteros.
+     * @throws IllegalArgumentException Si algún elemento no es un entero positivo.
+     */
+    private static int[] parseInts(String option, String value) {
+        long[] values = TOPTWBatchRunner.parsePositiveLongs(option, value);
+        int[] ints = new int[values.length];
+        for(int i = 0; i < values.length; i++) {
+            if(values[i] > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Valor no válido en " + option + ": " + values[i]);
+            }
+            ints[i] = (int) values[i];
+        }
+        return ints;
+    }
+
+    /**
+     * @brief Convierte una lista de enteros largos positivos separados por comas.
+     * @param option La opción, para los mensajes de error.
+     * @param value La lista.
+     * @return Los enteros.
+     * @throws IllegalArgumentException Si algún elemento no es un entero positivo.
+     */
+    private static long[] parsePositiveLongs(String option, String value) {
+        long[] values = TOPTWBatchRunner.parseLongs(option, value);
+        for(long item : values) {
+            if(item <= 0) {
+                throw new IllegalArgumentException("Valor no válido en " + option + ": " + item);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @brief Convierte una lista de enteros largos separados por comas.
+     * @param option La opción, para los mensajes de error.
+     * @param value La lista.
+     * @return Los enteros.
+     * @throws IllegalArgumentException Si algún elemento no es un entero.
+     */
+    private static long[] parseLongs(String option, String value) {
+        String[] items = value.split(",");
+        long[] values = new long[items.length];
+        for(int i = 0; i < items.length; i++) {
+            try {
+                values[i] = Long.parseLong(items[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Valor no válido en " + option + ": " + items[i], e);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @brief Formatea un valor como campo CSV, entre comillas si contiene comas, comillas o saltos de línea.
+     * @param value El valor.
+     * @return El campo.
+     */
+    private static String toCSV(Object value) {
+        String text = String.valueOf(value);
+        if(text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+            return text;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * @brief Formatea un valor como JSON: números tal cual (`null` si no son finitos) y el resto como cadenas.
+     * @param value El valor.
+     * @return El valor JSON.
+     */
+    private static String toJSON(Object value) {
+        if(value instanceof Double) {
+            double number = (Double) value;
+            return Double.isFinite(number) ? Double.toString(number) : "null";
+        }
+        if(value instanceof Number) {
+            return value.toString();
+        }
+        StringBuilder text = new StringBuilder("\"");
+        for(char c : value.toString().toCharArray()) {
+            if(c == '"' || c == '\\') {
+                text.append('\\').append(c);
+            } else if(c < 0x20) {
+                text.append(String.format("\\u%04x", (int) c));
+            } else {
+                text.append(c);
+            }
+        }
+        return text.append('"').toString();
+    }
+
+    /**
+     * @brief Añade un patrón glob de instancias al lote.
+     * @param pattern El patrón, por ejemplo `Instances/TOPTW/pr*.txt`.
+     */
+    public void addInstances(String pattern) {
+        this.instances.add(pattern);
+    }
+
+    /**
+     * @brief Establece los tamaños de RCL fijos; cada uno es una configuración.
+     * @param rclSizes Los tamaños.
+     */
+    public void setRCLSizes(int[] rclSizes) {
+        this.rclSizes = rclSizes.clone();
+    }
+
+    /**
+     * @brief Establece los tamaños de RCL del GRASP reactivo, que forma una configuración más.
+     * @param reactiveSizes Los tamaños, o `null` para no ejecutar el GRASP reactivo.
+     */
+    public void setReactiveSizes(int[] reactiveSizes) {
+        this.reactiveSizes = reactiveSizes == null ? null : reactiveSizes.clone();
+    }
+
+    /**
+     * @brief Establece los límites de iteraciones.
+     * @param iterations Los límites, o un array vacío para no limitar las iteraciones.
+     * @throws IllegalArgumentException Si algún límite no es positivo.
+     */
+    public void setIterations(int[] iterations) {
+        for(int limit : iterations) {
+            if(limit <= 0) {
+                throw new IllegalArgumentException("Límite de iteraciones no válido: " + limit);
+            }
+        }
+        this.iterations = iterations.clone();
+    }
+
+    /**
+     * @brief Establece los límites de tiempo; se combinan con cada límite de iteraciones.
+     * @param timeMillis Los límites en milisegundos, o un array vacío para no limitar el tiempo.
+     * @throws IllegalArgumentException Si algún límite no es positivo.
+     */
+    public void setTimeMillis(long[] timeMillis) {
+        for(long limit : timeMillis) {
+            if(limit <= 0) {
+                throw new IllegalArgumentException("Límite de tiempo no válido: " + limit);
+            }
+        }
+        this.timeMillis = timeMillis.clone();
+    }
+
+    /**
+     * @brief Establece las semillas; cada configuración se ejecuta una vez con cada una.
+     * @param seeds Las semillas.
+     */
+    public void setSeeds(long[] seeds) {
+        this.seeds = seeds.clone();
+    }
+
+    /**
+     * @brief Establece el número de hilos de trabajo.
+     * @param threads El número de hilos.
+     * @throws IllegalArgumentException Si no es positivo.
+     */
+    public void setThreads(int threads) {
+        if(threads < 1) {
+            throw new IllegalArgumentException("Número de hilos no válido: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * @brief Establece el formato de los resultados.
+     * @param format `FORMAT_CSV` o `FORMAT_NDJSON`.
+     * @throws IllegalArgumentException Si el formato es desconocido.
+     */
+    public void setFormat(int format) {
+        if(format != FORMAT_CSV && format != FORMAT_NDJSON) {
+            throw new IllegalArgumentException("Formato desconocido: " + format);
+        }
+        this.format = format;
+    }
+
+    /**
+     * @brief Establece el fichero de resultados, para quien abre el flujo que recibe `run`.
+     * @param outputFile La ruta del fichero, o `null` para la salida estándar.
+     */
+    public void setOutputFile(String outputFile) {
+        this.outputFile = outputFile;
+    }
+
+    /**
+     * @brief Obtiene el fichero de resultados.
+     * @return La ruta del fichero, o `null` para la salida estándar.
+     */
+    public String getOutputFile() {
+        return this.outputFile;
+    }
+
+    /**
+     * @brief Establece cada cuánto se vuelcan las métricas en la salida de error durante `run`.
+     * @details Los volcados son de texto con resultados en CSV y JSON con resultados en NDJSON; al terminar
+     * el lote se escribe uno final.
+     * @param metricsPeriod Los milisegundos entre dos volcados, o 0 para no volcarlas.
+     * @throws IllegalArgumentException Si es negativo.
+     */
+    public void setMetricsPeriod(long metricsPeriod) {
+        if(metricsPeriod < 0) {
+            throw new IllegalArgumentException("Periodo de las métricas no válido: " + metricsPeriod);
+        }
+        this.metricsPeriod = metricsPeriod;
+    }
+
+    /**
+     * @brief Obtiene las métricas que comparten todos los trabajos del lote.
+     * @return Las métricas, que pueden consultarse mientras se ejecuta `run`.
+     */
+    public TOPTWMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * @brief Activa o desactiva la búsqueda local en todos los trabajos.
+     * @param localSearch `true` para mejorar cada construcción con `TOPTWLocalSearch`.
+     */
+    public void setLocalSearch(boolean localSearch) {
+        this.localSearch = localSearch;
+    }
+}
@@ -0,0 +1,235 @@
+/**
+ * @file TOPTWCandidateList.java
+ * @brief Contiene la clase TOPTWCandidateList, la lista de candidatos a insertar durante la construcción.
+ */
+package top;
+
+/**
+ * @class TOPTWCandidateList
+ * @brief Lista de candidatos de inserción almacenada como estructura de arrays primitivos.
+ * @details Cada candidato es la mejor inserción de un cliente: cliente, ruta, predecesor, coste y score,
+ * guardados en arrays paralelos en lugar de un `double[]` por candidato. La RCL se construye por selección
+ * parcial sobre un array de índices, sin ordenar toda la lista ni mover los datos. Todos los arrays se
+ * reservan una vez con capacidad para todos los clientes y se reutilizan entre construcciones.
+ */
+public class TOPTWCandidateList {
+    private final int[] customers;
+    private final int[] routes;
+    private final int[] predecessors;
+    private final double[] costs;
+    private final double[] scores;
+    private final int[] order;
+    private final int[] heap;
+    private int size;
+
+    /**
+     * @brief Constructor de la clase TOPTWCandidateList.
+     * @param problem La instancia del problema; la capacidad es su número de clientes.
+     */
+    public TOPTWCandidateList(TOPTW problem) {
+        int capacity = problem.getPOIs();
+        this.customers = new int[capacity];
+        this.routes = new int[capacity];
+        this.predecessors = new int[capacity];
+        this.costs = new double[capacity];
+        this.scores = new double[capacity];
+        this.order = new int[capacity];
+        this.heap = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * @brief Vacía la lista sin liberar memoria.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * @brief Añade un candidato al final de la lista.
+     * @param customer El cliente.
+     * @param route La ruta de la inserción.
+     * @param predecessor El nodo tras el cual se inserta.
+     * @param cost El coste de la inserción (tiempo de finalización de la ruta).
+     * @param score La puntuación del cliente.
+     */
+    public void add(int customer, int route, int predecessor, double cost, double score) {
+        this.customers[this.size] = customer;
+        this.routes[this.size] = route;
+        this.predecessors[this.size] = predecessor;
+        this.costs[this.size] = cost;
+        this.scores[this.size] = score;
+        this.order[this.size] = this.size;
+        this.size++;
+    }
+
+    /**
+     * @brief Coloca en las primeras posiciones los `k` candidatos de menor coste, ordenados.
+     * @details Selección parcial con un montículo de máximos acotado a `k` elementos: O(n log k) en lugar
+     * de ordenar toda la lista. Los empates de coste se resuelven por orden de inserción, de modo que el
+     * resultado coincide con los `k` primeros de una ordenación estable. Las posiciones a partir de `k`
+     * quedan sin un orden definido.
+     * @param k El tamaño máximo de la RCL.
+     * @return El número de candidatos seleccionados, `min(k, size())`.
+     */
+    public int selectBest(int k) {
+        if(k > this.size) { k = this.size; }
+        int[] heap = this.heap;
+        int heapSize = 0;
+        for(int i = 0; i < this.size; i++) {
+            if(heapSize < k) {
+                heap[heapSize] = i;
+                this.siftUp(heap, heapSize++);
+            } else if(heapSize > 0 && this.isBetter(i, heap[0])) {
+                heap[0] = i;
+                this.siftDown(heap, heapSize);
+            }
+        }
+        // Extracción del máximo de forma repetida: se rellena la RCL desde el final
+        for(int position = k - 1; position >= 0; position--) {
+            this.order[position] = heap[0];
+            heap[0] = heap[--heapSize];
+            this.siftDown(heap, heapSize);
+        }
+        return k;
+    }
+
+    /**
+     * @brief Coloca en las primeras posiciones los candidatos cuyo coste no supera un umbral relativo.
+     * @details RCL por valor: entran los candidatos con coste menor o igual que
+     * `min + alpha * (max - min)`. Se calcula en dos recorridos lineales y sin ordenar; los candidatos
+     * seleccionados conservan el orden de inserción.
+     * @param alpha El umbral relativo, entre 0 (solo los de coste mínimo) y 1 (todos).
+     * @return El número de candidatos seleccionados.
+     */
+    public int selectByValue(double alpha) {
+        double minCost = Double.MAX_VALUE, maxCost = -Double.MAX_VALUE;
+        for(int i = 0; i < this.size; i++) {
+            if(this.costs[i] < minCost) { minCost = this.costs[i]; }
+            if(this.costs[i] > maxCost) { maxCost = this.costs[i]; }
+        }
+        double threshold = minCost + alpha * (maxCost - minCost);
+        int selected = 0;
+        for(int i = 0; i < this.size; i++) {
+            if(this.costs[i] <= threshold) {
+                this.order[selected++] = i;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * @brief Indica si un candidato es mejor que otro: menor coste o, a igual coste, insertado antes.
+     * @param a El índice del primer candidato.
+     * @param b El índice del segundo candidato.
+     * @return `true` si `a` es mejor que `b`.
+     */
+    private boolean isBetter(int a, int b) {
+        return this.costs[a] < this.costs[b] || (this.costs[a] == this.costs[b] && a < b);
+    }
+
+    /**
+     * @brief Reubica hacia arriba un elemento del montículo de máximos.
+     * @param heap El montículo.
+     * @param position La posición del elemento.
+     */
+    private void siftUp(int[] heap, int position) {
+        int element = heap[position];
+        while(position > 0) {
+            int parent = (position - 1) / 2;
+            if(!this.isBetter(heap[parent], element)) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = element;
+    }
+
+    /**
+     * @brief Reubica hacia abajo la raíz del montículo de máximos.
+     * @param heap El montículo.
+     * @param heapSize El número de elementos del montículo.
+     */
+    private void siftDown(int[] heap, int heapSize) {
+        if(heapSize == 0) {
+            return;
+        }
+        int element = heap[0];
+        int position = 0;
+        while(2 * position + 1 < heapSize) {
+            int child = 2 * position + 1;
+            if(child + 1 < heapSize && this.isBetter(heap[child], heap[child + 1])) {
+                child++;
+            }
+            if(!this.isBetter(element, heap[child])) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = element;
+    }
+
+    /**
+     * @brief Obtiene el número de candidatos.
+     * @return El tamaño de la lista.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @brief Comprueba si la lista está vacía.
+     * @return `true` si no hay candidatos.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * @brief Obtiene el cliente del candidato en una posición del orden actual.
+     * @details Tras `selectBest` o `selectByValue`, las primeras posiciones son la RCL.
+     * @param position La posición en la lista.
+     * @return El cliente.
+     */
+    public int getCustomer(int position) {
+        return this.customers[this.order[position]];
+    }
+
+    /**
+     * @brief Obtiene la ruta del candidato en una posición del orden actual.
+     * @param position La posición en la lista.
+     * @return El índice de la ruta.
+     */
+    public int getRoute(int position) {
+        return this.routes[this.order[position]];
+    }
+
+    /**
+     * @brief Obtiene el predecesor del candidato en una posición del orden actual.
+     * @param position La posición en la lista.
+     * @return El nodo tras el cual se inserta el cliente.
+     */
+    public int getPredecessor(int position) {
+        return this.predecessors[this.order[position]];
+    }
+
+    /**
+     * @brief Obtiene el coste del candidato en una posición del orden actual.
+     * @param position La posición en la lista.
+     * @return El coste de la inserción.
+     */
+    public double getCost(int position) {
+        return this.costs[this.order[position]];
+    }
+
+    /**
+     * @brief Obtiene la puntuación del candidato en una posición del orden actual.
+     * @param position La posición en la lista.
+     * @return La puntuación del cliente.
+     */
+    public double getScore(int position) {
+        return this.scores[this.order[position]];
+    }
+}
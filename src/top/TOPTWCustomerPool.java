@@ -0,0 +1,95 @@
+/**
+ * @file TOPTWCustomerPool.java
+ * @brief Contiene la clase TOPTWCustomerPool, el conjunto de clientes pendientes de asignar durante la construcción.
+ */
+package top;
+
+/**
+ * @class TOPTWCustomerPool
+ * @brief Conjunto de clientes sin asignar respaldado por arrays de enteros.
+ * @details Guarda los clientes en un array denso junto con la posición de cada uno, de modo que
+ * la pertenencia y la eliminación son O(1) (se intercambia con el último). Los arrays se reutilizan
+ * entre construcciones, por lo que `reset` no reserva memoria.
+ */
+public class TOPTWCustomerPool {
+    private final TOPTW problem;
+    private final int[] customers;
+    private final int[] positions;
+    private int size;
+
+    /**
+     * @brief Constructor de la clase TOPTWCustomerPool.
+     * @param problem La instancia del problema cuyos clientes se gestionarán.
+     */
+    public TOPTWCustomerPool(TOPTW problem) {
+        this.problem = problem;
+        this.customers = new int[problem.getPOIs()];
+        this.positions = new int[problem.getPOIs() + 1];
+        this.reset();
+    }
+
+    /**
+     * @brief Vuelve a llenar el conjunto con todos los clientes alcanzables (`TOPTW.isReachable`) en orden.
+     * @details Los clientes que no caben en ninguna ruta quedan fuera desde el principio.
+     */
+    public void reset() {
+        this.size = 0;
+        for(int c = 1; c <= this.customers.length; c++) {
+            if(this.problem.isReachable(c)) {
+                this.customers[this.size] = c;
+                this.positions[c] = this.size++;
+            } else {
+                this.positions[c] = TOPTWSolution.NO_INITIALIZED;
+            }
+        }
+    }
+
+    /**
+     * @brief Elimina un cliente del conjunto en tiempo constante.
+     * @param customer El cliente a eliminar.
+     */
+    public void remove(int customer) {
+        int position = this.positions[customer];
+        if(position == TOPTWSolution.NO_INITIALIZED) {
+            return;
+        }
+        int last = this.customers[--this.size];
+        this.customers[position] = last;
+        this.positions[last] = position;
+        this.positions[customer] = TOPTWSolution.NO_INITIALIZED;
+    }
+
+    /**
+     * @brief Comprueba si un cliente sigue pendiente de asignar.
+     * @param customer El cliente.
+     * @return `true` si el cliente está en el conjunto.
+     */
+    public boolean contains(int customer) {
+        return this.positions[customer] != TOPTWSolution.NO_INITIALIZED;
+    }
+
+    /**
+     * @brief Obtiene el cliente almacenado en una posición del conjunto.
+     * @param index La posición, de 0 a `size()`-1.
+     * @return El cliente.
+     */
+    public int get(int index) {
+        return this.customers[index];
+    }
+
+    /**
+     * @brief Obtiene el número de clientes pendientes.
+     * @return El número de clientes en el conjunto.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @brief Comprueba si no quedan clientes pendientes.
+     * @return `true` si el conjunto está vacío.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+}
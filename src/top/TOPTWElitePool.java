@@ -0,0 +1,188 @@
+/**
+ * @file TOPTWElitePool.java
+ * @brief Contiene la clase TOPTWElitePool, el conjunto élite de soluciones del GRASP con path relinking.
+ */
+package top;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @class TOPTWElitePool
+ * @brief Conjunto acotado de las mejores soluciones encontradas, con reemplazo que preserva la diversidad.
+ * @details Cada solución se guarda como un `TOPTWIncumbent` junto con el predecesor de cada POI (0 si es el
+ * primero de su ruta y `NO_INITIALIZED` si no se visita). La distancia entre dos soluciones es el número de
+ * POIs cuyo predecesor difiere, por lo que no depende del orden ni de los depósitos de las rutas.
+ *
+ * Mientras el conjunto no está lleno se acepta cualquier solución distinta de las guardadas. Lleno, se acepta
+ * una solución si mejora a la mejor o si mejora a la peor y dista al menos `minDistance` de todas; sustituye
+ * a la más parecida de las que no son mejores que ella. Todos los métodos están sincronizados, de modo que
+ * varios hilos pueden compartir el conjunto.
+ */
+public class TOPTWElitePool {
+    /**
+     * @brief Número de soluciones del conjunto por defecto.
+     */
+    public static final int DEFAULT_CAPACITY = 10;
+    /**
+     * @brief Distancia mínima por defecto a las soluciones del conjunto para entrar en él sin mejorar a la mejor.
+     */
+    public static final int DEFAULT_MIN_DISTANCE = 4;
+    private final int pois;
+    private final int capacity;
+    private final int minDistance;
+    private final List<TOPTWIncumbent> elites;
+    private final List<int[]> predecessors;
+    private final int[] candidate;
+    private final int[] distances;
+
+    /**
+     * @brief Constructor de la clase TOPTWElitePool con la capacidad y la distancia mínima por defecto.
+     * @param problem La instancia del problema de las soluciones.
+     */
+    public TOPTWElitePool(TOPTW problem) {
+        this(problem, DEFAULT_CAPACITY, DEFAULT_MIN_DISTANCE);
+    }
+
+    /**
+     * @brief Constructor de la clase TOPTWElitePool.
+     * @param problem La instancia del problema de las soluciones.
+     * @param capacity El número máximo de soluciones.
+     * @param minDistance La distancia mínima a las soluciones del conjunto para entrar sin mejorar a la mejor.
+     * @throws IllegalArgumentException Si la capacidad no es positiva.
+     */
+    public TOPTWElitePool(TOPTW problem, int capacity, int minDistance) {
+        if(capacity <= 0) {
+            throw new IllegalArgumentException("Capacidad del conjunto élite no válida: "+capacity);
+        }
+        this.pois = problem.getPOIs();
+        this.capacity = capacity;
+        this.minDistance = minDistance;
+        this.elites = new ArrayList<TOPTWIncumbent>(capacity);
+        this.predecessors = new ArrayList<int[]>(capacity);
+        this.candidate = new int[this.pois + 1];
+        this.distances = new int[capacity];
+    }
+
+    /**
+     * @brief Propone una solución para el conjunto.
+     * @param solution La solución; se copia si se acepta.
+     * @param fitness La puntuación de la solución.
+     * @param timeMillis Los milisegundos transcurridos desde el comienzo de la ejecución.
+     * @param iteration La iteración en que se obtuvo.
+     * @return `true` si la solución ha entrado en el conjunto.
+     */
+    public synchronized boolean offer(TOPTWSolution solution, double fitness, long timeMillis, int iteration) {
+        this.loadPredecessors(solution, this.candidate);
+        int nearest = Integer.MAX_VALUE;
+        double best = Double.NEGATIVE_INFINITY, worst = Double.POSITIVE_INFINITY;
+        for(int i = 0; i < this.elites.size(); i++) {
+            this.distances[i] = this.distance(this.candidate, this.predecessors.get(i));
+            nearest = Math.min(nearest, this.distances[i]);
+            best = Math.max(best, this.elites.get(i).getFitness());
+            worst = Math.min(worst, this.elites.get(i).getFitness());
+        }
+        if(nearest == 0) {
+            return false;
+        }
+        if(this.elites.size() < this.capacity) {
+            this.elites.add(new TOPTWIncumbent(solution, fitness, timeMillis, iteration));
+            this.predecessors.add(this.candidate.clone());
+            return true;
+        }
+        if(!(fitness > best || (fitness > worst && nearest >= this.minDistance))) {
+            return false;
+        }
+        int replaced = -1;
+        for(int i = 0; i < this.elites.size(); i++) {
+            if(this.elites.get(i).getFitness() <= fitness && (replaced == -1 || this.distances[i] < this.distances[replaced])) {
+                replaced = i;
+            }
+        }
+        this.elites.set(replaced, new TOPTWIncumbent(solution, fitness, timeMillis, iteration));
+        System.arraycopy(this.candidate, 0, this.predecessors.get(replaced), 0, this.candidate.length);
+        return true;
+    }
+
+    /**
+     * @brief Elige la solución guía del path relinking para una solución.
+     * @details La probabilidad de cada solución del conjunto es proporcional a su distancia a `solution`,
+     * de modo que se favorecen las trayectorias largas, que exploran más soluciones intermedias.
+     * @param solution La solución de partida.
+     * @param random El generador aleatorio del hilo que llama.
+     * @return La solución guía, o `null` si el conjunto está vacío o todas sus soluciones son iguales a `solution`.
+     */
+    public synchronized TOPTWIncumbent selectGuide(TOPTWSolution solution, Random random) {
+        this.loadPredecessors(solution, this.candidate);
+        long total = 0;
+        for(int i = 0; i < this.elites.size(); i++) {
+            this.distances[i] = this.distance(this.candidate, this.predecessors.get(i));
+            total += this.distances[i];
+        }
+        if(total == 0) {
+            return null;
+        }
+        long r = (long) (random.nextDouble() * total);
+        for(int i = 0; i < this.elites.size(); i++) {
+            r -= this.distances[i];
+            if(r < 0) {
+                return this.elites.get(i);
+            }
+        }
+        return this.elites.get(this.elites.size() - 1);
+    }
+
+    /**
+     * @brief Obtiene el número de soluciones del conjunto.
+     * @return El número de soluciones.
+     */
+    public synchronized int size() {
+        return this.elites.size();
+    }
+
+    /**
+     * @brief Obtiene una solución del conjunto.
+     * @param index La posición de la solución, sin ningún orden particular.
+     * @return La solución.
+     */
+    public synchronized TOPTWIncumbent get(int index) {
+        return this.elites.get(index);
+    }
+
+    /**
+     * @brief Vacía el conjunto.
+     */
+    public synchronized void clear() {
+        this.elites.clear();
+        this.predecessors.clear();
+    }
+
+    /**
+     * @brief Guarda en un array el predecesor de cada POI de una solución.
+     * @param solution La solución.
+     * @param target El array, de tamaño `POIs + 1`; el primer POI de cada ruta tiene predecesor 0.
+     */
+    private void loadPredecessors(TOPTWSolution solution, int[] target) {
+        for(int c = 1; c <= this.pois; c++) {
+            int predecessor = solution.getPredecessor(c);
+            target[c] = predecessor > this.pois ? 0 : predecessor;
+        }
+    }
+
+    /**
+     * @brief Cuenta los POIs con distinto predecesor en dos soluciones.
+     * @param a Los predecesores de la primera solución.
+     * @param b Los predecesores de la segunda solución.
+     * @return La distancia entre las soluciones.
+     */
+    private int distance(int[] a, int[] b) {
+        int distance = 0;
+        for(int c = 1; c <= this.pois; c++) {
+            if(a[c] != b[c]) {
+                distance++;
+            }
+        }
+        return distance;
+    }
+}
@@ -4,51 +4,237 @@
  */
 package top;
 
+import java.util.Arrays;
+
 /**
  * @class TOPTWEvaluator
  * @brief Evalúa la calidad de una solución para el problema TOPTW.
- * @details Esta clase se encarga de calcular el valor de la función objetivo
- * para una solución dada. Actualmente, el método de evaluación está comentado
- * y no tiene una implementación activa.
+ * @details Cada `TOPTWSolution` tiene su propio evaluador, que mantiene de forma incremental la puntuación
+ * total y, por ruta, la puntuación, el tiempo de viaje, el tiempo de espera y la factibilidad:
+ * - La puntuación total se actualiza en tiempo constante cada vez que un POI entra o sale de la solución
+ *   (`TOPTWSolution.setPredecessor`), también al deshacer cambios con el diario.
+ * - Las medidas de cada ruta se recogen en el mismo recorrido con el que `TOPTWSolution.updateRouteTimes`
+ *   recalcula los tiempos tras cada inserción o eliminación, por lo que no añaden recorridos.
+ *
+ * Consultar el objetivo no cuesta nada. `evaluate` recalcula todo desde cero recorriendo las rutas y `check`
+ * compara ese cálculo con los valores incrementales, para usarse en aserciones y pruebas.
  */
 public class TOPTWEvaluator {
     /**
      * @brief Constante para indicar que una solución no ha sido evaluada.
      */
     public static double NO_EVALUATED = -1.0;
+    // Diferencia admitida entre los valores incrementales y los recalculados
+    private static final double CHECK_EPSILON = 1e-6;
+    private final TOPTW problem;
+    private double score;
+    private final double[] routeScore;
+    private final double[] routeTravelTime;
+    private final double[] routeWaitingTime;
+    private final boolean[] routeFeasible;
+
+    /**
+     * @brief Constructor de la clase TOPTWEvaluator.
+     * @param problem La instancia del problema de la solución evaluada.
+     */
+    public TOPTWEvaluator(TOPTW problem) {
+        this.problem = problem;
+        this.routeScore = new double[problem.getVehicles()];
+        this.routeTravelTime = new double[problem.getVehicles()];
+        this.routeWaitingTime = new double[problem.getVehicles()];
+        this.routeFeasible = new boolean[problem.getVehicles()];
+        this.reset();
+    }
 
     /**
-     * @brief Evalúa una solución TOPTW.
-     * @details Este método debería calcular la puntuación total de las rutas de la solución,
-     * pero su implementación actual está comentada.
+     * @brief Evalúa una solución TOPTW recorriendo todas sus rutas.
+     * @details Calcula la puntuación total de las rutas de la solución sin usar los valores incrementales y la
+     * guarda como valor de la función objetivo de la solución.
      * @param solution La solución a evaluar.
      */
     public void evaluate(TOPTWSolution solution) {
-        /*CumulativeCVRP problem = solution.getProblem();
         double objectiveFunctionValue = 0.0;
-        for (int i = 0; i < solution.getIndexDepot().size(); i++) {
-            double cumulative = 0;
-            int depot = solution.getAnIndexDepot(i);
-            int actual = depot;
-            actual = solution.getSuccessor(actual);
-            cumulative += problem.getDistanceMatrix(0, actual);
-            objectiveFunctionValue += problem.getDistanceMatrix(0, actual);
-            System.out.println("Desde " + 0 + " a " + actual + " = " + cumulative);
-            while (actual != depot) {
-                int ant = actual;
-                actual = solution.getSuccessor(actual);
-                if (actual != depot) {
-                    cumulative += problem.getDistanceMatrix(ant, actual);
-                    objectiveFunctionValue += cumulative;
-                    System.out.println("Desde " + ant + " a " + actual + " = " + cumulative);
-                } else {
-                    cumulative += problem.getDistanceMatrix(ant, 0);
-                    objectiveFunctionValue += cumulative;
-                    System.out.println("Desde " + ant + " a " + 0 + " = " + cumulative);
+        for(int k = 0; k < solution.getCreatedRoutes(); k++) {
+            int depot = solution.getIndexRoute(k);
+            for(int node = solution.getSuccessor(depot); node != depot; node = solution.getSuccessor(node)) {
+                objectiveFunctionValue += this.problem.getScore(node);
+            }
+        }
+        solution.setObjectiveFunctionValue(objectiveFunctionValue);
+    }
+
+    /**
+     * @brief Comprueba que los valores incrementales coinciden con los recalculados desde cero.
+     * @details Recorre cada ruta propagando los tiempos desde la salida del depósito en el instante 0, sin usar
+     * los tiempos guardados en la solución. Pensado para aserciones (`assert evaluator.check(solution)`).
+     * @param solution La solución a la que pertenece este evaluador.
+     * @return `true` si la puntuación total y la puntuación, el viaje, la espera y la factibilidad de cada ruta coinciden.
+     */
+    public boolean check(TOPTWSolution solution) {
+        double total = 0.0;
+        for(int k = 0; k < solution.getCreatedRoutes(); k++) {
+            int depot = solution.getIndexRoute(k);
+            double departure = 0.0, travel = 0.0, waiting = 0.0, routeScore = 0.0;
+            boolean feasible = true;
+            int pre = depot, node;
+            do {
+                node = solution.getSuccessor(pre);
+                double distance = this.problem.getDistance(pre, node);
+                double arrival = departure + distance;
+                travel += distance;
+                feasible &= arrival < this.problem.getDueTime(node);
+                double start = Math.max(arrival, this.problem.getReadyTime(node));
+                waiting += start - arrival;
+                departure = start + this.problem.getServiceTime(node);
+                feasible &= departure <= this.problem.getMaxTimePerRoute();
+                if(node != depot) {
+                    routeScore += this.problem.getScore(node);
                 }
+                pre = node;
+            } while(node != depot);
+            if(Math.abs(routeScore - this.routeScore[k]) > CHECK_EPSILON
+                    || Math.abs(travel - this.routeTravelTime[k]) > CHECK_EPSILON
+                    || Math.abs(waiting - this.routeWaitingTime[k]) > CHECK_EPSILON
+                    || feasible != this.routeFeasible[k]) {
+                return false;
+            }
+            total += routeScore;
+        }
+        return Math.abs(total - this.score) <= CHECK_EPSILON;
+    }
+
+    /**
+     * @brief Vuelve al estado de una solución sin rutas ni POIs.
+     */
+    public void reset() {
+        this.score = 0.0;
+        for(int k = 0; k < this.routeScore.length; k++) {
+            this.clearRoute(k);
+        }
+    }
+
+    /**
+     * @brief Copia los valores de otro evaluador de la misma instancia.
+     * @param other El evaluador a copiar.
+     */
+    public void copyFrom(TOPTWEvaluator other) {
+        this.score = other.score;
+        System.arraycopy(other.routeScore, 0, this.routeScore, 0, this.routeScore.length);
+        System.arraycopy(other.routeTravelTime, 0, this.routeTravelTime, 0, this.routeTravelTime.length);
+        System.arraycopy(other.routeWaitingTime, 0, this.routeWaitingTime, 0, this.routeWaitingTime.length);
+        System.arraycopy(other.routeFeasible, 0, this.routeFeasible, 0, this.routeFeasible.length);
+    }
+
+    /**
+     * @brief Anota que un POI entra en la solución o sale de ella.
+     * @param customer El POI.
+     * @param visited `true` si entra y `false` si sale.
+     */
+    void visit(int customer, boolean visited) {
+        if(customer > 0 && customer <= this.problem.getPOIs()) {
+            this.score += visited ? this.problem.getScore(customer) : -this.problem.getScore(customer);
+        }
+    }
+
+    /**
+     * @brief Guarda las medidas de una ruta recogidas al recalcular sus tiempos.
+     * @param route El índice de la ruta.
+     * @param score La puntuación de la ruta.
+     * @param travelTime El tiempo de viaje de la ruta.
+     * @param waitingTime El tiempo de espera de la ruta.
+     * @param feasible `true` si la ruta respeta ventanas de tiempo y tiempo máximo.
+     */
+    void updateRoute(int route, double score, double travelTime, double waitingTime, boolean feasible) {
+        this.routeScore[route] = score;
+        this.routeTravelTime[route] = travelTime;
+        this.routeWaitingTime[route] = waitingTime;
+        this.routeFeasible[route] = feasible;
+    }
+
+    /**
+     * @brief Olvida las medidas de una ruta que deja de existir.
+     * @param route El índice de la ruta.
+     */
+    void clearRoute(int route) {
+        this.updateRoute(route, 0.0, 0.0, 0.0, true);
+    }
+
+    /**
+     * @brief Obtiene la puntuación total de la solución.
+     * @return La suma de las puntuaciones de los POIs visitados.
+     */
+    public double getScore() {
+        return this.score;
+    }
+
+    /**
+     * @brief Obtiene la puntuación de una ruta.
+     * @param route El índice de la ruta.
+     * @return La suma de las puntuaciones de los POIs de la ruta.
+     */
+    public double getRouteScore(int route) {
+        return this.routeScore[route];
+    }
+
+    /**
+     * @brief Obtiene el tiempo de viaje de una ruta, sin esperas ni tiempos de servicio.
+     * @param route El índice de la ruta.
+     * @return El tiempo de viaje.
+     */
+    public double getRouteTravelTime(int route) {
+        return this.routeTravelTime[route];
+    }
+
+    /**
+     * @brief Obtiene el tiempo de espera de una ruta hasta la apertura de las ventanas de tiempo.
+     * @param route El índice de la ruta.
+     * @return El tiempo de espera.
+     */
+    public double getRouteWaitingTime(int route) {
+        return this.routeWaitingTime[route];
+    }
+
+    /**
+     * @brief Comprueba si una ruta respeta las ventanas de tiempo y el tiempo máximo por ruta.
+     * @param route El índice de la ruta.
+     * @return `true` si la ruta es factible.
+     */
+    public boolean isRouteFeasible(int route) {
+        return this.routeFeasible[route];
+    }
+
+    /**
+     * @brief Obtiene el tiempo de viaje de todas las rutas.
+     * @return La suma de los tiempos de viaje de las rutas.
+     */
+    public double getTravelTime() {
+        double travelTime = 0.0;
+        for(double routeTravel : this.routeTravelTime) {
+            travelTime += routeTravel;
+        }
+        return travelTime;
+    }
+
+    /**
+     * @brief Comprueba si todas las rutas son factibles.
+     * @return `true` si ninguna ruta incumple ventanas de tiempo ni tiempo máximo.
+     */
+    public boolean isFeasible() {
+        for(boolean feasible : this.routeFeasible) {
+            if(!feasible) {
+                return false;
             }
-            System.out.println("");
         }
-        solution.setObjectiveFunctionValue(objectiveFunctionValue);*/
+        return true;
+    }
+
+    /**
+     * @brief Genera un resumen de los valores incrementales.
+     * @return La puntuación, el tiempo de viaje, la factibilidad y la puntuación de cada ruta.
+     */
+    @Override
+    public String toString() {
+        return "score=" + this.score + ", travel=" + this.getTravelTime() + ", feasible=" + this.isFeasible()
+            + ", routes=" + Arrays.toString(this.routeScore);
     }
 }
@@ -0,0 +1,111 @@
+/**
+ * @file TOPTWEvents.java
+ * @brief Contiene la clase TOPTWEvents, con los eventos de Java Flight Recorder del solver.
+ */
+package top;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @class TOPTWEvents
+ * @brief Agrupa los tipos de evento de Java Flight Recorder (JFR) que emite el solver.
+ * @details Los eventos permiten relacionar las fases del GRASP con la recolección de basura y las muestras de
+ * CPU de una grabación. Sin una grabación activa no cuestan nada: `begin`, `end` y `commit` no hacen nada, el
+ * compilador JIT elimina la creación del objeto, y los campos solo se rellenan si `shouldCommit` (o
+ * `isEnabled`) lo indica. Los eventos con duración marcan su comienzo con `begin` y su fin con `commit`, de
+ * modo que una iteración es un único evento con su instante de inicio y su duración.
+ *
+ * Los pasos de construcción son muy frecuentes y están desactivados por defecto; se activan en la
+ * configuración de la grabación con `top.ConstructionStep#enabled=true`.
+ */
+public final class TOPTWEvents {
+
+    /**
+     * @class Iteration
+     * @brief Una iteración del GRASP: construcción y mejora de una solución.
+     */
+    @Name("top.GRASPIteration")
+    @Label("Iteración GRASP")
+    @Category({"ExpositoTOP", "GRASP"})
+    @Description("Construcción greedy aleatorizada y fases de mejora de una iteración del GRASP")
+    @StackTrace(false)
+    public static final class Iteration extends Event {
+        @Label("Iteración")
+        int iteration;
+        @Label("Tamaño de la RCL")
+        @Description("Tamaño máximo de la RCL de la construcción")
+        int rclSize;
+        @Label("Puntuación")
+        double fitness;
+    }
+
+    /**
+     * @class ConstructionStep
+     * @brief Un paso de la construcción greedy aleatorizada: la inserción de un cliente elegido de la RCL.
+     */
+    @Name("top.ConstructionStep")
+    @Label("Paso de construcción")
+    @Category({"ExpositoTOP", "GRASP"})
+    @Description("Selección de un cliente de la RCL e inserción en su ruta")
+    @StackTrace(false)
+    @Enabled(false)
+    public static final class ConstructionStep extends Event {
+        @Label("Candidatos")
+        @Description("Clientes con alguna inserción factible")
+        int candidates;
+        @Label("Tamaño de la RCL")
+        int rclSize;
+        @Label("Cliente")
+        int customer;
+        @Label("Ruta")
+        int route;
+    }
+
+    /**
+     * @class Incumbent
+     * @brief Una nueva mejor solución de una ejecución del GRASP.
+     */
+    @Name("top.Incumbent")
+    @Label("Nueva mejor solución")
+    @Category({"ExpositoTOP", "GRASP"})
+    @StackTrace(false)
+    public static final class Incumbent extends Event {
+        @Label("Iteración")
+        int iteration;
+        @Label("Puntuación")
+        double fitness;
+        @Label("Milisegundos desde el comienzo")
+        long elapsedMillis;
+    }
+
+    /**
+     * @class InstanceLoad
+     * @brief La lectura de una instancia, del fichero de texto o de la caché binaria.
+     */
+    @Name("top.InstanceLoad")
+    @Label("Carga de instancia")
+    @Category({"ExpositoTOP", "Lectura"})
+    @StackTrace(false)
+    public static final class InstanceLoad extends Event {
+        @Label("Fichero")
+        String path;
+        @Label("POIs")
+        int pois;
+        @Label("Vehículos")
+        int vehicles;
+        @Label("Leída de la caché")
+        boolean cacheHit;
+    }
+
+    /**
+     * @brief Constructor privado: la clase solo agrupa los tipos de evento.
+     */
+    private TOPTWEvents() {
+    }
+}
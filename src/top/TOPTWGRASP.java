@@ -4,35 +4,161 @@
  */
 package top;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.List;
 import java.security.SecureRandom;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import es.ull.esit.utilities.AsyncReportWriter;
+import es.ull.esit.utilities.LossyLongSet;
+import es.ull.esit.utilities.SplitMixRandom;
+import es.ull.esit.utils.Pair;
 
 /**
  * @class TOPTWGRASP
  * @brief Implementa la metaheurística GRASP (Greedy Randomized Adaptive Search Procedure) para resolver el TOPTW.
  * @details Esta clase contiene los métodos para ejecutar el algoritmo GRASP, incluyendo la construcción
  * de soluciones aleatorizadas y la gestión de la Lista Restringida de Candidatos (RCL).
+ *
+ * Cada iteración usa su propio flujo aleatorio, obtenido de la semilla (`getSeed`) y del índice de la
+ * iteración, de modo que una ejecución limitada por iteraciones con la misma semilla obtiene la misma mejor
+ * solución con uno o con cualquier número de hilos. Con el GRASP reactivo, el path relinking o un criterio de
+ * parada por tiempo, evaluaciones o estancamiento, el resultado depende además del orden en que terminan las
+ * iteraciones en paralelo.
+ *
+ * Los contadores y tiempos de las fases se acumulan en un `TOPTWMetrics` (`getMetrics`), que puede compartirse
+ * entre varias instancias y consultarse mientras se ejecutan. Las iteraciones, los pasos de construcción y las
+ * mejoras de la mejor solución se emiten además como eventos de Java Flight Recorder (`TOPTWEvents`).
  */
 public class TOPTWGRASP {
     /**
      * @brief Constante para indicar que una solución no ha sido evaluada.
      */
     public static double NO_EVALUATED = -1.0;
-    private static final Random RANDOM = new SecureRandom();
+    // Diferencia de coste por debajo de la cual dos inserciones se consideran empatadas
+    private static final double COST_EPSILON = 1e-9;
+    // Indica que la RCL se construye por cardinalidad y no por valor
+    private static final double NO_ALPHA = -1.0;
+    // Indica que el tamaño de la RCL lo elige el GRASP reactivo
+    private static final int NO_SIZE_RCL = -1;
+    // Hashes de soluciones que recuerda cada ejecución para descartar repetidas (512 KB)
+    private static final int SEEN_SOLUTIONS_CAPACITY = 1 << 16;
+    /**
+     * @brief Modo de informe: se escribe el informe completo de la solución de cada iteración.
+     */
+    public static final int REPORT_FULL = 0;
+    /**
+     * @brief Modo de informe: solo se escriben las iteraciones que mejoran la mejor solución y el resumen.
+     */
+    public static final int REPORT_IMPROVEMENTS = 1;
+    /**
+     * @brief Modo de informe: solo se escribe el resumen final (media y mejor solución).
+     */
+    public static final int REPORT_SUMMARY = 2;
+    /**
+     * @brief Modo de informe: no se escribe nada, ni siquiera el resumen; los resultados se consultan con los getters.
+     */
+    public static final int REPORT_NONE = 3;
     
     private TOPTWSolution solution;
+    private TOPTWInsertionCache insertionCache;
+    private int[] positions;
+    private TOPTWCustomerPool customers;
+    private TOPTWCandidateList candidates;
+    private TOPTWLocalSearch localSearch;
+    private TOPTWValidator validator;
+    private boolean localSearchEnabled;
+    private TOPTWPathRelinking pathRelinking;
+    private boolean pathRelinkingEnabled;
+    private TOPTWElitePool elitePool;
+    private boolean skipDuplicates;
+    private LossyLongSet seenSolutions;
+    private final AtomicInteger duplicates;
+    private int reportMode;
+    private Writer reportOutput;
+    private final StringBuilder report;
     private int solutionTime;
+    // Estado de la ejecución en curso, legible desde otros hilos
+    private volatile TOPTWIncumbent incumbent;
+    private volatile int lastImprovementIteration;
+    private final List<Pair<Long, Double>> improvements;
+    private long startTime;
+    private final long seed;
+    private final SplitMixRandom random;
+    private double bestFitness;
+    private double averageFitness;
+    private TOPTWMetrics metrics;
+    // Contadores de la construcción en curso, que se vuelcan en metrics al terminarla
+    private long candidateCount;
+    private long rclSizes;
+    private long rclSelections;
 
     /**
-     * @brief Constructor de la clase TOPTWGRASP.
+     * @brief Constructor de la clase TOPTWGRASP con una semilla aleatoria.
+     * @details La semilla se obtiene una sola vez de `SecureRandom` y puede consultarse con `getSeed` para
+     * repetir la ejecución.
      * @param sol La solución inicial sobre la que operará el algoritmo.
      */
     public TOPTWGRASP(TOPTWSolution sol){
+        this(sol, new SecureRandom().nextLong());
+    }
+
+    /**
+     * @brief Constructor de la clase TOPTWGRASP que toma la semilla de un generador aleatorio.
+     * @param sol La solución inicial sobre la que operará el algoritmo.
+     * @param random El generador del que se toma la semilla.
+     */
+    public TOPTWGRASP(TOPTWSolution sol, Random random){
+        this(sol, random.nextLong());
+    }
+
+    /**
+     * @brief Constructor de la clase TOPTWGRASP con una semilla.
+     * @details Cada instancia usa su propio generador, de modo que varias instancias
+     * pueden ejecutarse en hilos distintos sin compartir estado.
+     * @param sol La solución inicial sobre la que operará el algoritmo.
+     * @param seed La semilla de la que se derivan los flujos aleatorios de las iteraciones.
+     */
+    public TOPTWGRASP(TOPTWSolution sol, long seed){
         this.solution = sol;
+        this.insertionCache = new TOPTWInsertionCache(sol.getProblem());
+        this.positions = new int[2 * (sol.getProblem().getPOIs() + 1)];
+        this.customers = new TOPTWCustomerPool(sol.getProblem());
+        this.candidates = new TOPTWCandidateList(sol.getProblem());
+        this.localSearch = new TOPTWLocalSearch(sol.getProblem());
+        this.validator = new TOPTWValidator(sol.getProblem());
+        this.localSearchEnabled = false;
+        this.pathRelinking = new TOPTWPathRelinking(sol.getProblem());
+        this.pathRelinkingEnabled = false;
+        this.elitePool = null;
+        this.skipDuplicates = false;
+        this.seenSolutions = null;
+        this.duplicates = new AtomicInteger(0);
+        this.reportMode = REPORT_FULL;
+        this.reportOutput = new OutputStreamWriter(System.out);
+        this.report = new StringBuilder();
         this.solutionTime = 0;
+        this.incumbent = null;
+        this.lastImprovementIteration = 0;
+        this.improvements = new ArrayList<Pair<Long, Double>>();
+        this.startTime = System.nanoTime();
+        this.seed = seed;
+        this.random = new SplitMixRandom(seed);
+        this.bestFitness = NO_EVALUATED;
+        this.averageFitness = NO_EVALUATED;
+        this.metrics = new TOPTWMetrics();
     }
     
     /*procedure GRASP(Max Iterations,Seed)
@@ -59,38 +185,440 @@ public class TOPTWGRASP {
     
     /**
      * @brief Ejecuta el algoritmo GRASP durante un número determinado de iteraciones.
-     * @details En cada iteración, construye una solución greedy aleatorizada, (opcionalmente aplica una búsqueda local),
-     * y actualiza la mejor solución encontrada.
      * @param maxIterations El número máximo de iteraciones a ejecutar.
      * @param maxSizeRCL El tamaño máximo de la Lista Restringida de Candidatos (RCL).
      */
     public void GRASP(int maxIterations, int maxSizeRCL) {
-        double averageFitness = 0.0;
+        this.GRASP(TOPTWStopCondition.iterations(maxIterations), maxSizeRCL);
+    }
+
+    /**
+     * @brief Ejecuta el algoritmo GRASP hasta que se cumple un criterio de parada.
+     * @details En cada iteración, construye una solución greedy aleatorizada, (opcionalmente aplica una búsqueda local),
+     * y actualiza la mejor solución encontrada. Lo que se informa de cada iteración depende del modo de informe
+     * (`setReportMode`); los informes se escriben desde otro hilo con `AsyncReportWriter`, por lo que la
+     * velocidad de la salida no frena la búsqueda. Durante la ejecución, `getIncumbent` devuelve en cualquier
+     * momento la mejor solución encontrada hasta entonces.
+     * @param stopCondition El criterio de parada (iteraciones, tiempo, evaluaciones, estancamiento u objetivo).
+     * @param maxSizeRCL El tamaño máximo de la Lista Restringida de Candidatos (RCL).
+     * @throws IllegalArgumentException Si el criterio de parada no garantiza el fin de la ejecución.
+     */
+    public void GRASP(TOPTWStopCondition stopCondition, int maxSizeRCL) {
+        this.runGRASP(stopCondition, maxSizeRCL, null);
+    }
+
+    /**
+     * @brief Ejecuta el GRASP reactivo hasta que se cumple un criterio de parada.
+     * @details En cada iteración, el tamaño de la RCL se elige de la distribución de `reactiveRCL`, que se
+     * actualiza con la calidad de las soluciones obtenidas con cada tamaño. Una sola ejecución sustituye así
+     * a varias ejecuciones con tamaños fijos. Al terminar, se imprime la distribución final.
+     * @param stopCondition El criterio de parada.
+     * @param reactiveRCL Los tamaños de RCL candidatos y su distribución; se reinicia al comenzar.
+     * @throws IllegalArgumentException Si el criterio de parada no garantiza el fin de la ejecución.
+     */
+    public void reactiveGRASP(TOPTWStopCondition stopCondition, TOPTWReactiveRCL reactiveRCL) {
+        reactiveRCL.reset();
+        this.runGRASP(stopCondition, NO_SIZE_RCL, reactiveRCL);
+        if(this.reportMode != REPORT_NONE) {
+            System.out.println(" --> RCL: "+reactiveRCL);
+        }
+    }
+
+    /**
+     * @brief Ejecuta el bucle del GRASP con un tamaño de RCL fijo o elegido por el GRASP reactivo.
+     * @param stopCondition El criterio de parada.
+     * @param maxSizeRCL El tamaño de la RCL si `reactiveRCL` es `null`.
+     * @param reactiveRCL La distribución de tamaños del GRASP reactivo, o `null`.
+     */
+    private void runGRASP(TOPTWStopCondition stopCondition, int maxSizeRCL, TOPTWReactiveRCL reactiveRCL) {
+        this.startRun(stopCondition);
+        double sumFitness = 0.0;
         double bestSolution = 0.0;
-        for(int i = 0; i < maxIterations; i++) {
-            
-            this.computeGreedySolution(maxSizeRCL);
-            
-            // IMPRIMIR SOLUCION
-            double fitness = this.solution.evaluateFitness();
-            System.out.println(this.solution.getInfoSolution());
-            //System.out.println("Press Any Key To Continue...");
-            //new java.util.Scanner(System.in).nextLine();
-            averageFitness += fitness;
+        long startEvaluations = this.solution.getEvaluations();
+        int i = 0;
+        AsyncReportWriter reportWriter = null;
+        try {
+            if(this.reportMode == REPORT_FULL || this.reportMode == REPORT_IMPROVEMENTS) {
+                reportWriter = new AsyncReportWriter(this.reportOutput);
+            }
+            while(!stopCondition.isReached(i, this.getElapsedMillis(), this.solution.getEvaluations() - startEvaluations,
+                    i - this.lastImprovementIteration, bestSolution)) {
+                
+                TOPTWEvents.Iteration event = new TOPTWEvents.Iteration();
+                event.begin();
+                this.random.setStream(this.seed, i);
+                int size = reactiveRCL == null ? NO_SIZE_RCL : reactiveRCL.select(this.random);
+                int sizeRCL = reactiveRCL == null ? maxSizeRCL : reactiveRCL.getSize(size);
+                this.computeGreedySolution(sizeRCL);
+                double fitness = this.improveSolution(this, i);
+                TOPTWGRASP.commitIteration(event, i, sizeRCL, fitness);
+                
+                // IMPRIMIR SOLUCION
+                if(reactiveRCL != null) {
+                    reactiveRCL.record(size, fitness);
+                }
+                if(this.reportMode == REPORT_FULL) {
+                    this.report.setLength(0);
+                    reportWriter.write(this.solution.appendInfoSolution(this.report).append(System.lineSeparator()).toString());
+                } else if(this.reportMode == REPORT_IMPROVEMENTS && bestSolution < fitness) {
+                    reportWriter.println(" --> MEJORA EN LA ITERACION "+i+": "+fitness);
+                }
+                sumFitness += fitness;
+                if(bestSolution < fitness) {
+                    bestSolution = fitness;
+                    this.offerIncumbent(this.solution, fitness, i);
+                }
+                i++;
+            }
+            if(reportWriter != null) {
+                reportWriter.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al escribir el informe del GRASP", e);
+        } finally {
+            // Si la ejecución falla, se escriben igualmente los informes encolados y termina el hilo de escritura
+            if(reportWriter != null) {
+                try {
+                    reportWriter.close();
+                } catch (IOException e) {
+                    // ya se ha informado del error principal
+                }
+            }
+        }
+        this.finishRun(bestSolution, sumFitness, i);
+    }
+
+    /**
+     * @brief Ejecuta el algoritmo GRASP en paralelo usando todos los procesadores disponibles.
+     * @param maxIterations El número total de iteraciones a repartir entre los hilos.
+     * @param maxSizeRCL El tamaño máximo de la Lista Restringida de Candidatos (RCL).
+     */
+    public void parallelGRASP(int maxIterations, int maxSizeRCL) {
+        this.parallelGRASP(maxIterations, maxSizeRCL, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @brief Ejecuta el algoritmo GRASP en paralelo con un número fijo de hilos.
+     * @param maxIterations El número total de iteraciones a repartir entre los hilos.
+     * @param maxSizeRCL El tamaño máximo de la Lista Restringida de Candidatos (RCL).
+     * @param threads El número de hilos de trabajo.
+     */
+    public void parallelGRASP(int maxIterations, int maxSizeRCL, int threads) {
+        this.parallelGRASP(TOPTWStopCondition.iterations(maxIterations), maxSizeRCL, threads);
+    }
+
+    /**
+     * @brief Ejecuta el algoritmo GRASP en paralelo con un número fijo de hilos hasta que se cumple un criterio de parada.
+     * @details Cada hilo trabaja sobre su propia solución, sus propias estructuras auxiliares y su
+     * propio generador aleatorio, que sitúa en el flujo de cada iteración que reclama. Las iteraciones se reparten dinámicamente mediante un contador
+     * compartido y, al terminar, se reducen la mejor puntuación y la media de todas las construcciones.
+     * Las mejoras de cualquier hilo actualizan la mejor solución de esta instancia (`getIncumbent`), y el
+     * estancamiento y las evaluaciones se cuentan sobre el conjunto de los hilos.
+     * A diferencia de `GRASP`, no se imprime el informe de cada iteración para no serializar los hilos
+     * en la consola.
+     * @param stopCondition El criterio de parada.
+     * @param maxSizeRCL El tamaño máximo de la Lista Restringida de Candidatos (RCL).
+     * @param threads El número de hilos de trabajo.
+     * @throws IllegalArgumentException Si el criterio de parada no garantiza el fin de la ejecución.
+     */
+    public void parallelGRASP(TOPTWStopCondition stopCondition, int maxSizeRCL, int threads) {
+        this.runParallelGRASP(stopCondition, maxSizeRCL, null, threads);
+    }
+
+    /**
+     * @brief Ejecuta el GRASP reactivo en paralelo con un número fijo de hilos hasta que se cumple un criterio de parada.
+     * @details Todos los hilos eligen el tamaño de la RCL de la misma distribución y la actualizan con sus
+     * soluciones, por lo que aprende con las iteraciones de todos ellos.
+     * @param stopCondition El criterio de parada.
+     * @param reactiveRCL Los tamaños de RCL candidatos y su distribución; se reinicia al comenzar.
+     * @param threads El número de hilos de trabajo.
+     * @throws IllegalArgumentException Si el criterio de parada no garantiza el fin de la ejecución.
+     */
+    public void parallelReactiveGRASP(TOPTWStopCondition stopCondition, TOPTWReactiveRCL reactiveRCL, int threads) {
+        reactiveRCL.reset();
+        this.runParallelGRASP(stopCondition, NO_SIZE_RCL, reactiveRCL, threads);
+        if(this.reportMode != REPORT_NONE) {
+            System.out.println(" --> RCL: "+reactiveRCL);
+        }
+    }
+
+    /**
+     * @brief Reparte las iteraciones del GRASP entre varios hilos y reduce sus resultados.
+     * @param stopCondition El criterio de parada.
+     * @param maxSizeRCL El tamaño de la RCL si `reactiveRCL` es `null`.
+     * @param reactiveRCL La distribución de tamaños del GRASP reactivo, compartida por los hilos, o `null`.
+     * @param threads El número de hilos de trabajo.
+     */
+    private void runParallelGRASP(final TOPTWStopCondition stopCondition, final int maxSizeRCL,
+            final TOPTWReactiveRCL reactiveRCL, int threads) {
+        this.startRun(stopCondition);
+        final TOPTW problem = this.solution.getProblem();
+        final AtomicInteger nextIteration = new AtomicInteger(0);
+        final AtomicLong evaluations = new AtomicLong(0);
+        final TOPTWGRASP coordinator = this;
+        List<Callable<double[]>> workers = new ArrayList<Callable<double[]>>();
+        for(int w = 0; w < threads; w++) {
+            final TOPTWGRASP worker = new TOPTWGRASP(new TOPTWSolution(problem), this.seed);
+            worker.setLocalSearch(this.localSearchEnabled);
+            worker.setPathRelinking(this.pathRelinkingEnabled);
+            worker.setSkipDuplicates(this.skipDuplicates);
+            worker.setMetrics(this.metrics);
+            workers.add(new Callable<double[]>() {
+                public double[] call() {
+                    return worker.runIterations(coordinator, stopCondition, nextIteration, evaluations, maxSizeRCL, reactiveRCL);
+                }
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        double bestSolution = 0.0;
+        double sumFitness = 0.0;
+        double iterations = 0.0;
+        try {
+            for(Future<double[]> result : executor.invokeAll(workers)) {
+                double[] partial = result.get(); // mejor, suma, iteraciones
+                if(bestSolution < partial[0]) {
+                    bestSolution = partial[0];
+                }
+                sumFitness += partial[1];
+                iterations += partial[2];
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("GRASP paralelo interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error en un hilo del GRASP paralelo", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        this.finishRun(bestSolution, sumFitness, iterations);
+    }
+
+    /**
+     * @brief Guarda la mejor puntuación y la media de la ejecución e imprime el resumen.
+     * @details Si el criterio de parada se cumplió antes de la primera iteración (tiempo ya agotado u objetivo
+     * no positivo), la media es 0 y el resumen lo indica, en lugar de dividir entre 0.
+     * @param bestSolution La mejor puntuación.
+     * @param sumFitness La suma de las puntuaciones de todas las iteraciones.
+     * @param iterations El número de iteraciones ejecutadas.
+     */
+    private void finishRun(double bestSolution, double sumFitness, double iterations) {
+        this.averageFitness = iterations == 0 ? 0.0 : sumFitness/iterations;
+        this.bestFitness = bestSolution;
+        if(this.reportMode != REPORT_NONE) {
+            if(iterations == 0) {
+                System.out.println(" --> NINGUNA ITERACION (criterio de parada cumplido al empezar)");
+            }
+            System.out.println(" --> MEDIA: "+this.averageFitness);
+            System.out.println(" --> MEJOR SOLUCION: "+this.bestFitness);
+        }
+    }
+
+    /**
+     * @brief Ejecuta iteraciones GRASP reclamándolas de un contador compartido hasta que se cumple el criterio de parada.
+     * @param coordinator La instancia que coordina la ejecución y guarda la mejor solución global.
+     * @param stopCondition El criterio de parada.
+     * @param nextIteration El contador compartido con la siguiente iteración pendiente.
+     * @param evaluations El contador compartido de evaluaciones de inserción.
+     * @param maxSizeRCL El tamaño máximo de la RCL si `reactiveRCL` es `null`.
+     * @param reactiveRCL La distribución de tamaños del GRASP reactivo, o `null`.
+     * @return Un array con la mejor puntuación, la suma de puntuaciones y el número de iteraciones ejecutadas.
+     */
+    private double[] runIterations(TOPTWGRASP coordinator, TOPTWStopCondition stopCondition, AtomicInteger nextIteration,
+            AtomicLong evaluations, int maxSizeRCL, TOPTWReactiveRCL reactiveRCL) {
+        double bestSolution = 0.0;
+        double sumFitness = 0.0;
+        int iterations = 0;
+        while(true) {
+            int i = nextIteration.getAndIncrement();
+            TOPTWIncumbent best = coordinator.incumbent;
+            if(stopCondition.isReached(i, coordinator.getElapsedMillis(), evaluations.get(),
+                    i - coordinator.lastImprovementIteration, best == null ? 0.0 : best.getFitness())) {
+                break;
+            }
+            TOPTWEvents.Iteration event = new TOPTWEvents.Iteration();
+            event.begin();
+            long startEvaluations = this.solution.getEvaluations();
+            this.random.setStream(this.seed, i);
+            int size = reactiveRCL == null ? NO_SIZE_RCL : reactiveRCL.select(this.random);
+            int sizeRCL = reactiveRCL == null ? maxSizeRCL : reactiveRCL.getSize(size);
+            this.computeGreedySolution(sizeRCL);
+            double fitness = this.improveSolution(coordinator, i);
+            TOPTWGRASP.commitIteration(event, i, sizeRCL, fitness);
+            evaluations.addAndGet(this.solution.getEvaluations() - startEvaluations);
+            if(reactiveRCL != null) {
+                reactiveRCL.record(size, fitness);
+            }
+            sumFitness += fitness;
+            iterations++;
             if(bestSolution < fitness) {
                 bestSolution = fitness;
+                coordinator.offerIncumbent(this.solution, fitness, i);
+            }
+        }
+        return new double[]{bestSolution, sumFitness, iterations};
+    }
+
+    /**
+     * @brief Termina el evento JFR de una iteración y lo registra si hay una grabación que lo recoja.
+     * @param event El evento, comenzado al inicio de la iteración.
+     * @param iteration La iteración.
+     * @param rclSize El tamaño máximo de la RCL de la construcción.
+     * @param fitness La puntuación de la solución resultante.
+     */
+    private static void commitIteration(TOPTWEvents.Iteration event, int iteration, int rclSize, double fitness) {
+        event.end();
+        if(event.shouldCommit()) {
+            event.iteration = iteration;
+            event.rclSize = rclSize;
+            event.fitness = fitness;
+            event.commit();
+        }
+    }
+
+    /**
+     * @brief Prepara el estado de una nueva ejecución: reloj, mejor solución e historial de mejoras.
+     * @param stopCondition El criterio de parada de la ejecución.
+     * @throws IllegalArgumentException Si el criterio de parada no garantiza el fin de la ejecución.
+     */
+    private void startRun(TOPTWStopCondition stopCondition) {
+        if(!stopCondition.isBounded()) {
+            throw new IllegalArgumentException("El criterio de parada necesita un límite de iteraciones, tiempo, evaluaciones o estancamiento");
+        }
+        synchronized(this.improvements) {
+            this.improvements.clear();
+        }
+        this.incumbent = null;
+        this.lastImprovementIteration = 0;
+        this.solutionTime = 0;
+        this.elitePool = this.pathRelinkingEnabled ? new TOPTWElitePool(this.solution.getProblem()) : null;
+        this.seenSolutions = this.skipDuplicates ? new LossyLongSet(SEEN_SOLUTIONS_CAPACITY) : null;
+        this.duplicates.set(0);
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * @brief Aplica las fases de mejora a la solución recién construida.
+     * @details Primero la búsqueda local, si está activada. Con path relinking, recorre la trayectoria hacia una
+     * solución del conjunto élite, vuelve a aplicar la búsqueda local a la mejor intermedia si mejora a la de
+     * partida y propone el resultado al conjunto élite. Si se descartan las soluciones repetidas, una
+     * construcción ya vista no se mejora, y un óptimo local ya visto no pasa por el path relinking.
+     * @param coordinator La instancia que coordina la ejecución, con el conjunto élite y las soluciones vistas.
+     * @param iteration La iteración actual.
+     * @return La puntuación de la solución resultante.
+     */
+    private double improveSolution(TOPTWGRASP coordinator, int iteration) {
+        LossyLongSet seen = coordinator.seenSolutions;
+        if(seen != null && !seen.add(this.solution.getHash())) {
+            coordinator.duplicates.incrementAndGet();
+            return this.solution.evaluateFitness();
+        }
+        int moves = 0;
+        if(this.localSearchEnabled) {
+            moves = this.improveLocally();
+        }
+        double fitness = this.solution.evaluateFitness();
+        TOPTWElitePool elitePool = coordinator.elitePool;
+        if(elitePool == null) {
+            return fitness;
+        }
+        if(seen != null && moves > 0 && !seen.add(this.solution.getHash())) {
+            coordinator.duplicates.incrementAndGet();
+            return fitness;
+        }
+        TOPTWIncumbent guide = elitePool.selectGuide(this.solution, this.random);
+        if(guide != null) {
+            long start = System.nanoTime();
+            long startEvaluations = this.solution.getEvaluations();
+            long startRoutes = this.solution.getOpenedRoutes();
+            double relinked = this.pathRelinking.relink(this.solution, guide, fitness);
+            this.metrics.recordPathRelinking(System.nanoTime() - start, this.solution.getEvaluations() - startEvaluations,
+                this.solution.getOpenedRoutes() - startRoutes);
+            if(relinked > fitness && this.localSearchEnabled) {
+                this.improveLocally();
+                relinked = this.solution.evaluateFitness();
+            }
+            fitness = relinked;
+        }
+        elitePool.offer(this.solution, fitness, this.getElapsedMillis(), iteration);
+        return fitness;
+    }
+
+    /**
+     * @brief Aplica la búsqueda local a la solución y la registra en las métricas.
+     * @return El número de movimientos de mejora aplicados.
+     */
+    private int improveLocally() {
+        long start = System.nanoTime();
+        long startEvaluations = this.solution.getEvaluations();
+        long startRoutes = this.solution.getOpenedRoutes();
+        int moves = this.localSearch.improve(this.solution);
+        this.metrics.recordLocalSearch(System.nanoTime() - start, this.solution.getEvaluations() - startEvaluations,
+            moves, this.solution.getOpenedRoutes() - startRoutes);
+        return moves;
+    }
+
+    /**
+     * @brief Registra una solución como la mejor encontrada si mejora la actual.
+     * @details Copia la solución, anota el momento de la mejora en el historial y guarda en `solutionTime`
+     * los milisegundos hasta encontrarla. A igual puntuación se queda la de la iteración anterior, como en una
+     * ejecución secuencial, para que el resultado no dependa del orden en que terminan los hilos. Antes de aceptarla comprueba su factibilidad con el validador, de
+     * modo que ninguna solución infactible llega a devolverse. Puede llamarse desde varios hilos.
+     * @param candidate La solución.
+     * @param fitness La puntuación de la solución.
+     * @param iteration La iteración en que se obtuvo.
+     * @throws IllegalStateException Si la solución no es factible.
+     */
+    private void offerIncumbent(TOPTWSolution candidate, double fitness, int iteration) {
+        synchronized(this.improvements) {
+            if(this.incumbent != null && (this.incumbent.getFitness() > fitness
+                    || (this.incumbent.getFitness() == fitness && this.incumbent.getIteration() < iteration))) {
+                return;
             }
-            //double fitness = this.solution.printSolution();
-                   
-            /******
-            * 
-            * BÚSQUEDA LOCAL
-            * 
-            */
+            TOPTWValidation validation = this.validator.validate(candidate);
+            if(!validation.isFeasible()) {
+                throw new IllegalStateException("Solución infactible en la iteración "+iteration+": "+validation);
+            }
+            long elapsed = this.getElapsedMillis();
+            this.incumbent = new TOPTWIncumbent(candidate, fitness, elapsed, iteration);
+            this.lastImprovementIteration = iteration;
+            this.solutionTime = (int) Math.min(elapsed, Integer.MAX_VALUE);
+            this.improvements.add(new Pair<Long, Double>(elapsed, fitness));
+            TOPTWEvents.Incumbent event = new TOPTWEvents.Incumbent();
+            if(event.shouldCommit()) {
+                event.iteration = iteration;
+                event.fitness = fitness;
+                event.elapsedMillis = elapsed;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * @brief Obtiene los milisegundos transcurridos desde el comienzo de la ejecución en curso o de la última.
+     * @return Los milisegundos transcurridos.
+     */
+    private long getElapsedMillis() {
+        return (System.nanoTime() - this.startTime) / 1000000L;
+    }
+
+    /**
+     * @brief Obtiene la mejor solución encontrada en la ejecución en curso o en la última.
+     * @details Puede llamarse desde cualquier hilo mientras el GRASP se ejecuta (uso "anytime").
+     * @return Una copia inmutable de la mejor solución, o `null` si aún no hay ninguna.
+     */
+    public TOPTWIncumbent getIncumbent() {
+        return this.incumbent;
+    }
+
+    /**
+     * @brief Obtiene el historial de mejoras de la ejecución en curso o de la última.
+     * @details Puede llamarse desde cualquier hilo mientras el GRASP se ejecuta.
+     * @return Una copia de la lista de pares (milisegundos desde el comienzo, puntuación), en orden.
+     */
+    public List<Pair<Long, Double>> getImprovementHistory() {
+        synchronized(this.improvements) {
+            return Collections.unmodifiableList(new ArrayList<Pair<Long, Double>>(this.improvements));
         }
-        averageFitness = averageFitness/maxIterations;
-        System.out.println(" --> MEDIA: "+averageFitness);
-        System.out.println(" --> MEJOR SOLUCION: "+bestSolution);
     }
     
     /**
@@ -99,21 +627,23 @@ public class TOPTWGRASP {
      * @return La posición del elemento seleccionado en la RCL.
      */
     public int aleatorySelectionRCL(int maxTRCL) {
-       return RANDOM.nextInt(maxTRCL);
+       return this.random.nextInt(maxTRCL);
     }
     
     /**
      * @brief Selecciona un candidato de la RCL utilizando una función de pertenencia difusa.
-     * @details Elige el candidato con el mejor valor de membresía (el más "prometedor" según la puntuación).
-     * @param rcl La Lista Restringida de Candidatos.
+     * @details Elige el candidato con el mejor valor de membresía. Como valor de membresía se usa el tercer
+     * campo del candidato (el predecesor), igual que en la representación original `double[]`.
+     * @param rcl La lista de candidatos; la RCL son sus `maxTRCL` primeras posiciones.
+     * @param maxTRCL El tamaño de la RCL.
      * @return La posición del candidato seleccionado en la RCL.
      */
-    public int fuzzySelectionBestFDRCL(ArrayList< double[] > rcl) {
+    public int fuzzySelectionBestFDRCL(TOPTWCandidateList rcl, int maxTRCL) {
         int bestPosition = 0;
         double bestValue = -1.0;
-        for(int i = 0; i < rcl.size(); i++) {
-            if(bestValue < rcl.get(i)[2]) {
-                bestValue = rcl.get(i)[2];
+        for(int i = 0; i < maxTRCL; i++) {
+            if(bestValue < rcl.getPredecessor(i)) {
+                bestValue = rcl.getPredecessor(i);
                 bestPosition = i;
             }
         }
@@ -123,66 +653,91 @@ public class TOPTWGRASP {
     /**
      * @brief Selecciona un candidato de la RCL utilizando un corte alfa sobre la función de pertenencia difusa.
      * @details Filtra los candidatos cuyo valor de membresía es menor o igual a `alpha` y luego elige uno aleatoriamente.
-     * Si ningún candidato cumple la condición, se elige uno aleatoriamente de toda la RCL.
-     * @param rcl La Lista Restringida de Candidatos.
+     * Si ningún candidato cumple la condición, se elige uno aleatoriamente de toda la RCL. Los candidatos filtrados
+     * se cuentan y se recorren de nuevo en lugar de guardarse en una lista.
+     * @param rcl La lista de candidatos; la RCL son sus `maxTRCL` primeras posiciones.
+     * @param maxTRCL El tamaño de la RCL.
      * @param alpha El umbral para el corte alfa.
      * @return La posición del candidato seleccionado en la RCL.
      */
-    public int fuzzySelectionAlphaCutRCL(ArrayList< double[] > rcl, double alpha) {
-        ArrayList<Integer> candidates = new ArrayList<>();
-        for(int i = 0; i < rcl.size(); i++) {
-            if(rcl.get(i)[2] <= alpha) {
-                candidates.add(i);
+    public int fuzzySelectionAlphaCutRCL(TOPTWCandidateList rcl, int maxTRCL, double alpha) {
+        int filtered = 0;
+        for(int i = 0; i < maxTRCL; i++) {
+            if(rcl.getPredecessor(i) <= alpha) {
+                filtered++;
             }
         }
-        if(candidates.isEmpty()) {
-            return aleatorySelectionRCL(rcl.size());
+        if(filtered == 0) {
+            return aleatorySelectionRCL(maxTRCL);
         }
-        else {
-            int aleatory = RANDOM.nextInt(candidates.size());
-            return candidates.get(aleatory);
+        int aleatory = this.random.nextInt(filtered);
+        for(int i = 0; i < maxTRCL; i++) {
+            if(rcl.getPredecessor(i) <= alpha && aleatory-- == 0) {
+                return i;
+            }
         }
+        return TOPTWSolution.NO_INITIALIZED;
     }
 
     /**
      * @brief Construye una solución greedy aleatorizada.
      * @details Itera mientras haya clientes sin asignar, evaluando los candidatos, construyendo la RCL,
-     * seleccionando un candidato y actualizando la solución.
+     * seleccionando un candidato y actualizando la solución. Las estructuras auxiliares (clientes pendientes,
+     * tabla de inserciones y lista de candidatos) son arrays primitivos que se reutilizan entre llamadas,
+     * por lo que una construcción no reserva memoria.
      * @param maxSizeRCL El tamaño máximo de la RCL.
      */
     public void computeGreedySolution(int maxSizeRCL) {
+        this.construct(maxSizeRCL, NO_ALPHA);
+    }
+
+    /**
+     * @brief Construye una solución greedy aleatorizada con una RCL por valor.
+     * @details La RCL contiene los candidatos cuyo coste no supera `min + alpha * (max - min)`,
+     * calculada sin ordenar los candidatos.
+     * @param alpha El umbral relativo de la RCL, entre 0 (greedy puro) y 1 (aleatorio puro).
+     */
+    public void computeGreedySolutionByValue(double alpha) {
+        this.construct(Integer.MAX_VALUE, alpha);
+    }
+
+    /**
+     * @brief Construye una solución greedy aleatorizada con una RCL por cardinalidad o por valor.
+     * @param maxSizeRCL El tamaño máximo de la RCL cuando no se usa umbral por valor.
+     * @param alphaRCL El umbral relativo de la RCL por valor, o `NO_ALPHA` para usar la cardinalidad.
+     */
+    private void construct(int maxSizeRCL, double alphaRCL) {
+        long start = System.nanoTime();
+        long startEvaluations = this.solution.getEvaluations();
+        long startRoutes = this.solution.getOpenedRoutes();
+        this.candidateCount = 0;
+        this.rclSizes = 0;
+        this.rclSelections = 0;
+        
         // inicialización
         this.solution.initSolution();
-        
-        // tiempo de salida y score por ruta y cliente
-        ArrayList<ArrayList<Double>> departureTimesPerClient = new ArrayList<ArrayList<Double>>();
-        ArrayList<Double> init = new ArrayList<Double>();
-        for(int z = 0; z < this.solution.getProblem().getPOIs()+this.solution.getProblem().getVehicles(); z++) {init.add(0.0);}
-        departureTimesPerClient.add(0, init);
-        
-        // clientes
-        ArrayList<Integer> customers = new ArrayList<Integer>();
-        for(int j = 1; j <= this.solution.getProblem().getPOIs(); j++) { customers.add(j); }
+        this.customers.reset();
         
         // Evaluar coste incremental de los elementos candidatos
-        ArrayList< double[] > candidates = this.comprehensiveEvaluation(customers, departureTimesPerClient);
-        
-        Collections.sort(candidates, new Comparator<double[]>() {
-            public int compare(double[] a, double[] b) {   
-                return Double.compare(a[a.length-2], b[b.length-2]);
-            }
-        });
+        this.insertionCache.clear();
+        this.insertionCache.updateRoute(this.solution, 0, this.customers);
+        this.cachedEvaluation();
 
         int maxTRCL = maxSizeRCL;
         boolean existCandidates = true;
         
-        while(!customers.isEmpty() && existCandidates) {
-            if(!candidates.isEmpty()) {
-                //Construir lista restringida de candidatos
-                ArrayList< double[] > rcl = new ArrayList< double[] >();
-                maxTRCL = maxSizeRCL;
-                if(maxTRCL > candidates.size()) { maxTRCL = candidates.size(); }
-                for(int j=0; j < maxTRCL; j++) { rcl.add(candidates.get(j)); }
+        while(!this.customers.isEmpty() && existCandidates) {
+            if(!this.candidates.isEmpty()) {
+                TOPTWEvents.ConstructionStep event = new TOPTWEvents.ConstructionStep();
+                event.begin();
+                //Construir lista restringida de candidatos en las maxTRCL primeras posiciones
+                if(alphaRCL == NO_ALPHA) {
+                    maxTRCL = this.candidates.selectBest(maxSizeRCL);
+                } else {
+                    maxTRCL = this.candidates.selectByValue(alphaRCL);
+                }
+                this.rclSizes += maxTRCL;
+                this.rclSelections++;
 
                 //Selección aleatoria o fuzzy de candidato de la lista restringida
                 int posSelected = -1;
@@ -191,175 +746,111 @@ public class TOPTWGRASP {
                 switch (selection) {
                     case 1:  posSelected = this.aleatorySelectionRCL(maxTRCL);  // Selección aleatoria
                              break;
-                    case 2:  posSelected = this.fuzzySelectionBestFDRCL(rcl);   // Selección fuzzy con mejor valor de alpha
+                    case 2:  posSelected = this.fuzzySelectionBestFDRCL(this.candidates, maxTRCL);   // Selección fuzzy con mejor valor de alpha
                              break;
-                    case 3:  posSelected = this.fuzzySelectionAlphaCutRCL(rcl, alpha); // Selección fuzzy con alpha corte aleatoria
+                    case 3:  posSelected = this.fuzzySelectionAlphaCutRCL(this.candidates, maxTRCL, alpha); // Selección fuzzy con alpha corte aleatoria
                              break;
                     default: posSelected = this.aleatorySelectionRCL(maxTRCL);  // Selección aleatoria por defecto
                              break;
                 }
                 
-                double[] candidateSelected = rcl.get(posSelected);
-                for(int j=0; j < customers.size(); j++) {
-                    if(customers.get(j)==candidateSelected[0]) {
-                        customers.remove(j);
-                    }
-                }              
-                
-                updateSolution(candidateSelected, departureTimesPerClient);
+                int customer = this.candidates.getCustomer(posSelected);
+                int route = this.candidates.getRoute(posSelected);
+                this.customers.remove(customer);
+                this.updateSolution(customer, route, this.candidates.getPredecessor(posSelected));
+                this.insertionCache.updateRoute(this.solution, route, this.customers);
+                event.end();
+                if(event.shouldCommit()) {
+                    event.candidates = this.candidates.size();
+                    event.rclSize = maxTRCL;
+                    event.customer = customer;
+                    event.route = route;
+                    event.commit();
+                }
 
             } else { // No hay candidatos a insertar en la solución, crear otra ruta
                 if(this.solution.getCreatedRoutes() < this.solution.getProblem().getVehicles()) {
-                    int newDepot = this.solution.addRoute();
-                    ArrayList<Double> initNew = new ArrayList<Double>();
-                    for(int z = 0; z < this.solution.getProblem().getPOIs()+this.solution.getProblem().getVehicles(); z++) {initNew.add(0.0);}
-                    departureTimesPerClient.add(initNew);
+                    this.solution.addRoute();
+                    this.insertionCache.updateRoute(this.solution, this.solution.getCreatedRoutes() - 1, this.customers);
                 } 
                 else {
                     existCandidates = false;
                 }
             }
-            //Reevaluar coste incremental de los elementos candidatos
-            candidates.clear();
-            candidates = this.comprehensiveEvaluation(customers, departureTimesPerClient);
-            Collections.sort(candidates, new Comparator<double[]>() {
-                public int compare(double[] a, double[] b) {
-                    return Double.compare(a[a.length-2], b[b.length-2]);
-                }
-            });
+            //Reevaluar coste incremental de los elementos candidatos (solo ha cambiado una ruta)
+            this.cachedEvaluation();
         }
         
+        this.metrics.recordConstruction(System.nanoTime() - start, this.solution.getEvaluations() - startEvaluations,
+            this.candidateCount, this.rclSizes, this.rclSelections, this.solution.getOpenedRoutes() - startRoutes);
     }
     
     /**
-     * @brief Actualiza la solución insertando un candidato seleccionado.
+     * @brief Actualiza la solución insertando un cliente a continuación de un nodo de una ruta.
      * @details Modifica los punteros de predecesor y sucesor para insertar el nuevo nodo en la ruta
-     * y recalcula los tiempos de salida de los nodos afectados en esa ruta.
-     * @param candidateSelected El candidato seleccionado, un array con la información [cliente, ruta, predecesor, coste, score].
-     * @param departureTimes La estructura de datos que almacena los tiempos de salida de cada cliente.
-     */
-    public void updateSolution(double[] candidateSelected, ArrayList< ArrayList< Double > > departureTimes) {
-        // Inserción del cliente en la ruta  return: cliente, ruta, predecesor, coste
-        this.solution.setPredecessor((int)candidateSelected[0], (int)candidateSelected[2]);
-        this.solution.setSuccessor((int)candidateSelected[0], this.solution.getSuccessor((int)candidateSelected[2]));
-        this.solution.setSuccessor((int)candidateSelected[2], (int)candidateSelected[0]);
-        this.solution.setPredecessor(this.solution.getSuccessor((int)candidateSelected[0]), (int)candidateSelected[0]);
-        
-        // Actualización de las estructuras de datos y conteo a partir de la posición a insertar
-        double costInsertionPre = departureTimes.get((int)candidateSelected[1]).get((int)candidateSelected[2]);
-        ArrayList<Double> route = departureTimes.get((int)candidateSelected[1]);
-        int pre=(int)candidateSelected[2], suc=-1;
-        int depot = this.solution.getIndexRoute((int)candidateSelected[1]);
-        do {
-            suc = this.solution.getSuccessor(pre);
-            costInsertionPre += this.solution.getDistance(pre, suc);
-            
-            if(costInsertionPre < this.solution.getProblem().getReadyTime(suc)) {
-                costInsertionPre = this.solution.getProblem().getReadyTime(suc);
-            }
-            costInsertionPre += this.solution.getProblem().getServiceTime(suc);
-             
-            if(!this.solution.isDepot(suc))
-                route.set(suc, costInsertionPre);
-            pre = suc;
-        } while((suc != depot));
-        
-        // Actualiza tiempos
-        departureTimes.set((int)candidateSelected[1], route);
+     * y recalcula los tiempos y holguras de esa ruta en la solución.
+     * @param customer El cliente a insertar.
+     * @param route El índice de la ruta.
+     * @param predecessor El nodo tras el cual se inserta el cliente.
+     */
+    public void updateSolution(int customer, int route, int predecessor) {
+        // Inserción del cliente en la ruta y actualización de tiempos de llegada, salida y holgura
+        this.solution.insertCustomer(customer, route, predecessor);
     }
 
     /**
      * @brief Evalúa de forma exhaustiva todos los posibles movimientos de inserción para los clientes disponibles.
      * @details Para cada cliente no asignado, prueba a insertarlo en cada posición posible de cada ruta existente,
-     * verificando la factibilidad de la inserción (ventanas de tiempo).
-     * @param customers La lista de clientes aún no asignados a ninguna ruta.
-     * @param departureTimes Los tiempos de salida actuales para cada nodo en la solución.
-     * @return Una lista de candidatos factibles, donde cada candidato es un array con la información [cliente, ruta, predecesor, coste, score].
-     */
-    //return: cliente, ruta, predecesor, coste tiempo, score
-    public ArrayList< double[] > comprehensiveEvaluation(ArrayList<Integer> customers, ArrayList< ArrayList< Double > > departureTimes) {
-        ArrayList< double[] > candidatesList = new ArrayList< double[] >();
-        double[] infoCandidate = new double[5];
-        boolean validFinalInsertion = true;
-        infoCandidate[0] = -1;
-        infoCandidate[1] = -1;
-        infoCandidate[2] = -1;
-        infoCandidate[3] = Double.MAX_VALUE;
-        infoCandidate[4] = -1;
-        
+     * o solo junto a sus vecinos cercanos si la instancia tiene listas de vecinos (`TOPTWSolution.getInsertionPositions`).
+     * Las posiciones cuyos arcos son incompatibles según el preprocesado de ventanas de tiempo se saltan sin evaluarlas.
+     * La factibilidad de cada inserción (ventanas de tiempo y tiempo máximo por ruta) se comprueba en tiempo
+     * constante con la holgura (max-shift) que mantiene la solución, sin recorrer el resto de la ruta.
+     * @param customers Los clientes aún no asignados a ninguna ruta.
+     * @param candidatesList La lista donde se guarda la mejor inserción factible de cada cliente; se vacía antes.
+     */
+    public void comprehensiveEvaluation(TOPTWCustomerPool customers, TOPTWCandidateList candidatesList) {
+        candidatesList.clear();
         for(int c = 0; c < customers.size(); c++) { // clientes disponibles
+            int candidate = customers.get(c);
+            int bestRoute = -1, bestPre = -1;
+            double bestCost = Double.MAX_VALUE;
             for(int k = 0; k < this.solution.getCreatedRoutes(); k++) { // rutas creadas
-                validFinalInsertion = true;
-                int depot = this.solution.getIndexRoute(k);
-                int pre=-1, suc=-1;
-                double costInsertion = 0;
-                pre = depot;
-                int candidate = customers.get(c);
-                do {                                                // recorremos la ruta
-                    validFinalInsertion = true;
-                    suc = this.solution.getSuccessor(pre);
-                    double timesUntilPre = departureTimes.get(k).get(pre) + this.solution.getDistance(pre, candidate);
-                    if(timesUntilPre < (this.solution.getProblem().getDueTime(candidate))) {
-                        double costCand = 0;
-                        if(timesUntilPre < this.solution.getProblem().getReadyTime(candidate)) {
-                            costCand = this.solution.getProblem().getReadyTime(candidate);
-                        } else { costCand = timesUntilPre; }
-                        costCand +=  this.solution.getProblem().getServiceTime(candidate);
-                        if(costCand > this.solution.getProblem().getMaxTimePerRoute()) { validFinalInsertion = false; }
-                        
-                        // Comprobar TW desde candidate hasta sucesor
-                        double timesUntilSuc = costCand + this.solution.getDistance(candidate, suc);
-                        if(timesUntilSuc < (this.solution.getProblem().getDueTime(suc))) {                                
-                            double costSuc = 0;
-                            if(timesUntilSuc < this.solution.getProblem().getReadyTime(suc)) {
-                                costSuc = this.solution.getProblem().getReadyTime(suc);
-                            } else { costSuc = timesUntilSuc; }
-                            costSuc +=  this.solution.getProblem().getServiceTime(suc);
-                            costInsertion = costSuc;                            
-                            if(costSuc > this.solution.getProblem().getMaxTimePerRoute()) { validFinalInsertion = false;}
-
-                            int pre2=suc, suc2 = -1;
-                            if(suc != depot)
-                                do {
-                                    suc2 = this.solution.getSuccessor(pre2);
-                                    double timesUntilSuc2 = costInsertion + this.solution.getDistance(pre2, suc2);
-                                    if(timesUntilSuc2 < (this.solution.getProblem().getDueTime(suc2))) {
-                                        if(timesUntilSuc2 < this.solution.getProblem().getReadyTime(suc2)) {
-                                            costInsertion = this.solution.getProblem().getReadyTime(suc2);
-                                        } else { costInsertion = timesUntilSuc2; }
-                                        costInsertion += this.solution.getProblem().getServiceTime(suc2);
-                                        if(costInsertion > this.solution.getProblem().getMaxTimePerRoute()) { validFinalInsertion = false; }
-                                    } else { validFinalInsertion = false; }         
-                                    pre2 = suc2;
-                                } while((suc2 != depot) && validFinalInsertion);
-                        } else { validFinalInsertion = false; }
-                    } else { validFinalInsertion = false; }
-
-                    if(validFinalInsertion==true) { // cliente, ruta, predecesor, coste
-                        if(costInsertion < infoCandidate[3]) {
-                            infoCandidate[0] = candidate; infoCandidate[1] = k; infoCandidate[2] = pre; infoCandidate[3] = costInsertion; infoCandidate[4] = this.solution.getProblem().getScore(candidate); // cliente, ruta, predecesor, coste, score
-                        }
+                int count = this.solution.getInsertionPositions(candidate, k, this.positions);
+                for(int i = 0; i < count; i++) {                    // recorremos las posiciones de la ruta
+                    int pre = this.positions[i];
+                    if(!this.solution.isCompatibleInsertion(candidate, pre)) {
+                        continue;
+                    }
+                    double costInsertion = this.solution.evaluateInsertion(candidate, k, pre);
+                    if(costInsertion < bestCost - COST_EPSILON) { // en caso de empate se queda la primera posición
+                        bestCost = costInsertion; bestRoute = k; bestPre = pre;
                     }
-                    
-                    pre = suc;
-                } while(suc != depot);
+                }
             } //rutas creadas
             
             // almacenamos en la lista de candidatos la mejor posición de inserción para el cliente
-            if(infoCandidate[0]!=-1 && infoCandidate[1]!=-1 && infoCandidate[2]!=-1 && infoCandidate[3] != Double.MAX_VALUE && infoCandidate[4]!=-1) {
-                double[] infoCandidate2 = new double[5];
-                infoCandidate2[0] = infoCandidate[0];  infoCandidate2[1] = infoCandidate[1];  
-                infoCandidate2[2] = infoCandidate[2];  infoCandidate2[3] = infoCandidate[3];
-                infoCandidate2[4] = infoCandidate[4];
-                candidatesList.add(infoCandidate2);
+            if(bestRoute != -1) {
+                candidatesList.add(candidate, bestRoute, bestPre, bestCost, this.solution.getProblem().getScore(candidate));
             }
-            validFinalInsertion = true;
-            infoCandidate[0] = -1;  infoCandidate[1] = -1;
-            infoCandidate[2] = -1;  infoCandidate[3] = Double.MAX_VALUE;
-            infoCandidate[4] = -1;
         } // cliente
-
-        return candidatesList;        
+    }
+    
+    /**
+     * @brief Obtiene la mejor inserción de cada cliente disponible a partir de la tabla de inserciones.
+     * @details Equivale a `comprehensiveEvaluation`, pero solo compara la mejor inserción ya calculada
+     * para cada ruta, sin recorrer las rutas que no han cambiado. El resultado queda en la lista de candidatos.
+     */
+    private void cachedEvaluation() {
+        this.candidates.clear();
+        for(int c = 0; c < this.customers.size(); c++) {
+            int candidate = this.customers.get(c);
+            int route = this.insertionCache.getBestRoute(candidate, this.solution.getCreatedRoutes());
+            if(route != TOPTWSolution.NO_INITIALIZED) {
+                this.candidates.add(candidate, route, this.insertionCache.getPredecessor(candidate, route),
+                    this.insertionCache.getCost(candidate, route), this.solution.getProblem().getScore(candidate));
+            }
+        }
+        this.candidateCount += this.candidates.size();
     }
     
     /**
@@ -376,11 +867,146 @@ public class TOPTWGRASP {
      */
     public void setSolution(TOPTWSolution solution) {
         this.solution = solution;
+        this.insertionCache = new TOPTWInsertionCache(solution.getProblem());
+        this.positions = new int[2 * (solution.getProblem().getPOIs() + 1)];
+        this.customers = new TOPTWCustomerPool(solution.getProblem());
+        this.candidates = new TOPTWCandidateList(solution.getProblem());
+        this.localSearch = new TOPTWLocalSearch(solution.getProblem());
+        this.validator = new TOPTWValidator(solution.getProblem());
+        this.pathRelinking = new TOPTWPathRelinking(solution.getProblem());
+    }
+
+    /**
+     * @brief Establece qué se informa en cada iteración de `GRASP`.
+     * @param reportMode `REPORT_FULL`, `REPORT_IMPROVEMENTS`, `REPORT_SUMMARY` o `REPORT_NONE`.
+     */
+    public void setReportMode(int reportMode) {
+        if(reportMode != REPORT_FULL && reportMode != REPORT_IMPROVEMENTS && reportMode != REPORT_SUMMARY
+                && reportMode != REPORT_NONE) {
+            throw new IllegalArgumentException("Modo de informe desconocido: "+reportMode);
+        }
+        this.reportMode = reportMode;
     }
 
     /**
-     * @brief Obtiene el tiempo de ejecución de la solución (actualmente no implementado).
-     * @return El tiempo de solución.
+     * @brief Obtiene el modo de informe de `GRASP`.
+     * @return El modo de informe.
+     */
+    public int getReportMode() {
+        return this.reportMode;
+    }
+
+    /**
+     * @brief Establece el flujo donde `GRASP` escribe los informes de las iteraciones.
+     * @details El flujo no se cierra al terminar; por defecto es la salida estándar.
+     * @param reportOutput El flujo de salida de los informes.
+     */
+    public void setReportOutput(Writer reportOutput) {
+        this.reportOutput = reportOutput;
+    }
+
+    /**
+     * @brief Activa o desactiva la fase de búsqueda local tras cada construcción.
+     * @param enabled `true` para mejorar cada solución construida con `TOPTWLocalSearch`.
+     */
+    public void setLocalSearch(boolean enabled) {
+        this.localSearchEnabled = enabled;
+    }
+
+    /**
+     * @brief Indica si la fase de búsqueda local está activada.
+     * @return `true` si cada solución construida se mejora con búsqueda local.
+     */
+    public boolean isLocalSearch() {
+        return this.localSearchEnabled;
+    }
+
+    /**
+     * @brief Activa o desactiva el path relinking con un conjunto élite tras cada construcción.
+     * @details Cada ejecución mantiene un `TOPTWElitePool` de las mejores soluciones y recorre la trayectoria
+     * desde cada solución construida hasta una de ellas con `TOPTWPathRelinking`. En `parallelGRASP` los hilos
+     * comparten el conjunto élite, por lo que el path relinking de cada hilo se solapa con la construcción de
+     * los demás y usa como guías las soluciones de todos.
+     * @param enabled `true` para aplicar path relinking.
+     */
+    public void setPathRelinking(boolean enabled) {
+        this.pathRelinkingEnabled = enabled;
+    }
+
+    /**
+     * @brief Indica si el path relinking está activado.
+     * @return `true` si cada solución construida se combina con el conjunto élite.
+     */
+    public boolean isPathRelinking() {
+        return this.pathRelinkingEnabled;
+    }
+
+    /**
+     * @brief Activa o desactiva el descarte de soluciones repetidas.
+     * @details Cada ejecución recuerda el hash de Zobrist (`TOPTWSolution.getHash`) de las soluciones construidas
+     * en un `LossyLongSet` de memoria acotada, compartido por los hilos de `parallelGRASP`. Una construcción
+     * repetida se detecta en tiempo constante y no pasa por la búsqueda local ni por el path relinking.
+     * @param enabled `true` para descartar las soluciones repetidas.
+     */
+    public void setSkipDuplicates(boolean enabled) {
+        this.skipDuplicates = enabled;
+    }
+
+    /**
+     * @brief Indica si se descartan las soluciones repetidas.
+     * @return `true` si las construcciones repetidas no se mejoran.
+     */
+    public boolean isSkipDuplicates() {
+        return this.skipDuplicates;
+    }
+
+    /**
+     * @brief Obtiene el número de soluciones repetidas descartadas en la ejecución en curso o en la última.
+     * @return El número de soluciones descartadas.
+     */
+    public int getDuplicates() {
+        return this.duplicates.get();
+    }
+
+    /**
+     * @brief Obtiene el conjunto élite de la ejecución en curso o de la última.
+     * @return El conjunto élite, o `null` si el path relinking no estaba activado.
+     */
+    public TOPTWElitePool getElitePool() {
+        return this.elitePool;
+    }
+
+    /**
+     * @brief Obtiene las métricas en las que se acumulan los contadores y tiempos de las fases.
+     * @details No se reinician al comenzar cada ejecución: acumulan todas las de esta instancia, y las de
+     * cualquier otra que las comparta, hasta que se llame a `TOPTWMetrics.reset`.
+     * @return Las métricas.
+     */
+    public TOPTWMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * @brief Establece las métricas en las que se acumulan los contadores y tiempos de las fases.
+     * @details Varias instancias pueden compartir las mismas métricas, incluso ejecutándose en hilos distintos;
+     * así lo hacen los hilos de `parallelGRASP`.
+     * @param metrics Las métricas.
+     */
+    public void setMetrics(TOPTWMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @brief Obtiene la semilla de la que se derivan los flujos aleatorios de las iteraciones.
+     * @return La semilla, con la que `TOPTWGRASP(TOPTWSolution, long)` repite la ejecución.
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * @brief Obtiene el tiempo hasta encontrar la mejor solución de la última ejecución.
+     * @return Los milisegundos desde el comienzo de la ejecución hasta la última mejora.
      */
     public int getSolutionTime() {
         return solutionTime;
@@ -393,6 +1019,23 @@ public class TOPTWGRASP {
     public void setSolutionTime(int solutionTime) {
         this.solutionTime = solutionTime;
     }
+
+    /**
+     * @brief Obtiene la mejor puntuación obtenida en la última ejecución de GRASP.
+     * @return La mejor puntuación, o `NO_EVALUATED` si aún no se ha ejecutado.
+     */
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    /**
+     * @brief Obtiene la puntuación media de la última ejecución de GRASP.
+     * @return La puntuación media, 0 si la ejecución terminó sin ninguna iteración, o `NO_EVALUATED` si aún
+     * no se ha ejecutado.
+     */
+    public double getAverageFitness() {
+        return averageFitness;
+    }
     
     /**
      * @brief Obtiene la máxima puntuación posible entre todos los nodos del problema.
@@ -400,7 +1043,7 @@ public class TOPTWGRASP {
      */
     public double getMaxScore() {
         double maxSc = -1.0;
-        for(int i = 0; i < this.solution.getProblem().getScore().length; i++) {
+        for(int i = 0; i <= this.solution.getProblem().getPOIs(); i++) {
             if(this.solution.getProblem().getScore(i) > maxSc)
                 maxSc = this.solution.getProblem().getScore(i);
         }
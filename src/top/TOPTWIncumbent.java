@@ -0,0 +1,143 @@
+/**
+ * @file TOPTWIncumbent.java
+ * @brief Contiene la clase TOPTWIncumbent, una copia inmutable de la mejor solución encontrada.
+ */
+package top;
+
+/**
+ * @class TOPTWIncumbent
+ * @brief Copia inmutable de una solución TOPTW junto con el momento en que se encontró.
+ * @details Guarda las rutas como secuencias de POIs (sin depósitos), de modo que puede leerse desde
+ * cualquier hilo mientras el GRASP sigue modificando sus propias soluciones.
+ */
+public class TOPTWIncumbent {
+    private final int[][] routes;
+    private final double fitness;
+    private final long timeMillis;
+    private final int iteration;
+
+    /**
+     * @brief Constructor de la clase TOPTWIncumbent, que copia las rutas de una solución.
+     * @param solution La solución a copiar.
+     * @param fitness La puntuación de la solución.
+     * @param timeMillis Los milisegundos transcurridos desde el comienzo de la ejecución.
+     * @param iteration La iteración en que se encontró la solución.
+     */
+    public TOPTWIncumbent(TOPTWSolution solution, double fitness, long timeMillis, int iteration) {
+        this.routes = new int[solution.getCreatedRoutes()][];
+        for(int k = 0; k < this.routes.length; k++) {
+            int depot = solution.getIndexRoute(k);
+            int length = 0;
+            for(int node = solution.getSuccessor(depot); node != depot; node = solution.getSuccessor(node)) {
+                length++;
+            }
+            this.routes[k] = new int[length];
+            int position = 0;
+            for(int node = solution.getSuccessor(depot); node != depot; node = solution.getSuccessor(node)) {
+                this.routes[k][position++] = node;
+            }
+        }
+        this.fitness = fitness;
+        this.timeMillis = timeMillis;
+        this.iteration = iteration;
+    }
+
+    /**
+     * @brief Reconstruye esta solución sobre una solución de trabajo.
+     * @details Reinicia `solution`, crea las rutas, enlaza sus POIs y recalcula los tiempos de cada ruta una sola vez.
+     * @param solution La solución a sobrescribir, de la misma instancia.
+     */
+    public void restore(TOPTWSolution solution) {
+        solution.initSolution();
+        for(int k = 0; k < this.routes.length; k++) {
+            int depot = k == 0 ? solution.getIndexRoute(0) : solution.addRoute();
+            int pre = depot;
+            for(int node : this.routes[k]) {
+                solution.setSuccessor(pre, node);
+                solution.setPredecessor(node, pre);
+                pre = node;
+            }
+            solution.setSuccessor(pre, depot);
+            solution.setPredecessor(depot, pre);
+            solution.updateRouteTimes(k);
+        }
+    }
+
+    /**
+     * @brief Obtiene el número de rutas.
+     * @return El número de rutas de la solución.
+     */
+    public int getRoutes() {
+        return this.routes.length;
+    }
+
+    /**
+     * @brief Obtiene los POIs de una ruta en orden de visita.
+     * @param route El índice de la ruta.
+     * @return Una copia de la secuencia de POIs, sin los depósitos.
+     */
+    public int[] getRoute(int route) {
+        return this.routes[route].clone();
+    }
+
+    /**
+     * @brief Obtiene el número de POIs de una ruta.
+     * @param route El índice de la ruta.
+     * @return El número de POIs, sin los depósitos.
+     */
+    public int getRouteLength(int route) {
+        return this.routes[route].length;
+    }
+
+    /**
+     * @brief Obtiene un POI de una ruta sin copiar la ruta.
+     * @param route El índice de la ruta.
+     * @param position La posición del POI en la ruta, empezando en 0.
+     * @return El POI.
+     */
+    public int getNode(int route, int position) {
+        return this.routes[route][position];
+    }
+
+    /**
+     * @brief Obtiene la puntuación de la solución.
+     * @return La puntuación.
+     */
+    public double getFitness() {
+        return this.fitness;
+    }
+
+    /**
+     * @brief Obtiene el momento en que se encontró la solución.
+     * @return Los milisegundos transcurridos desde el comienzo de la ejecución.
+     */
+    public long getTimeMillis() {
+        return this.timeMillis;
+    }
+
+    /**
+     * @brief Obtiene la iteración en que se encontró la solución.
+     * @return El índice de la iteración, empezando en 0.
+     */
+    public int getIteration() {
+        return this.iteration;
+    }
+
+    /**
+     * @brief Genera una representación de la solución con una línea por ruta.
+     * @return La puntuación, el momento y las rutas.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append("SCORE: ").append(this.fitness).append(" (").append(this.timeMillis).append(" ms, iteracion ").append(this.iteration).append(")\n");
+        for(int k = 0; k < this.routes.length; k++) {
+            text.append("ROUTE ").append(k).append(":");
+            for(int node : this.routes[k]) {
+                text.append(' ').append(node);
+            }
+            text.append("\n");
+        }
+        return text.toString();
+    }
+}
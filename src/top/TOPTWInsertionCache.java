@@ -0,0 +1,122 @@
+/**
+ * @file TOPTWInsertionCache.java
+ * @brief Contiene la clase TOPTWInsertionCache, una tabla con la mejor inserción de cada cliente en cada ruta.
+ */
+package top;
+
+import java.util.Arrays;
+
+/**
+ * @class TOPTWInsertionCache
+ * @brief Almacena, para cada cliente y cada ruta, la mejor posición de inserción y su coste.
+ * @details Tras insertar un cliente solo cambia la ruta modificada, por lo que basta con recalcular
+ * la columna de esa ruta (o la de una ruta recién creada) en lugar de reevaluar todas las rutas.
+ * El coste de una inserción es el tiempo de finalización de la ruta tras insertar al cliente.
+ */
+public class TOPTWInsertionCache {
+    // Diferencia de coste por debajo de la cual dos inserciones se consideran empatadas
+    private static final double COST_EPSILON = 1e-9;
+    private final int vehicles;
+    private final int[] predecessors;
+    private final double[] costs;
+    private final int[] positions;
+
+    /**
+     * @brief Constructor de la clase TOPTWInsertionCache.
+     * @param problem La instancia del problema cuyos clientes y rutas se almacenarán.
+     */
+    public TOPTWInsertionCache(TOPTW problem) {
+        this.vehicles = problem.getVehicles();
+        this.predecessors = new int[(problem.getPOIs() + 1) * this.vehicles];
+        this.costs = new double[(problem.getPOIs() + 1) * this.vehicles];
+        this.positions = new int[2 * (problem.getPOIs() + 1)];
+        this.clear();
+    }
+
+    /**
+     * @brief Marca todas las entradas de la tabla como sin inserción factible.
+     */
+    public void clear() {
+        Arrays.fill(this.predecessors, TOPTWSolution.NO_INITIALIZED);
+        Arrays.fill(this.costs, TOPTWSolution.INFEASIBLE_INSERTION);
+    }
+
+    /**
+     * @brief Recalcula la mejor inserción en una ruta para todos los clientes indicados.
+     * @param solution La solución con los tiempos de la ruta actualizados.
+     * @param route El índice de la ruta modificada o recién creada.
+     * @param customers Los clientes aún no asignados.
+     */
+    public void updateRoute(TOPTWSolution solution, int route, TOPTWCustomerPool customers) {
+        for(int c = 0; c < customers.size(); c++) {
+            this.evaluate(solution, customers.get(c), route);
+        }
+    }
+
+    /**
+     * @brief Recalcula la mejor inserción de un cliente en una ruta.
+     * @details Evalúa las posiciones de `TOPTWSolution.getInsertionPositions`: toda la ruta, o solo las
+     * cercanas al cliente si la instancia tiene listas de vecinos. Las posiciones con arcos incompatibles se
+     * descartan sin evaluarlas.
+     * @param solution La solución con los tiempos de la ruta actualizados.
+     * @param customer El cliente a evaluar.
+     * @param route El índice de la ruta.
+     */
+    public void evaluate(TOPTWSolution solution, int customer, int route) {
+        int bestPre = TOPTWSolution.NO_INITIALIZED;
+        double bestCost = TOPTWSolution.INFEASIBLE_INSERTION;
+        int count = solution.getInsertionPositions(customer, route, this.positions);
+        for(int i = 0; i < count; i++) {
+            int pre = this.positions[i];
+            if(!solution.isCompatibleInsertion(customer, pre)) {
+                continue;
+            }
+            double costInsertion = solution.evaluateInsertion(customer, route, pre);
+            if(costInsertion < bestCost - COST_EPSILON) { // en caso de empate se queda la primera posición
+                bestCost = costInsertion;
+                bestPre = pre;
+            }
+        }
+        this.predecessors[customer * this.vehicles + route] = bestPre;
+        this.costs[customer * this.vehicles + route] = bestCost;
+    }
+
+    /**
+     * @brief Obtiene la ruta con la inserción más barata de un cliente entre las rutas creadas.
+     * @param customer El cliente.
+     * @param createdRoutes El número de rutas creadas en la solución.
+     * @return El índice de la ruta, o `NO_INITIALIZED` si el cliente no cabe en ninguna.
+     */
+    public int getBestRoute(int customer, int createdRoutes) {
+        int bestRoute = TOPTWSolution.NO_INITIALIZED;
+        double bestCost = TOPTWSolution.INFEASIBLE_INSERTION;
+        for(int k = 0; k < createdRoutes; k++) {
+            double cost = this.costs[customer * this.vehicles + k];
+            if(cost < bestCost - COST_EPSILON) {
+                bestCost = cost;
+                bestRoute = k;
+            }
+        }
+        return bestRoute;
+    }
+
+    /**
+     * @brief Obtiene el coste de la mejor inserción de un cliente en una ruta.
+     * @param customer El cliente.
+     * @param route El índice de la ruta.
+     * @return El coste, o `INFEASIBLE_INSERTION` si no hay inserción factible.
+     */
+    public double getCost(int customer, int route) {
+        return this.costs[customer * this.vehicles + route];
+    }
+
+    /**
+     * @brief Obtiene el nodo tras el cual se inserta un cliente en su mejor posición de una ruta.
+     * @param customer El cliente.
+     * @param route El índice de la ruta.
+     * @return El predecesor, o `NO_INITIALIZED` si no hay inserción factible.
+     */
+    public int getPredecessor(int customer, int route) {
+        return this.predecessors[customer * this.vehicles + route];
+    }
+}
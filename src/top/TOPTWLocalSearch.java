@@ -0,0 +1,452 @@
+/**
+ * @file TOPTWLocalSearch.java
+ * @brief Contiene la clase TOPTWLocalSearch, la fase de búsqueda local del GRASP para el TOPTW.
+ */
+package top;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * @class TOPTWLocalSearch
+ * @brief Mejora una solución TOPTW con búsqueda local sobre los arrays de predecesores y sucesores.
+ * @details Aplica los vecindarios en orden, con primera mejora, hasta que ninguno mejora la solución:
+ * - Inserción de POIs no visitados (aumenta la puntuación).
+ * - Sustitución de un POI visitado por uno no visitado de mayor puntuación.
+ * - 2-opt y or-opt dentro de una ruta (reducen la distancia recorrida).
+ * - Intercambio y recolocación de POIs entre rutas (reducen la distancia recorrida).
+ *
+ * La distancia liberada deja hueco para nuevas inserciones. Los movimientos de inserción, sustitución,
+ * intercambio y recolocación se evalúan en tiempo constante con los tiempos de llegada y la holgura que
+ * mantiene la solución; los movimientos dentro de una ruta recorren solo el tramo que cambia de orden y
+ * comprueban el resto de la ruta en tiempo constante con la holgura del nodo donde se reincorporan.
+ *
+ * Si la instancia tiene listas de vecinos cercanos (`TOPTW.hasNeighbors`), los vecindarios son granulares: las
+ * posiciones de inserción y de reconexión se limitan a las de `TOPTWSolution.getInsertionPositions`, y las
+ * sustituciones e intercambios, a pares de POIs vecinos. Sin ellas se exploran los vecindarios completos.
+ * Las inserciones con arcos incompatibles (`TOPTW.isCompatible`) se descartan sin evaluarlas y los POIs
+ * inalcanzables (`TOPTW.isReachable`) no se intentan insertar.
+ */
+public class TOPTWLocalSearch {
+    // Mejora mínima de distancia para aceptar un movimiento
+    private static final double DISTANCE_EPSILON = 1e-9;
+    // Longitud máxima de los segmentos que mueve or-opt
+    private static final int OR_OPT_MAX_LENGTH = 3;
+    private TOPTWSolution solution;
+    private TOPTW problem;
+    private final int[] sequence;
+    private final int[] positions;
+    // POIs por puntuación decreciente (a igual puntuación, por índice)
+    private final int[] byScore;
+    private final TOPTWValidator validator;
+
+    /**
+     * @brief Constructor de la clase TOPTWLocalSearch.
+     * @param problem La instancia del problema de las soluciones a mejorar.
+     */
+    public TOPTWLocalSearch(TOPTW problem) {
+        this.problem = problem;
+        this.sequence = new int[problem.getPOIs() + problem.getVehicles()];
+        this.positions = new int[2 * (problem.getPOIs() + 1)];
+        Integer[] order = new Integer[problem.getPOIs()];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = i + 1;
+        }
+        final TOPTW instance = problem;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(instance.getScore(b), instance.getScore(a));
+            }
+        });
+        this.byScore = new int[order.length];
+        for(int i = 0; i < order.length; i++) {
+            this.byScore[i] = order[i];
+        }
+        this.validator = new TOPTWValidator(problem);
+    }
+
+    /**
+     * @brief Aplica la búsqueda local hasta alcanzar un óptimo local de todos los vecindarios.
+     * @details Con las aserciones activadas (`-ea`), valida la solución tras cada movimiento.
+     * @param solution La solución a mejorar, con los tiempos de sus rutas actualizados. Se modifica.
+     * @return El número de movimientos aplicados.
+     */
+    public int improve(TOPTWSolution solution) {
+        this.solution = solution;
+        this.problem = solution.getProblem();
+        int moves = 0;
+        boolean improved = true;
+        // Reducir distancia solo sirve para hacer hueco a POIs no visitados
+        while(improved && this.hasUnvisited()) {
+            improved = this.insertUnvisited() || this.replaceVisited() || this.twoOpt() || this.orOpt()
+                || this.swapBetweenRoutes() || this.relocateBetweenRoutes();
+            if(improved) {
+                moves++;
+                assert this.isFeasible() : this.validator.validate(this.solution);
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * @brief Inserta el POI no visitado de mayor puntuación que quepa en alguna ruta.
+     * @details Si no cabe en ninguna ruta creada y quedan vehículos, se abre una ruta nueva.
+     * A igual puntuación se elige la inserción que menos retrasa el final de su ruta. Los POIs se recorren por
+     * puntuación decreciente, de modo que la búsqueda termina al llegar a los de menor puntuación que el mejor.
+     * @return `true` si se ha insertado algún POI.
+     */
+    public boolean insertUnvisited() {
+        int bestCustomer = -1, bestRoute = -1, bestPre = -1;
+        double bestScore = 0.0, bestCost = Double.MAX_VALUE;
+        for(int rank = 0; rank < this.byScore.length; rank++) {
+            int c = this.byScore[rank];
+            if(this.problem.getScore(c) <= 0.0 || this.problem.getScore(c) < bestScore) {
+                break;
+            }
+            if(this.solution.isVisited(c) || !this.problem.isReachable(c)) {
+                continue;
+            }
+            for(int k = 0; k < this.solution.getCreatedRoutes(); k++) {
+                int count = this.solution.getInsertionPositions(c, k, this.positions);
+                for(int i = 0; i < count; i++) {
+                    int pre = this.positions[i];
+                    if(!this.solution.isCompatibleInsertion(c, pre)) {
+                        continue;
+                    }
+                    double cost = this.solution.evaluateInsertion(c, k, pre);
+                    if(cost != TOPTWSolution.INFEASIBLE_INSERTION) {
+                        cost -= this.solution.getRouteEndTime(k);
+                        if(this.problem.getScore(c) > bestScore || cost < bestCost) {
+                            bestScore = this.problem.getScore(c); bestCost = cost;
+                            bestCustomer = c; bestRoute = k; bestPre = pre;
+                        }
+                    }
+                }
+            }
+        }
+        if(bestCustomer == -1 && this.solution.getAvailableVehicles() > 0) {
+            // Ruta vacía: sale del depósito en el instante 0 y vuelve a él
+            int depot = this.solution.getIndexRoute(0);
+            for(int c = 1; c <= this.problem.getPOIs(); c++) {
+                if(!this.solution.isVisited(c) && this.problem.isReachable(c) && this.problem.getScore(c) > bestScore) {
+                    this.sequence[0] = c;
+                    if(this.isFeasibleSequence(depot, 1, depot)) {
+                        bestScore = this.problem.getScore(c);
+                        bestCustomer = c;
+                    }
+                }
+            }
+            if(bestCustomer != -1) {
+                bestRoute = this.solution.getCreatedRoutes();
+                bestPre = this.solution.addRoute();
+            }
+        }
+        if(bestCustomer == -1) {
+            return false;
+        }
+        this.solution.insertCustomer(bestCustomer, bestRoute, bestPre);
+        return true;
+    }
+
+    /**
+     * @brief Sustituye un POI visitado por uno no visitado de mayor puntuación en la misma posición.
+     * @return `true` si se ha aplicado alguna sustitución.
+     */
+    public boolean replaceVisited() {
+        for(int u = 1; u <= this.problem.getPOIs(); u++) {
+            if(this.solution.isVisited(u) || !this.problem.isReachable(u)) {
+                continue;
+            }
+            for(int i = 0; i < this.getCandidateCount(); i++) {
+                int v = this.getCandidate(u, i);
+                if(!this.solution.isVisited(v) || this.problem.getScore(v) >= this.problem.getScore(u)) {
+                    continue;
+                }
+                int route = this.solution.getRoute(v);
+                int pre = this.solution.getPredecessor(v);
+                int suc = this.solution.getSuccessor(v);
+                if(this.problem.isCompatible(pre, u) && this.problem.isCompatible(u, suc)
+                        && this.solution.evaluateInsertion(u, route, pre, suc) != TOPTWSolution.INFEASIBLE_INSERTION) {
+                    this.solution.unlinkCustomer(v);
+                    this.solution.insertCustomer(u, route, pre);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @brief Invierte un tramo de una ruta si reduce la distancia y respeta las ventanas de tiempo.
+     * @details Para el tramo a..b con predecesor p y sucesor s, el ahorro es
+     * d(p,a) + d(b,s) - d(p,b) - d(a,s), ya que las distancias son simétricas. Los extremos b se toman de las
+     * posiciones de inserción de a, de modo que en los vecindarios granulares b o s son vecinos de a.
+     * @return `true` si se ha aplicado algún movimiento.
+     */
+    public boolean twoOpt() {
+        for(int k = 0; k < this.solution.getCreatedRoutes(); k++) {
+            int depot = this.solution.getIndexRoute(k);
+            for(int a = this.solution.getSuccessor(depot); a != depot; a = this.solution.getSuccessor(a)) {
+                int p = this.solution.getPredecessor(a);
+                int count = this.solution.getInsertionPositions(a, k, this.positions);
+                for(int i = 0; i < count; i++) {
+                    int b = this.positions[i];
+                    if(b == depot || this.solution.getPositionInRoute(b) <= this.solution.getPositionInRoute(a)) {
+                        continue;
+                    }
+                    int s = this.solution.getSuccessor(b);
+                    double delta = this.problem.getDistance(p, b) + this.problem.getDistance(a, s)
+                        - this.problem.getDistance(p, a) - this.problem.getDistance(b, s);
+                    if(delta < -DISTANCE_EPSILON) {
+                        int length = 0;
+                        for(int node = b; node != p; node = this.solution.getPredecessor(node)) {
+                            this.sequence[length++] = node;
+                        }
+                        if(this.isFeasibleSequence(p, length, s)) {
+                            this.relink(p, length, s);
+                            this.solution.updateRouteTimes(k);
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @brief Mueve un segmento de hasta tres POIs a otra posición de la misma ruta.
+     * @return `true` si se ha aplicado algún movimiento.
+     */
+    public boolean orOpt() {
+        for(int k = 0; k < this.solution.getCreatedRoutes(); k++) {
+            int depot = this.solution.getIndexRoute(k);
+            for(int x = this.solution.getSuccessor(depot); x != depot; x = this.solution.getSuccessor(x)) {
+                int y = x;
+                for(int length = 1; length <= OR_OPT_MAX_LENGTH && y != depot; length++) {
+                    if(this.tryOrOpt(k, x, y)) {
+                        return true;
+                    }
+                    y = this.solution.getSuccessor(y);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @brief Intenta mover el segmento x..y a otra posición de su ruta.
+     * @details Las posiciones son las de inserción de x (todas en los vecindarios completos).
+     * @param route El índice de la ruta.
+     * @param x El primer nodo del segmento.
+     * @param y El último nodo del segmento.
+     * @return `true` si se ha aplicado el movimiento.
+     */
+    private boolean tryOrOpt(int route, int x, int y) {
+        int depot = this.solution.getIndexRoute(route);
+        int px = this.solution.getPredecessor(x);
+        int sy = this.solution.getSuccessor(y);
+        double removal = this.problem.getDistance(px, sy) - this.problem.getDistance(px, x) - this.problem.getDistance(y, sy);
+        int count = this.solution.getInsertionPositions(x, route, this.positions);
+        for(int i = 0; i < count; i++) {
+            int q = this.positions[i];
+            int r = this.solution.getSuccessor(q);
+            boolean inSegment = this.solution.getPositionInRoute(q) >= this.solution.getPositionInRoute(x)
+                && this.solution.getPositionInRoute(q) <= this.solution.getPositionInRoute(y) && q != depot;
+            if(!inSegment && q != px) {
+                double delta = removal + this.problem.getDistance(q, x) + this.problem.getDistance(y, r) - this.problem.getDistance(q, r);
+                if(delta < -DISTANCE_EPSILON) {
+                    int length = 0, before, after;
+                    if(q != depot && this.solution.getPositionInRoute(q) > this.solution.getPositionInRoute(y)) {
+                        // hacia delante: px -> sy..q -> x..y -> r
+                        for(int node = sy; node != r; node = this.solution.getSuccessor(node)) {
+                            this.sequence[length++] = node;
+                        }
+                        for(int node = x; node != sy; node = this.solution.getSuccessor(node)) {
+                            this.sequence[length++] = node;
+                        }
+                        before = px; after = r;
+                    } else {
+                        // hacia atrás: q -> x..y -> r..px -> sy
+                        for(int node = x; node != sy; node = this.solution.getSuccessor(node)) {
+                            this.sequence[length++] = node;
+                        }
+                        for(int node = r; node != x; node = this.solution.getSuccessor(node)) {
+                            this.sequence[length++] = node;
+                        }
+                        before = q; after = sy;
+                    }
+                    if(this.isFeasibleSequence(before, length, after)) {
+                        this.relink(before, length, after);
+                        this.solution.updateRouteTimes(route);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @brief Intercambia dos POIs de rutas distintas si reduce la distancia y ambas rutas siguen siendo factibles.
+     * @return `true` si se ha aplicado algún intercambio.
+     */
+    public boolean swapBetweenRoutes() {
+        for(int v = 1; v <= this.problem.getPOIs(); v++) {
+            if(!this.solution.isVisited(v)) {
+                continue;
+            }
+            for(int i = 0; i < this.getCandidateCount(); i++) {
+                int u = this.getCandidate(v, i);
+                if((!this.problem.hasNeighbors() && u <= v)
+                        || !this.solution.isVisited(u) || this.solution.getRoute(u) == this.solution.getRoute(v)) {
+                    continue;
+                }
+                int pv = this.solution.getPredecessor(v), sv = this.solution.getSuccessor(v);
+                int pu = this.solution.getPredecessor(u), su = this.solution.getSuccessor(u);
+                if(!this.problem.isCompatible(pv, u) || !this.problem.isCompatible(u, sv)
+                        || !this.problem.isCompatible(pu, v) || !this.problem.isCompatible(v, su)) {
+                    continue;
+                }
+                double delta = this.problem.getDistance(pv, u) + this.problem.getDistance(u, sv)
+                    - this.problem.getDistance(pv, v) - this.problem.getDistance(v, sv)
+                    + this.problem.getDistance(pu, v) + this.problem.getDistance(v, su)
+                    - this.problem.getDistance(pu, u) - this.problem.getDistance(u, su);
+                int routeV = this.solution.getRoute(v), routeU = this.solution.getRoute(u);
+                if(delta < -DISTANCE_EPSILON
+                        && this.solution.evaluateInsertion(u, routeV, pv, sv) != TOPTWSolution.INFEASIBLE_INSERTION
+                        && this.solution.evaluateInsertion(v, routeU, pu, su) != TOPTWSolution.INFEASIBLE_INSERTION) {
+                    this.solution.unlinkCustomer(v);
+                    this.solution.unlinkCustomer(u);
+                    this.solution.insertCustomer(u, routeV, pv);
+                    this.solution.insertCustomer(v, routeU, pu);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @brief Mueve un POI a otra ruta si reduce la distancia y la ruta de destino sigue siendo factible.
+     * @details Quitar un POI nunca empeora la factibilidad de su ruta de origen, por lo que solo se
+     * comprueba la inserción en la ruta de destino.
+     * @return `true` si se ha aplicado algún movimiento.
+     */
+    public boolean relocateBetweenRoutes() {
+        for(int v = 1; v <= this.problem.getPOIs(); v++) {
+            if(!this.solution.isVisited(v)) {
+                continue;
+            }
+            int routeV = this.solution.getRoute(v);
+            int pv = this.solution.getPredecessor(v), sv = this.solution.getSuccessor(v);
+            double removal = this.problem.getDistance(pv, sv) - this.problem.getDistance(pv, v) - this.problem.getDistance(v, sv);
+            for(int k = 0; k < this.solution.getCreatedRoutes(); k++) {
+                if(k == routeV) {
+                    continue;
+                }
+                int count = this.solution.getInsertionPositions(v, k, this.positions);
+                for(int i = 0; i < count; i++) {
+                    int pre = this.positions[i];
+                    if(!this.solution.isCompatibleInsertion(v, pre)) {
+                        continue;
+                    }
+                    int suc = this.solution.getSuccessor(pre);
+                    double delta = removal + this.problem.getDistance(pre, v) + this.problem.getDistance(v, suc)
+                        - this.problem.getDistance(pre, suc);
+                    if(delta < -DISTANCE_EPSILON
+                            && this.solution.evaluateInsertion(v, k, pre) != TOPTWSolution.INFEASIBLE_INSERTION) {
+                        this.solution.removeCustomer(v);
+                        this.solution.insertCustomer(v, k, pre);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @brief Obtiene el número de POIs con los que se combina cada POI en las sustituciones e intercambios.
+     * @return El número de vecinos, o el de POIs si no hay listas de vecinos.
+     */
+    private int getCandidateCount() {
+        return this.problem.hasNeighbors() ? this.problem.getNeighborCount() : this.problem.getPOIs();
+    }
+
+    /**
+     * @brief Obtiene uno de los POIs con los que se combina un POI en las sustituciones e intercambios.
+     * @param poi El POI.
+     * @param i La posición del candidato, de 0 a `getCandidateCount()`-1.
+     * @return El i-ésimo vecino de `poi`, o el POI `i`+1 si no hay listas de vecinos.
+     */
+    private int getCandidate(int poi, int i) {
+        return this.problem.hasNeighbors() ? this.problem.getNeighbor(poi, i) : i + 1;
+    }
+
+    /**
+     * @brief Comprueba con el validador que la solución sigue siendo factible.
+     * @return `true` si la solución es factible.
+     */
+    private boolean isFeasible() {
+        return this.validator.validate(this.solution).isFeasible();
+    }
+
+    /**
+     * @brief Comprueba si queda algún POI con puntuación positiva sin visitar.
+     * @return `true` si aún es posible aumentar la puntuación de la solución.
+     */
+    private boolean hasUnvisited() {
+        for(int c = 1; c <= this.problem.getPOIs(); c++) {
+            if(!this.solution.isVisited(c) && this.problem.isReachable(c) && this.problem.getScore(c) > 0.0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @brief Comprueba si una secuencia de nodos puede sustituir al tramo entre dos nodos de una ruta.
+     * @details Propaga los tiempos desde la salida de `before` a lo largo de la secuencia y compara la
+     * llegada a `after` con su última llegada admisible, que cubre el resto de la ruta.
+     * @param before El nodo, sin cambios, anterior a la secuencia.
+     * @param length El número de nodos de la secuencia guardada en `sequence`.
+     * @param after El nodo, sin cambios, posterior a la secuencia.
+     * @return `true` si la ruta resultante respeta ventanas de tiempo y tiempo máximo.
+     */
+    private boolean isFeasibleSequence(int before, int length, int after) {
+        double departure = this.solution.getDepartureTime(before);
+        int pre = before;
+        for(int i = 0; i < length; i++) {
+            int node = this.sequence[i];
+            double arrival = departure + this.problem.getDistance(pre, node);
+            if(!(arrival < this.problem.getDueTime(node))) {
+                return false;
+            }
+            departure = Math.max(arrival, this.problem.getReadyTime(node)) + this.problem.getServiceTime(node);
+            if(departure > this.problem.getMaxTimePerRoute()) {
+                return false;
+            }
+            pre = node;
+        }
+        return departure + this.problem.getDistance(pre, after) <= this.solution.getLatestArrival(after);
+    }
+
+    /**
+     * @brief Enlaza la secuencia guardada en `sequence` entre dos nodos de una ruta.
+     * @param before El nodo anterior a la secuencia.
+     * @param length El número de nodos de la secuencia.
+     * @param after El nodo posterior a la secuencia.
+     */
+    private void relink(int before, int length, int after) {
+        int pre = before;
+        for(int i = 0; i < length; i++) {
+            this.solution.setSuccessor(pre, this.sequence[i]);
+            this.solution.setPredecessor(this.sequence[i], pre);
+            pre = this.sequence[i];
+        }
+        this.solution.setSuccessor(pre, after);
+        this.solution.setPredecessor(after, pre);
+    }
+}
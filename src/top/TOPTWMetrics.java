@@ -0,0 +1,401 @@
+/**
+ * @file TOPTWMetrics.java
+ * @brief Contiene la clase TOPTWMetrics, los contadores y tiempos de las fases del GRASP.
+ */
+package top;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @class TOPTWMetrics
+ * @brief Acumula contadores y tiempos de las fases del GRASP, compartibles entre hilos sin contención.
+ * @details Cuenta construcciones, comprobaciones de factibilidad de inserciones (`evaluateInsertion`),
+ * candidatos evaluados, tamaños de la RCL, rutas abiertas con `addRoute`, búsquedas locales y sus
+ * movimientos, path relinking, y el tiempo de cada fase. Cada contador es un `LongAdder`, que reparte las
+ * sumas entre celdas por hilo, y el GRASP no lo actualiza en cada operación: acumula en campos propios y
+ * vuelca los totales al terminar cada fase. Así el coste es de unas pocas sumas por construcción aunque muchos
+ * hilos compartan las mismas métricas.
+ *
+ * `snapshot` devuelve una copia de los valores, y `startDump` la escribe periódicamente en texto o en JSON,
+ * de modo que se puede seguir una ejecución larga sin un perfilador.
+ */
+public class TOPTWMetrics {
+    /**
+     * @brief Formato de volcado: una línea de texto `clave=valor`.
+     */
+    public static final int FORMAT_TEXT = 0;
+    /**
+     * @brief Formato de volcado: un objeto JSON por línea.
+     */
+    public static final int FORMAT_JSON = 1;
+    private final LongAdder constructions;
+    private final LongAdder insertionChecks;
+    private final LongAdder candidates;
+    private final LongAdder rclSizes;
+    private final LongAdder rclSelections;
+    private final LongAdder routesOpened;
+    private final LongAdder localSearches;
+    private final LongAdder localSearchMoves;
+    private final LongAdder pathRelinkings;
+    private final LongAdder constructionNanos;
+    private final LongAdder localSearchNanos;
+    private final LongAdder pathRelinkingNanos;
+    private volatile long startTime;
+
+    /**
+     * @class Snapshot
+     * @brief Copia inmutable de las métricas en un instante.
+     * @details Los contadores se leen uno a uno sin detener a los hilos, por lo que durante una ejecución
+     * pueden corresponder a instantes ligeramente distintos.
+     */
+    public static class Snapshot {
+        private final long elapsedMillis;
+        private final long constructions;
+        private final long insertionChecks;
+        private final long candidates;
+        private final long rclSizes;
+        private final long rclSelections;
+        private final long routesOpened;
+        private final long localSearches;
+        private final long localSearchMoves;
+        private final long pathRelinkings;
+        private final long constructionNanos;
+        private final long localSearchNanos;
+        private final long pathRelinkingNanos;
+
+        /**
+         * @brief Constructor de la clase Snapshot.
+         * @param metrics Las métricas que se copian.
+         */
+        private Snapshot(TOPTWMetrics metrics) {
+            this.elapsedMillis = (System.nanoTime() - metrics.startTime) / 1000000L;
+            this.constructions = metrics.constructions.sum();
+            this.insertionChecks = metrics.insertionChecks.sum();
+            this.candidates = metrics.candidates.sum();
+            this.rclSizes = metrics.rclSizes.sum();
+            this.rclSelections = metrics.rclSelections.sum();
+            this.routesOpened = metrics.routesOpened.sum();
+            this.localSearches = metrics.localSearches.sum();
+            this.localSearchMoves = metrics.localSearchMoves.sum();
+            this.pathRelinkings = metrics.pathRelinkings.sum();
+            this.constructionNanos = metrics.constructionNanos.sum();
+            this.localSearchNanos = metrics.localSearchNanos.sum();
+            this.pathRelinkingNanos = metrics.pathRelinkingNanos.sum();
+        }
+
+        /**
+         * @brief Obtiene el tiempo transcurrido desde la creación o el último `reset` de las métricas.
+         * @return Los milisegundos transcurridos.
+         */
+        public long getElapsedMillis() {
+            return this.elapsedMillis;
+        }
+
+        /**
+         * @brief Obtiene el número de construcciones greedy aleatorizadas.
+         * @return El número de construcciones.
+         */
+        public long getConstructions() {
+            return this.constructions;
+        }
+
+        /**
+         * @brief Obtiene el número de comprobaciones de factibilidad de inserciones, en todas las fases.
+         * @return El número de llamadas a `TOPTWSolution.evaluateInsertion`.
+         */
+        public long getInsertionChecks() {
+            return this.insertionChecks;
+        }
+
+        /**
+         * @brief Obtiene el número de candidatos evaluados para formar la RCL en las construcciones.
+         * @return El número de candidatos.
+         */
+        public long getCandidates() {
+            return this.candidates;
+        }
+
+        /**
+         * @brief Obtiene el número de selecciones de la RCL.
+         * @return El número de clientes elegidos de una RCL.
+         */
+        public long getRCLSelections() {
+            return this.rclSelections;
+        }
+
+        /**
+         * @brief Obtiene el tamaño medio de la RCL.
+         * @return El tamaño medio, o 0 si no se ha formado ninguna.
+         */
+        public double getAverageRCLSize() {
+            return this.rclSelections == 0 ? 0.0 : (double) this.rclSizes / this.rclSelections;
+        }
+
+        /**
+         * @brief Obtiene el número de rutas abiertas con `TOPTWSolution.addRoute`.
+         * @return El número de rutas.
+         */
+        public long getRoutesOpened() {
+            return this.routesOpened;
+        }
+
+        /**
+         * @brief Obtiene el número de búsquedas locales.
+         * @return El número de búsquedas.
+         */
+        public long getLocalSearches() {
+            return this.localSearches;
+        }
+
+        /**
+         * @brief Obtiene el número de movimientos de mejora aplicados por la búsqueda local.
+         * @return El número de movimientos.
+         */
+        public long getLocalSearchMoves() {
+            return this.localSearchMoves;
+        }
+
+        /**
+         * @brief Obtiene el número de trayectorias de path relinking.
+         * @return El número de trayectorias.
+         */
+        public long getPathRelinkings() {
+            return this.pathRelinkings;
+        }
+
+        /**
+         * @brief Obtiene el tiempo total de las construcciones, sumado entre hilos.
+         * @return Los nanosegundos.
+         */
+        public long getConstructionNanos() {
+            return this.constructionNanos;
+        }
+
+        /**
+         * @brief Obtiene el tiempo total de las búsquedas locales, sumado entre hilos.
+         * @return Los nanosegundos.
+         */
+        public long getLocalSearchNanos() {
+            return this.localSearchNanos;
+        }
+
+        /**
+         * @brief Obtiene el tiempo total del path relinking, sumado entre hilos.
+         * @return Los nanosegundos.
+         */
+        public long getPathRelinkingNanos() {
+            return this.pathRelinkingNanos;
+        }
+
+        /**
+         * @brief Genera la representación en texto, una línea de pares `clave=valor`.
+         * @return El texto, sin salto de línea.
+         */
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            String[] keys = Snapshot.keys();
+            Object[] values = this.values();
+            for(int i = 0; i < keys.length; i++) {
+                text.append(i == 0 ? "" : " ").append(keys[i]).append('=').append(values[i]);
+            }
+            return text.toString();
+        }
+
+        /**
+         * @brief Genera la representación en JSON.
+         * @return Un objeto JSON en una línea.
+         */
+        public String toJSON() {
+            StringBuilder text = new StringBuilder("{");
+            String[] keys = Snapshot.keys();
+            Object[] values = this.values();
+            for(int i = 0; i < keys.length; i++) {
+                text.append(i == 0 ? "" : ",").append('"').append(keys[i]).append("\":").append(values[i]);
+            }
+            return text.append('}').toString();
+        }
+
+        /**
+         * @brief Obtiene los nombres de las métricas en el orden de `values`.
+         * @return Los nombres.
+         */
+        private static String[] keys() {
+            return new String[]{"elapsed_ms", "constructions", "insertion_checks", "candidates", "rcl_selections",
+                "average_rcl_size", "routes_opened", "local_searches", "local_search_moves", "path_relinkings",
+                "construction_ms", "local_search_ms", "path_relinking_ms"};
+        }
+
+        /**
+         * @brief Obtiene los valores de las métricas, con los tiempos de las fases en milisegundos.
+         * @return Los valores.
+         */
+        private Object[] values() {
+            return new Object[]{this.elapsedMillis, this.constructions, this.insertionChecks, this.candidates,
+                this.rclSelections, this.getAverageRCLSize(), this.routesOpened, this.localSearches,
+                this.localSearchMoves, this.pathRelinkings, this.constructionNanos / 1000000L,
+                this.localSearchNanos / 1000000L, this.pathRelinkingNanos / 1000000L};
+        }
+    }
+
+    /**
+     * @brief Constructor de la clase TOPTWMetrics, con todos los contadores a 0.
+     */
+    public TOPTWMetrics() {
+        this.constructions = new LongAdder();
+        this.insertionChecks = new LongAdder();
+        this.candidates = new LongAdder();
+        this.rclSizes = new LongAdder();
+        this.rclSelections = new LongAdder();
+        this.routesOpened = new LongAdder();
+        this.localSearches = new LongAdder();
+        this.localSearchMoves = new LongAdder();
+        this.pathRelinkings = new LongAdder();
+        this.constructionNanos = new LongAdder();
+        this.localSearchNanos = new LongAdder();
+        this.pathRelinkingNanos = new LongAdder();
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * @brief Registra una construcción.
+     * @param nanos La duración de la construcción.
+     * @param insertionChecks Las comprobaciones de factibilidad de inserciones realizadas.
+     * @param candidates Los candidatos evaluados para formar las RCL.
+     * @param rclSizes La suma de los tamaños de las RCL formadas.
+     * @param rclSelections El número de RCL formadas.
+     * @param routesOpened Las rutas abiertas.
+     */
+    public void recordConstruction(long nanos, long insertionChecks, long candidates, long rclSizes, long rclSelections,
+            long routesOpened) {
+        this.constructions.increment();
+        this.constructionNanos.add(nanos);
+        this.insertionChecks.add(insertionChecks);
+        this.candidates.add(candidates);
+        this.rclSizes.add(rclSizes);
+        this.rclSelections.add(rclSelections);
+        this.routesOpened.add(routesOpened);
+    }
+
+    /**
+     * @brief Registra una búsqueda local.
+     * @param nanos La duración de la búsqueda.
+     * @param insertionChecks Las comprobaciones de factibilidad de inserciones realizadas.
+     * @param moves Los movimientos de mejora aplicados.
+     * @param routesOpened Las rutas abiertas.
+     */
+    public void recordLocalSearch(long nanos, long insertionChecks, long moves, long routesOpened) {
+        this.localSearches.increment();
+        this.localSearchNanos.add(nanos);
+        this.insertionChecks.add(insertionChecks);
+        this.localSearchMoves.add(moves);
+        this.routesOpened.add(routesOpened);
+    }
+
+    /**
+     * @brief Registra una trayectoria de path relinking.
+     * @param nanos La duración de la trayectoria.
+     * @param insertionChecks Las comprobaciones de factibilidad de inserciones realizadas.
+     * @param routesOpened Las rutas abiertas.
+     */
+    public void recordPathRelinking(long nanos, long insertionChecks, long routesOpened) {
+        this.pathRelinkings.increment();
+        this.pathRelinkingNanos.add(nanos);
+        this.insertionChecks.add(insertionChecks);
+        this.routesOpened.add(routesOpened);
+    }
+
+    /**
+     * @brief Pone todos los contadores a 0 y reinicia el reloj.
+     * @details No es atómico respecto a los hilos que registran a la vez.
+     */
+    public void reset() {
+        this.constructions.reset();
+        this.insertionChecks.reset();
+        this.candidates.reset();
+        this.rclSizes.reset();
+        this.rclSelections.reset();
+        this.routesOpened.reset();
+        this.localSearches.reset();
+        this.localSearchMoves.reset();
+        this.pathRelinkings.reset();
+        this.constructionNanos.reset();
+        this.localSearchNanos.reset();
+        this.pathRelinkingNanos.reset();
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * @brief Obtiene una copia de los valores actuales.
+     * @details Puede llamarse desde cualquier hilo mientras el GRASP se ejecuta.
+     * @return La copia.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * @brief Escribe una copia de las métricas periódicamente desde un hilo demonio.
+     * @details Cada volcado es una línea en el formato indicado y se vacía el flujo tras escribirla. Al cerrar el
+     * objeto devuelto se detienen los volcados y se escribe uno final; el flujo no se cierra.
+     * @param output El flujo de salida.
+     * @param periodMillis Los milisegundos entre dos volcados.
+     * @param format `FORMAT_TEXT` o `FORMAT_JSON`.
+     * @return El objeto que detiene los volcados; su `close` lanza el primer error de escritura, si lo hubo.
+     * @throws IllegalArgumentException Si el periodo no es positivo o el formato es desconocido.
+     */
+    public Closeable startDump(final Writer output, long periodMillis, final int format) {
+        if(periodMillis <= 0 || (format != FORMAT_TEXT && format != FORMAT_JSON)) {
+            throw new IllegalArgumentException("Periodo ("+periodMillis+") o formato ("+format+") de volcado no válido");
+        }
+        final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "TOPTWMetrics");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        final IOException[] error = new IOException[1];
+        final Runnable dump = new Runnable() {
+            public void run() {
+                Snapshot snapshot = TOPTWMetrics.this.snapshot();
+                try {
+                    synchronized(error) {
+                        output.write((format == FORMAT_JSON ? snapshot.toJSON() : snapshot.toString()) + System.lineSeparator());
+                        output.flush();
+                    }
+                } catch (IOException e) {
+                    synchronized(error) {
+                        if(error[0] == null) {
+                            error[0] = e;
+                        }
+                    }
+                }
+            }
+        };
+        timer.scheduleAtFixedRate(dump, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        return new Closeable() {
+            public void close() throws IOException {
+                timer.shutdownNow();
+                try {
+                    timer.awaitTermination(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                dump.run();
+                synchronized(error) {
+                    if(error[0] != null) {
+                        throw error[0];
+                    }
+                }
+            }
+        };
+    }
+}
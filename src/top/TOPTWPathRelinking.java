@@ -0,0 +1,237 @@
+/**
+ * @file TOPTWPathRelinking.java
+ * @brief Contiene la clase TOPTWPathRelinking, la fase de path relinking del GRASP para el TOPTW.
+ */
+package top;
+
+import java.util.Arrays;
+
+/**
+ * @class TOPTWPathRelinking
+ * @brief Recorre la trayectoria entre una solución y una solución guía del conjunto élite.
+ * @details Cada paso asigna a un POI de la guía el predecesor que tiene en ella: lo coloca a continuación
+ * de su predecesor en la ruta de la solución que corresponde a su ruta en la guía. Los POIs se colocan en el
+ * orden de las rutas de la guía, por lo que el predecesor de cada uno ya está colocado. Cuando ningún POI
+ * cabe, se elimina el POI aún no colocado de menor puntuación de una ruta bloqueada, y así hasta que la
+ * solución contiene todas las rutas de la guía.
+ *
+ * Las soluciones intermedias se evalúan de forma incremental: la factibilidad de cada colocación se comprueba
+ * en tiempo constante con la holgura de la ruta (`TOPTWSolution.evaluateInsertion`) y la puntuación se
+ * actualiza con la del POI añadido o eliminado. La solución de partida y la mejor intermedia se guardan con
+ * `TOPTWSolution.copyFrom` en dos soluciones auxiliares, sin reservar memoria. Al terminar, la solución queda
+ * con la mejor intermedia.
+ */
+public class TOPTWPathRelinking {
+    // Ruta de la guía que aún no tiene ruta asignada en la solución
+    private static final int NEW_ROUTE = -1;
+    private final TOPTW problem;
+    private final boolean[] placed;
+    private final int[] routeMap;
+    private final int[] nextPosition;
+    private final boolean[] usedRoute;
+    private final boolean[] blocked;
+    private final int[] routeCount;
+    private final TOPTWSolution initial;
+    private final TOPTWSolution best;
+    private TOPTWSolution solution;
+    private TOPTWIncumbent guide;
+
+    /**
+     * @brief Constructor de la clase TOPTWPathRelinking.
+     * @param problem La instancia del problema de las soluciones.
+     */
+    public TOPTWPathRelinking(TOPTW problem) {
+        this.problem = problem;
+        this.placed = new boolean[problem.getPOIs() + 1];
+        this.routeMap = new int[problem.getVehicles()];
+        this.nextPosition = new int[problem.getVehicles()];
+        this.usedRoute = new boolean[problem.getVehicles()];
+        this.blocked = new boolean[problem.getVehicles()];
+        this.routeCount = new int[problem.getVehicles()];
+        this.initial = new TOPTWSolution(problem);
+        this.best = new TOPTWSolution(problem);
+    }
+
+    /**
+     * @brief Recorre la trayectoria desde una solución hasta una solución guía y se queda con la mejor intermedia.
+     * @param solution La solución de partida, con los tiempos de sus rutas actualizados. Se modifica.
+     * @param guide La solución guía.
+     * @param fitness La puntuación de la solución de partida.
+     * @return La puntuación de la solución resultante: la mejor intermedia si mejora a la de partida, o la de partida.
+     */
+    public double relink(TOPTWSolution solution, TOPTWIncumbent guide, double fitness) {
+        this.solution = solution;
+        this.guide = guide;
+        this.initial.copyFrom(solution);
+        boolean improved = false;
+        double bestFitness = fitness;
+        double current = fitness;
+        Arrays.fill(this.placed, false);
+        this.mapRoutes();
+        while(true) {
+            Arrays.fill(this.blocked, false);
+            int bestRoute = -1;
+            double bestDelta = Double.NEGATIVE_INFINITY;
+            boolean pending = false;
+            for(int k = 0; k < guide.getRoutes(); k++) {
+                // Los POIs que ya siguen a su predecesor de la guía se colocan sin coste
+                while(this.nextPosition[k] < guide.getRouteLength(k) && this.isInPlace(k, guide.getNode(k, this.nextPosition[k]))) {
+                    this.placed[guide.getNode(k, this.nextPosition[k])] = true;
+                    this.nextPosition[k]++;
+                }
+                if(this.nextPosition[k] == guide.getRouteLength(k)) {
+                    continue;
+                }
+                pending = true;
+                int node = guide.getNode(k, this.nextPosition[k]);
+                if(this.isFeasiblePlacement(k, node)) {
+                    double delta = this.solution.isVisited(node) ? 0.0 : this.problem.getScore(node);
+                    if(delta > bestDelta) {
+                        bestDelta = delta;
+                        bestRoute = k;
+                    }
+                } else if(this.routeMap[k] != NEW_ROUTE) {
+                    this.blocked[this.routeMap[k]] = true;
+                }
+            }
+            if(!pending) {
+                break;
+            }
+            if(bestRoute != -1) {
+                this.place(bestRoute, guide.getNode(bestRoute, this.nextPosition[bestRoute]));
+                current += bestDelta;
+            } else {
+                int removed = this.selectRemoval();
+                if(removed == -1) {
+                    break;
+                }
+                this.solution.removeCustomer(removed);
+                current -= this.problem.getScore(removed);
+            }
+            if(current > bestFitness) {
+                bestFitness = current;
+                this.best.copyFrom(solution);
+                improved = true;
+            }
+        }
+        solution.copyFrom(improved ? this.best : this.initial);
+        return bestFitness;
+    }
+
+    /**
+     * @brief Asigna a cada ruta de la guía la ruta de la solución con la que comparte más POIs.
+     * @details Las rutas de la guía que no comparten POIs con ninguna ruta libre se asignan a las rutas libres
+     * restantes y, si no quedan, a rutas nuevas que se crean al colocar su primer POI.
+     */
+    private void mapRoutes() {
+        Arrays.fill(this.usedRoute, false);
+        for(int k = 0; k < this.guide.getRoutes(); k++) {
+            this.nextPosition[k] = 0;
+            Arrays.fill(this.routeCount, 0);
+            for(int i = 0; i < this.guide.getRouteLength(k); i++) {
+                int route = this.solution.getRoute(this.guide.getNode(k, i));
+                if(route != TOPTWSolution.NO_INITIALIZED) {
+                    this.routeCount[route]++;
+                }
+            }
+            this.routeMap[k] = NEW_ROUTE;
+            for(int r = 0; r < this.solution.getCreatedRoutes(); r++) {
+                if(!this.usedRoute[r] && this.routeCount[r] > 0
+                        && (this.routeMap[k] == NEW_ROUTE || this.routeCount[r] > this.routeCount[this.routeMap[k]])) {
+                    this.routeMap[k] = r;
+                }
+            }
+            if(this.routeMap[k] != NEW_ROUTE) {
+                this.usedRoute[this.routeMap[k]] = true;
+            }
+        }
+        for(int k = 0; k < this.guide.getRoutes(); k++) {
+            for(int r = 0; r < this.solution.getCreatedRoutes() && this.routeMap[k] == NEW_ROUTE; r++) {
+                if(!this.usedRoute[r]) {
+                    this.routeMap[k] = r;
+                    this.usedRoute[r] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Obtiene el nodo tras el que debe ir el siguiente POI de una ruta de la guía.
+     * @param k La ruta de la guía, asignada a una ruta de la solución.
+     * @return El POI anterior en la guía, o el depósito de la ruta asignada si es el primero.
+     */
+    private int getTargetPredecessor(int k) {
+        int position = this.nextPosition[k];
+        return position == 0 ? this.solution.getIndexRoute(this.routeMap[k]) : this.guide.getNode(k, position - 1);
+    }
+
+    /**
+     * @brief Comprueba si un POI ya está a continuación de su predecesor en la guía.
+     * @param k La ruta de la guía.
+     * @param node El siguiente POI de esa ruta.
+     * @return `true` si no hace falta moverlo.
+     */
+    private boolean isInPlace(int k, int node) {
+        return this.routeMap[k] != NEW_ROUTE && this.solution.getRoute(node) == this.routeMap[k]
+            && this.solution.getPredecessor(node) == this.getTargetPredecessor(k);
+    }
+
+    /**
+     * @brief Comprueba si el siguiente POI de una ruta de la guía puede colocarse tras su predecesor.
+     * @details Quitar un POI de otra ruta siempre es factible (la desigualdad triangular solo adelanta las
+     * llegadas), así que basta evaluar la inserción. Si el POI está en la misma ruta, se desengancha antes
+     * de evaluar y se vuelve a enganchar después.
+     * @param k La ruta de la guía.
+     * @param node El siguiente POI de esa ruta.
+     * @return `true` si la colocación es factible.
+     */
+    private boolean isFeasiblePlacement(int k, int node) {
+        int route = this.routeMap[k];
+        if(route == NEW_ROUTE) {
+            // Ruta nueva con el primer POI de una ruta de la guía: factible como en la guía
+            return this.solution.getAvailableVehicles() > 0;
+        }
+        int predecessor = this.getTargetPredecessor(k);
+        if(this.solution.getRoute(node) != route) {
+            return this.solution.evaluateInsertion(node, route, predecessor) != TOPTWSolution.INFEASIBLE_INSERTION;
+        }
+        int oldPredecessor = this.solution.getPredecessor(node);
+        this.solution.removeCustomer(node);
+        boolean feasible = this.solution.evaluateInsertion(node, route, predecessor) != TOPTWSolution.INFEASIBLE_INSERTION;
+        this.solution.insertCustomer(node, route, oldPredecessor);
+        return feasible;
+    }
+
+    /**
+     * @brief Coloca el siguiente POI de una ruta de la guía tras su predecesor.
+     * @param k La ruta de la guía.
+     * @param node El siguiente POI de esa ruta.
+     */
+    private void place(int k, int node) {
+        if(this.solution.isVisited(node)) {
+            this.solution.removeCustomer(node);
+        }
+        if(this.routeMap[k] == NEW_ROUTE) {
+            this.routeMap[k] = this.solution.getCreatedRoutes();
+            this.solution.addRoute();
+        }
+        this.solution.insertCustomer(node, this.routeMap[k], this.getTargetPredecessor(k));
+        this.placed[node] = true;
+        this.nextPosition[k]++;
+    }
+
+    /**
+     * @brief Elige el POI a eliminar para desbloquear una ruta.
+     * @return El POI aún no colocado de menor puntuación de las rutas bloqueadas, o -1 si no hay ninguno.
+     */
+    private int selectRemoval() {
+        int removed = -1;
+        for(int c = 1; c <= this.problem.getPOIs(); c++) {
+            if(!this.placed[c] && this.solution.isVisited(c) && this.blocked[this.solution.getRoute(c)]
+                    && (removed == -1 || this.problem.getScore(c) < this.problem.getScore(removed))) {
+                removed = c;
+            }
+        }
+        return removed;
+    }
+}
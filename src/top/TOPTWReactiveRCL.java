@@ -0,0 +1,180 @@
+/**
+ * @file TOPTWReactiveRCL.java
+ * @brief Contiene la clase TOPTWReactiveRCL, que elige el tamaño de la RCL del GRASP reactivo.
+ */
+package top;
+
+import java.util.Random;
+
+/**
+ * @class TOPTWReactiveRCL
+ * @brief Distribución de probabilidad sobre un conjunto de tamaños de RCL que se adapta durante la ejecución.
+ * @details Sigue el esquema del GRASP reactivo de Prais y Ribeiro: cada iteración elige un tamaño por ruleta
+ * y, cada `period` iteraciones, las probabilidades se recalculan como `q_i = (A_i / F*)^delta` normalizadas,
+ * siendo `A_i` la puntuación media obtenida con el tamaño `i` y `F*` la mejor puntuación encontrada.
+ * Los tamaños que aún no se han probado reciben `q_i = 1`, el máximo, para que no dejen de explorarse.
+ *
+ * Una misma instancia puede compartirse entre los hilos de `parallelReactiveGRASP`: la selección y el
+ * registro están sincronizados, de modo que todos los hilos aprenden de las mismas estadísticas.
+ */
+public class TOPTWReactiveRCL {
+    /**
+     * @brief Iteraciones entre dos actualizaciones de las probabilidades por defecto.
+     */
+    public static final int DEFAULT_PERIOD = 100;
+    /**
+     * @brief Exponente por defecto que amplifica las diferencias entre las medias.
+     */
+    public static final double DEFAULT_DELTA = 10.0;
+    private final int[] sizes;
+    private final double[] probabilities;
+    private final double[] sumFitness;
+    private final int[] counts;
+    private final int period;
+    private final double delta;
+    private double bestFitness;
+    private int pending;
+
+    /**
+     * @brief Constructor de la clase TOPTWReactiveRCL con el periodo y el exponente por defecto.
+     * @param sizes Los tamaños de RCL entre los que se elige.
+     */
+    public TOPTWReactiveRCL(int[] sizes) {
+        this(sizes, DEFAULT_PERIOD, DEFAULT_DELTA);
+    }
+
+    /**
+     * @brief Constructor de la clase TOPTWReactiveRCL.
+     * @param sizes Los tamaños de RCL entre los que se elige.
+     * @param period Las iteraciones entre dos actualizaciones de las probabilidades.
+     * @param delta El exponente de la actualización; cuanto mayor, más se favorece al mejor tamaño.
+     * @throws IllegalArgumentException Si no hay tamaños, alguno no es positivo o el periodo no es positivo.
+     */
+    public TOPTWReactiveRCL(int[] sizes, int period, double delta) {
+        if(sizes.length == 0 || period <= 0) {
+            throw new IllegalArgumentException("El GRASP reactivo necesita al menos un tamaño de RCL y un periodo positivo");
+        }
+        for(int size : sizes) {
+            if(size <= 0) {
+                throw new IllegalArgumentException("Tamaño de RCL no válido: "+size);
+            }
+        }
+        this.sizes = sizes.clone();
+        this.probabilities = new double[sizes.length];
+        this.sumFitness = new double[sizes.length];
+        this.counts = new int[sizes.length];
+        this.period = period;
+        this.delta = delta;
+        this.reset();
+    }
+
+    /**
+     * @brief Vuelve a la distribución uniforme y olvida las estadísticas.
+     */
+    public synchronized void reset() {
+        for(int i = 0; i < this.sizes.length; i++) {
+            this.probabilities[i] = 1.0 / this.sizes.length;
+            this.sumFitness[i] = 0.0;
+            this.counts[i] = 0;
+        }
+        this.bestFitness = 0.0;
+        this.pending = 0;
+    }
+
+    /**
+     * @brief Elige un tamaño por ruleta según las probabilidades actuales.
+     * @param random El generador aleatorio del hilo que llama.
+     * @return La posición del tamaño elegido (ver `getSize`).
+     */
+    public synchronized int select(Random random) {
+        double r = random.nextDouble();
+        for(int i = 0; i < this.sizes.length - 1; i++) {
+            r -= this.probabilities[i];
+            if(r < 0.0) {
+                return i;
+            }
+        }
+        return this.sizes.length - 1;
+    }
+
+    /**
+     * @brief Registra la puntuación obtenida con un tamaño y, al completar un periodo, actualiza las probabilidades.
+     * @param index La posición del tamaño usado.
+     * @param fitness La puntuación de la solución obtenida.
+     */
+    public synchronized void record(int index, double fitness) {
+        this.sumFitness[index] += fitness;
+        this.counts[index]++;
+        if(this.bestFitness < fitness) {
+            this.bestFitness = fitness;
+        }
+        if(++this.pending >= this.period) {
+            this.pending = 0;
+            this.update();
+        }
+    }
+
+    /**
+     * @brief Recalcula las probabilidades a partir de las medias acumuladas.
+     */
+    private void update() {
+        if(this.bestFitness <= 0.0) {
+            return;
+        }
+        double total = 0.0;
+        for(int i = 0; i < this.sizes.length; i++) {
+            double quality = this.counts[i] == 0 ? 1.0 : Math.pow(this.sumFitness[i] / this.counts[i] / this.bestFitness, this.delta);
+            this.probabilities[i] = quality;
+            total += quality;
+        }
+        for(int i = 0; i < this.sizes.length; i++) {
+            this.probabilities[i] /= total;
+        }
+    }
+
+    /**
+     * @brief Obtiene el número de tamaños entre los que se elige.
+     * @return El número de tamaños.
+     */
+    public int getSizes() {
+        return this.sizes.length;
+    }
+
+    /**
+     * @brief Obtiene un tamaño de RCL.
+     * @param index La posición del tamaño.
+     * @return El tamaño de RCL.
+     */
+    public int getSize(int index) {
+        return this.sizes[index];
+    }
+
+    /**
+     * @brief Obtiene la probabilidad actual de un tamaño.
+     * @param index La posición del tamaño.
+     * @return La probabilidad de elegirlo.
+     */
+    public synchronized double getProbability(int index) {
+        return this.probabilities[index];
+    }
+
+    /**
+     * @brief Genera una representación de la distribución actual.
+     * @return Cada tamaño con su probabilidad y su puntuación media.
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < this.sizes.length; i++) {
+            if(i > 0) {
+                text.append(", ");
+            }
+            text.append(this.sizes[i]).append(" (p=").append(String.format("%.3f", this.probabilities[i]));
+            if(this.counts[i] > 0) {
+                text.append(", media=").append(String.format("%.1f", this.sumFitness[i] / this.counts[i]));
+            }
+            text.append(")");
+        }
+        return text.toString();
+    }
+}
@@ -4,76 +4,438 @@
  */
 package top;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32C;
 
-import es.ull.esit.utilities.ExpositoUtilities;
+import es.ull.esit.utilities.DistanceMatrix;
+import es.ull.esit.utilities.FlatDistanceMatrix;
+import es.ull.esit.utilities.MappedDistanceMatrix;
+import es.ull.esit.utilities.NumberTokenizer;
+import es.ull.esit.utilities.TokenParseException;
 
 /**
  * @class TOPTWReader
  * @brief Proporciona funcionalidad para leer una instancia del problema TOPTW desde un archivo de texto.
  * @details El método estático `readProblem` se encarga de parsear el archivo y construir un objeto TOPTW.
+ * El fichero se proyecta en memoria y se lee con un `NumberTokenizer`, que convierte los números directamente
+ * desde los bytes sin crear una cadena por línea.
+ *
+ * `readProblem(String, String)` guarda además cada instancia leída en una caché binaria con los datos de los
+ * nodos, la matriz de distancias, las listas de vecinos y la compatibilidad de los arcos ya calculados. Las
+ * lecturas siguientes proyectan la caché en memoria y usan esas tablas sin analizar texto ni recalcularlas.
+ * A partir de `TOPTW.PACKED_DISTANCES_MIN_NODES` nodos las distancias se leen directamente del fichero
+ * proyectado (`MappedDistanceMatrix`); por debajo se copian a un `FlatDistanceMatrix`.
+ *
+ * Formato de la caché (little-endian, secciones alineadas a 8 bytes):
+ * - Cabecera de 64 bytes: identificador `TOPB`, versión, número de POIs, de vehículos y de vecinos por POI,
+ *   tiempo máximo por ruta, número máximo de rutas, tamaño y fecha de modificación del fichero de texto de
+ *   origen, y dos CRC-32C: el de la cabecera junto con los datos de los nodos y el del resto del fichero.
+ * - Datos de los nodos: x, y, puntuación, apertura y cierre de la ventana y servicio, un array tras otro.
+ * - Triángulo superior de la matriz de distancias por filas, diagonal incluida.
+ * - Listas de vecinos (`int`) y filas de la matriz de bits de compatibilidad (`long`).
  */
 public class TOPTWReader {
+    // Identificador ("TOPB") y versión del formato de la caché binaria
+    private static final int BINARY_MAGIC = 0x544F5042;
+    private static final int BINARY_VERSION = 1;
+    private static final String BINARY_EXTENSION = ".topb";
+    private static final int BINARY_HEADER_BYTES = 64;
+    // Posiciones de los CRC en la cabecera; el de la cabecera no se incluye a sí mismo
+    private static final int HEADER_CRC_OFFSET = 56;
+    private static final int DATA_CRC_OFFSET = 60;
+    // Número de arrays de datos de los nodos
+    private static final int NODE_ATTRIBUTES = 6;
     
+
     /**
      * @brief Lee una instancia del problema TOPTW desde un archivo.
      * @details Parsea un archivo de texto con un formato específico para inicializar un objeto TOPTW.
      * El formato esperado es el de las instancias de Solomon, adaptado para TOPTW.
      * La primera línea define el número de vehículos y clientes. Las siguientes líneas definen los
      * datos de cada cliente (coordenadas, tiempo de servicio, puntuación, ventanas de tiempo).
+     * La lectura se registra como evento `TOPTWEvents.InstanceLoad` de Java Flight Recorder.
      * @param filePath La ruta al archivo de la instancia.
      * @return Un objeto TOPTW con los datos del problema cargados.
-     * @throws IOException Si ocurre un error al leer el archivo.
+     * @throws TOPTWReaderException Si el archivo no se puede leer o está mal formado; en este caso
+     * incluye el número de línea.
      */
     public static TOPTW readProblem(String filePath) {
-        TOPTW problem = null;
-        BufferedReader reader = null;
+        TOPTWEvents.InstanceLoad event = new TOPTWEvents.InstanceLoad();
+        event.begin();
+        TOPTW problem = TOPTWReader.readText(filePath);
+        TOPTWReader.commitLoad(event, filePath, problem, false);
+        return problem;
+    }
+
+    /**
+     * @brief Lee una instancia del fichero de texto, sin registrar el evento de carga.
+     * @param filePath La ruta al archivo de la instancia.
+     * @return Un objeto TOPTW con los datos del problema cargados.
+     * @throws TOPTWReaderException Si el archivo no se puede leer o está mal formado.
+     */
+    private static TOPTW readText(String filePath) {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return TOPTWReader.readProblem(new NumberTokenizer(buffer), filePath);
+        } catch (IOException e) {
+            throw new TOPTWReaderException(filePath, TOPTWReaderException.NO_LINE, "no se puede leer el archivo: " + e, e);
+        }
+    }
+
+    /**
+     * @brief Lee una instancia del problema TOPTW con un tokenizador situado al comienzo del archivo.
+     * @details Cada línea de POI tiene la forma `i x y d S f a list O C`, donde `list` tiene `a` elementos;
+     * se leen las coordenadas, la duración del servicio, la puntuación y la ventana de tiempo `[O, C]`.
+     * @param tokenizer El tokenizador sobre el contenido del archivo.
+     * @param filePath La ruta al archivo, para los mensajes de error.
+     * @return Un objeto TOPTW con los datos del problema cargados.
+     * @throws TOPTWReaderException Si el contenido está mal formado.
+     */
+    private static TOPTW readProblem(NumberTokenizer tokenizer, String filePath) {
+        TOPTW.Builder builder = null;
         try {
-            File instaceFile = new File(filePath);
-            reader = new BufferedReader(new FileReader(instaceFile));
-            String line = reader.readLine();
-            line = ExpositoUtilities.simplifyString(line);
-            String[] parts =line.split(" ");
-            problem = new TOPTW(Integer.parseInt(parts[2]), Integer.parseInt(parts[1]));
-            line = reader.readLine();
-            line = null; parts = null;
-            for (int i = 0; i < problem.getPOIs()+1; i++) {
-                line = reader.readLine();
-                line = ExpositoUtilities.simplifyString(line);
-                parts = line.split(" ");
-                problem.setX(i, Double.parseDouble(parts[1]));
-                problem.setY(i, Double.parseDouble(parts[2]));
-                problem.setServiceTime(i, Double.parseDouble(parts[3]));
-                problem.setScore(i, Double.parseDouble(parts[4]));
-                if(i==0) {
-                    problem.setReadyTime(i, Double.parseDouble(parts[7]));
-                    problem.setDueTime(i, Double.parseDouble(parts[8]));
+            tokenizer.skipToken();
+            int routes = tokenizer.nextInt();
+            int nodes = tokenizer.nextInt();
+            if(nodes < 0 || routes < 1) {
+                throw new TokenParseException("número de vértices o de rutas no válido", tokenizer.getLine());
+            }
+            builder = new TOPTW.Builder(nodes, routes);
+            tokenizer.nextLine();
+            tokenizer.nextLine();
+            for (int i = 0; i < nodes+1; i++) {
+                tokenizer.skipToken();
+                builder.setX(i, tokenizer.nextDouble());
+                builder.setY(i, tokenizer.nextDouble());
+                builder.setServiceTime(i, tokenizer.nextDouble());
+                builder.setScore(i, tokenizer.nextDouble());
+                tokenizer.skipToken();
+                int listLength = tokenizer.nextInt();
+                for (int j = 0; j < listLength; j++) {
+                    tokenizer.skipToken();
                 }
-                else {
-                    problem.setReadyTime(i, Double.parseDouble(parts[8]));
-                    problem.setDueTime(i, Double.parseDouble(parts[9]));                    
+                builder.setReadyTime(i, tokenizer.nextDouble());
+                builder.setDueTime(i, tokenizer.nextDouble());
+                tokenizer.nextLine();
+            }
+        } catch (TokenParseException e) {
+            throw new TOPTWReaderException(filePath, e.getLine(), e.getReason(), e);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @brief Lee una instancia del problema TOPTW usando una caché binaria.
+     * @details Si la caché de la instancia existe, corresponde al fichero actual (mismo tamaño y fecha de
+     * modificación) y sus CRC son correctos, la proyecta en memoria y crea la instancia a partir de sus tablas,
+     * sin analizar texto ni calcular distancias. En otro caso lee el fichero de texto con `readProblem` y
+     * reescribe la caché. La caché se llama como el fichero de texto seguido de un resumen de su ruta absoluta
+     * y de la extensión `.topb`, de modo que dos instancias con el mismo nombre en directorios distintos no
+     * comparten caché; se escribe en un fichero temporal que se renombra al terminar, de modo que nunca queda a medio escribir. Las instancias
+     * cuya caché no cabe en una sola proyección (unos 16.000 POIs) se leen siempre del fichero de texto. La
+     * caché es solo una optimización: si no se puede escribir (directorio de solo lectura, disco lleno...), se
+     * devuelve la instancia leída del texto sin ella.
+     * La lectura se registra como un único evento `TOPTWEvents.InstanceLoad`, que indica si se usó la caché.
+     * @param filePath La ruta al archivo de la instancia.
+     * @param cacheDirectory El directorio de la caché, que se crea si no existe.
+     * @return Un objeto TOPTW con los datos del problema cargados.
+     * @throws TOPTWReaderException Si el archivo no se puede leer o está mal formado.
+     */
+    public static TOPTW readProblem(String filePath, String cacheDirectory) {
+        TOPTWEvents.InstanceLoad event = new TOPTWEvents.InstanceLoad();
+        event.begin();
+        Path source = Paths.get(filePath);
+        Path cache = Paths.get(cacheDirectory, TOPTWReader.cacheFileName(source));
+        long sourceSize;
+        long sourceModified;
+        try {
+            sourceSize = Files.size(source);
+            sourceModified = Files.getLastModifiedTime(source).toMillis();
+        } catch (IOException e) {
+            throw new TOPTWReaderException(filePath, TOPTWReaderException.NO_LINE, "no se puede leer el archivo: " + e, e);
+        }
+        TOPTW problem = TOPTWReader.readBinary(cache, sourceSize, sourceModified);
+        boolean cacheHit = problem != null;
+        if(!cacheHit) {
+            problem = TOPTWReader.readText(filePath);
+            TOPTWReader.writeBinary(problem, cache, sourceSize, sourceModified);
+        }
+        TOPTWReader.commitLoad(event, filePath, problem, cacheHit);
+        return problem;
+    }
+
+    /**
+     * @brief Obtiene el nombre de la caché de una instancia.
+     * @details Se compone del nombre del fichero, para reconocerla a simple vista, y de los 16 primeros dígitos
+     * hexadecimales del SHA-256 de su ruta absoluta normalizada, que la distinguen de las de otros ficheros con
+     * el mismo nombre.
+     * @param source La ruta del fichero de texto de la instancia.
+     * @return El nombre de la caché, sin directorio.
+     */
+    private static String cacheFileName(Path source) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(
+                source.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e); // obligatorio en toda JVM
+        }
+        StringBuilder name = new StringBuilder(source.getFileName().toString()).append('-');
+        for(int i = 0; i < 8; i++) {
+            name.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+        }
+        return name.append(BINARY_EXTENSION).toString();
+    }
+
+    /**
+     * @brief Termina el evento JFR de una carga y lo registra si hay una grabación que lo recoja.
+     * @param event El evento, comenzado al inicio de la carga.
+     * @param filePath La ruta al archivo de la instancia.
+     * @param problem La instancia leída.
+     * @param cacheHit `true` si se leyó de la caché binaria.
+     */
+    private static void commitLoad(TOPTWEvents.InstanceLoad event, String filePath, TOPTW problem, boolean cacheHit) {
+        event.end();
+        if(event.shouldCommit()) {
+            event.path = filePath;
+            event.pois = problem.getPOIs();
+            event.vehicles = problem.getVehicles();
+            event.cacheHit = cacheHit;
+            event.commit();
+        }
+    }
+
+    /**
+     * @brief Lee una instancia de la caché binaria.
+     * @param cache La ruta de la caché.
+     * @param sourceSize El tamaño del fichero de texto de origen.
+     * @param sourceModified La fecha de modificación del fichero de texto de origen, en milisegundos.
+     * @return La instancia, o `null` si la caché no existe, es de otro fichero u otra versión, o está dañada.
+     */
+    private static TOPTW readBinary(Path cache, long sourceSize, long sourceModified) {
+        if(!Files.isRegularFile(cache)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size < BINARY_HEADER_BYTES || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            int nodes = buffer.getInt(8);
+            int vehicles = buffer.getInt(12);
+            int neighbors = buffer.getInt(16);
+            if(buffer.getInt(0) != BINARY_MAGIC || buffer.getInt(4) != BINARY_VERSION || nodes < 0 || vehicles < 1
+                    || neighbors < 0 || buffer.getLong(40) != sourceSize || buffer.getLong(48) != sourceModified
+                    || TOPTWReader.binarySize(nodes, neighbors) != size) {
+                return null;
+            }
+            int attributesEnd = BINARY_HEADER_BYTES + NODE_ATTRIBUTES * 8 * (nodes + 1);
+            if(TOPTWReader.headerChecksum(buffer, attributesEnd) != buffer.getInt(HEADER_CRC_OFFSET)
+                    || TOPTWReader.checksum(buffer, attributesEnd, (int) size) != buffer.getInt(DATA_CRC_OFFSET)) {
+                return null;
+            }
+            TOPTW.Builder builder = new TOPTW.Builder(nodes, vehicles);
+            builder.setMaxTimePerRoute(buffer.getDouble(24));
+            builder.setMaxRoutes(buffer.getDouble(32));
+            DoubleBuffer attributes = TOPTWReader.section(buffer, BINARY_HEADER_BYTES, attributesEnd).asDoubleBuffer();
+            for(int i = 0; i <= nodes; i++) {
+                builder.setX(i, attributes.get(i));
+                builder.setY(i, attributes.get(nodes + 1 + i));
+                builder.setScore(i, attributes.get(2 * (nodes + 1) + i));
+                builder.setReadyTime(i, attributes.get(3 * (nodes + 1) + i));
+                builder.setDueTime(i, attributes.get(4 * (nodes + 1) + i));
+                builder.setServiceTime(i, attributes.get(5 * (nodes + 1) + i));
+            }
+            int distancesEnd = attributesEnd + (int) TOPTWReader.distanceBytes(nodes);
+            int neighborsEnd = distancesEnd + (int) TOPTWReader.neighborBytes(nodes, neighbors);
+            int[] neighborTable = new int[(nodes + 1) * neighbors];
+            TOPTWReader.section(buffer, distancesEnd, neighborsEnd).asIntBuffer().get(neighborTable);
+            long[] compatibilityTable = new long[(nodes + 1) * TOPTWReader.compatibilityWords(nodes)];
+            TOPTWReader.section(buffer, neighborsEnd, (int) size).asLongBuffer().get(compatibilityTable);
+            DistanceMatrix distances = new MappedDistanceMatrix(nodes + 1,
+                TOPTWReader.section(buffer, attributesEnd, distancesEnd).asDoubleBuffer());
+            if(nodes + 1 < TOPTW.PACKED_DISTANCES_MIN_NODES) {
+                // Copiar una matriz pequeña al montículo es inmediato y su acceso directo es más rápido
+                DistanceMatrix copy = new FlatDistanceMatrix(nodes + 1);
+                for(int i = 0; i <= nodes; i++) {
+                    for(int j = i; j <= nodes; j++) {
+                        copy.set(i, j, distances.get(i, j));
+                    }
                 }
-                line = null; parts = null;
+                distances = copy;
             }
-            problem.calculateDistanceMatrix();
+            return builder.setPrecomputed(distances, neighborTable, compatibilityTable).build();
         } catch (IOException e) {
-            System.err.println(e);
-            System.exit(0);
+            return null;
+        }
+    }
+
+    /**
+     * @brief Escribe una instancia en la caché binaria.
+     * @details Si la caché no cabe en una sola proyección o no se puede escribir, no se escribe y se borra
+     * el fichero temporal; la siguiente lectura volverá a intentarlo.
+     * @param problem La instancia.
+     * @param cache La ruta de la caché.
+     * @param sourceSize El tamaño del fichero de texto de origen.
+     * @param sourceModified La fecha de modificación del fichero de texto de origen, en milisegundos.
+     */
+    private static void writeBinary(TOPTW problem, Path cache, long sourceSize, long sourceModified) {
+        int nodes = problem.getPOIs();
+        int neighbors = problem.getNeighborCount();
+        long size = TOPTWReader.binarySize(nodes, neighbors);
+        if(size > Integer.MAX_VALUE) {
+            return;
+        }
+        Path temporary = null;
+        try {
+            Path directory = cache.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, cache.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(0, BINARY_MAGIC);
+                buffer.putInt(4, BINARY_VERSION);
+                buffer.putInt(8, nodes);
+                buffer.putInt(12, problem.getVehicles());
+                buffer.putInt(16, neighbors);
+                buffer.putDouble(24, problem.getMaxTimePerRoute());
+                buffer.putDouble(32, problem.getMaxRoutes());
+                buffer.putLong(40, sourceSize);
+                buffer.putLong(48, sourceModified);
+                int attributesEnd = BINARY_HEADER_BYTES + NODE_ATTRIBUTES * 8 * (nodes + 1);
+                DoubleBuffer attributes = TOPTWReader.section(buffer, BINARY_HEADER_BYTES, attributesEnd).asDoubleBuffer();
+                for(int i = 0; i <= nodes; i++) {
+                    attributes.put(i, problem.getX(i));
+                    attributes.put(nodes + 1 + i, problem.getY(i));
+                    attributes.put(2 * (nodes + 1) + i, problem.getScore(i));
+                    attributes.put(3 * (nodes + 1) + i, problem.getReadyTime(i));
+                    attributes.put(4 * (nodes + 1) + i, problem.getDueTime(i));
+                    attributes.put(5 * (nodes + 1) + i, problem.getServiceTime(i));
+                }
+                int distancesEnd = attributesEnd + (int) TOPTWReader.distanceBytes(nodes);
+                MappedDistanceMatrix.write(problem.getDistanceMatrix(),
+                    TOPTWReader.section(buffer, attributesEnd, distancesEnd).asDoubleBuffer());
+                int neighborsEnd = distancesEnd + (int) TOPTWReader.neighborBytes(nodes, neighbors);
+                IntBuffer neighborTable = TOPTWReader.section(buffer, distancesEnd, neighborsEnd).asIntBuffer();
+                for(int i = 0; i <= nodes; i++) {
+                    for(int j = 0; j < neighbors; j++) {
+                        neighborTable.put(problem.getNeighbor(i, j));
+                    }
+                }
+                LongBuffer compatibilityTable = TOPTWReader.section(buffer, neighborsEnd, (int) size).asLongBuffer();
+                for(int i = 0; i <= nodes; i++) {
+                    for(int word = 0; word < problem.getCompatibilityWords(); word++) {
+                        compatibilityTable.put(problem.getCompatibilityWord(i, word));
+                    }
+                }
+                buffer.putInt(HEADER_CRC_OFFSET, TOPTWReader.headerChecksum(buffer, attributesEnd));
+                buffer.putInt(DATA_CRC_OFFSET, TOPTWReader.checksum(buffer, attributesEnd, (int) size));
+                mapped.force();
+            }
+            Files.move(temporary, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // sin caché: la instancia ya se ha leído del texto
         } finally {
-            if (reader != null) {
+            if(temporary != null) {
                 try {
-                    reader.close();
-                } catch (IOException ex) {
-                    System.err.println(ex);
-                    System.exit(0);
+                    Files.deleteIfExists(temporary);
+                } catch (IOException e) {
+                    // el temporal huérfano no impide usar la caché
                 }
             }
         }
-        problem.setMaxTimePerRoute(problem.getDueTime(0));
-        return problem;
     }
-    
+
+    /**
+     * @brief Calcula el tamaño de la caché binaria de una instancia.
+     * @param nodes El número de POIs.
+     * @param neighbors El número de vecinos por POI.
+     * @return El tamaño en bytes.
+     */
+    private static long binarySize(int nodes, int neighbors) {
+        return BINARY_HEADER_BYTES + (long) NODE_ATTRIBUTES * 8 * (nodes + 1) + TOPTWReader.distanceBytes(nodes)
+            + TOPTWReader.neighborBytes(nodes, neighbors) + 8L * (nodes + 1) * TOPTWReader.compatibilityWords(nodes);
+    }
+
+    /**
+     * @brief Calcula el tamaño del triángulo superior de la matriz de distancias.
+     * @param nodes El número de POIs.
+     * @return El tamaño en bytes.
+     */
+    private static long distanceBytes(int nodes) {
+        return 8L * (nodes + 1) * (nodes + 2) / 2;
+    }
+
+    /**
+     * @brief Calcula el tamaño de las listas de vecinos, redondeado a un múltiplo de 8 bytes.
+     * @param nodes El número de POIs.
+     * @param neighbors El número de vecinos por POI.
+     * @return El tamaño en bytes.
+     */
+    private static long neighborBytes(int nodes, int neighbors) {
+        return (4L * (nodes + 1) * neighbors + 7) & ~7L;
+    }
+
+    /**
+     * @brief Calcula el número de `long` de cada fila de la matriz de compatibilidad.
+     * @param nodes El número de POIs.
+     * @return El número de palabras por nodo.
+     */
+    private static int compatibilityWords(int nodes) {
+        return (nodes + 1 + 63) >>> 6;
+    }
+
+    /**
+     * @brief Obtiene una sección de la caché con el orden de bytes del formato.
+     * @param buffer La caché completa.
+     * @param start La posición del primer byte.
+     * @param end La posición siguiente al último byte.
+     * @return La sección, independiente del búfer original.
+     */
+    private static ByteBuffer section(ByteBuffer buffer, int start, int end) {
+        return buffer.slice(start, end - start).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @brief Calcula el CRC-32C de la cabecera, sin sus CRC, junto con los datos de los nodos.
+     * @param buffer La caché completa.
+     * @param attributesEnd La posición siguiente a los datos de los nodos.
+     * @return El CRC.
+     */
+    private static int headerChecksum(ByteBuffer buffer, int attributesEnd) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, HEADER_CRC_OFFSET));
+        crc.update(buffer.slice(BINARY_HEADER_BYTES, attributesEnd - BINARY_HEADER_BYTES));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * @brief Calcula el CRC-32C de una sección de la caché.
+     * @param buffer La caché completa.
+     * @param start La posición del primer byte.
+     * @param end La posición siguiente al último byte.
+     * @return El CRC.
+     */
+    private static int checksum(ByteBuffer buffer, int start, int end) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start, end - start));
+        return (int) crc.getValue();
+    }
 }
@@ -0,0 +1,49 @@
+/**
+ * @file TOPTWReaderException.java
+ * @brief Contiene la excepción TOPTWReaderException, lanzada cuando no se puede leer una instancia.
+ */
+package top;
+
+/**
+ * @class TOPTWReaderException
+ * @brief Excepción no comprobada que indica que un fichero de instancia no existe, no se puede leer o está mal formado.
+ * @details Incluye la ruta del fichero y, en los errores de formato, el número de línea.
+ */
+public class TOPTWReaderException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    /**
+     * @brief Valor de línea para los errores que no corresponden a una línea concreta.
+     */
+    public static final int NO_LINE = -1;
+    private final String filePath;
+    private final int line;
+
+    /**
+     * @brief Constructor de la clase TOPTWReaderException.
+     * @param filePath La ruta del fichero de la instancia.
+     * @param line El número de línea del error, o `NO_LINE`.
+     * @param message La descripción del error.
+     * @param cause La causa original.
+     */
+    public TOPTWReaderException(String filePath, int line, String message, Throwable cause) {
+        super(filePath + (line == NO_LINE ? "" : ":" + line) + ": " + message, cause);
+        this.filePath = filePath;
+        this.line = line;
+    }
+
+    /**
+     * @brief Obtiene la ruta del fichero de la instancia.
+     * @return La ruta del fichero.
+     */
+    public String getFilePath() {
+        return this.filePath;
+    }
+
+    /**
+     * @brief Obtiene el número de línea del error.
+     * @return El número de línea, empezando en 1, o `NO_LINE`.
+     */
+    public int getLine() {
+        return this.line;
+    }
+}
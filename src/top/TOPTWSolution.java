@@ -11,23 +11,54 @@ import es.ull.esit.utilities.ExpositoUtilities;
 /**
  * @class TOPTWSolution
  * @brief Representa una solución a una instancia del problema TOPTW.
- * @details Almacena la estructura de las rutas (mediante predecesores y sucesores), los tiempos de espera,
- * y el valor de la función objetivo. Proporciona métodos para construir, modificar y evaluar la solución.
+ * @details Almacena la estructura de las rutas (mediante predecesores y sucesores), los tiempos de llegada,
+ * salida y espera, la holgura (max-shift) de cada nodo y el valor de la función objetivo. Proporciona métodos para construir, modificar y evaluar la solución.
  */
 public class TOPTWSolution {
     /**
      * @brief Constante para indicar que un valor no ha sido inicializado.
      */
     public static final int NO_INITIALIZED = -1;
+    /**
+     * @brief Valor devuelto por `evaluateInsertion` cuando la inserción no es factible.
+     */
+    public static final double INFEASIBLE_INSERTION = Double.MAX_VALUE;
+    // Tolerancia para retrasos que las esperas absorben salvo por error de redondeo
+    private static final double TIME_EPSILON = 1e-9;
     private TOPTW problem;
     private int[] predecessors;
     private int[] successors;
     private double[] waitingTime;
     private int[] positionInRoute;
+    // Tiempos por nodo. En los depósitos, la salida es la del inicio de la ruta (siempre 0)
+    // y la llegada, la espera, la última llegada admisible y la espera acumulada son las del regreso al final de la ruta.
+    private double[] arrivalTime;
+    private double[] departureTime;
+    private double[] latestArrival;
+    private double[] waitingSuffix;
+    private double[] routeEndTime;
+    private int[] routeOfNode;
     
     private int[] routes;
     private int availableVehicles;
     private double objectiveFunctionValue;
+    private final TOPTWEvaluator evaluator;
+    // Evaluaciones de inserción realizadas desde la creación de la solución (no se reinicia con initSolution)
+    private long evaluations;
+    // Rutas abiertas con addRoute desde la creación de la solución (tampoco se reinicia)
+    private long openedRoutes;
+    // Hash de Zobrist de los predecesores, actualizado en cada cambio de predecesor
+    private long hash;
+    // Diario de cambios para deshacer movimientos tentativos: entradas de JOURNAL_STRIDE enteros
+    // (tipo, nodo, valor anterior, ruta del nodo antes del cambio)
+    private static final int JOURNAL_STRIDE = 4;
+    private static final int JOURNAL_PREDECESSOR = 0;
+    private static final int JOURNAL_SUCCESSOR = 1;
+    private static final int JOURNAL_ADD_ROUTE = 2;
+    private boolean journaling;
+    private int[] journal;
+    private int journalSize;
+    private final boolean[] dirtyRoutes;
     
     /**
      * @brief Constructor de la clase TOPTWSolution.
@@ -38,31 +69,170 @@ public class TOPTWSolution {
         this.availableVehicles = this.problem.getVehicles();
         this.predecessors = new int[this.problem.getPOIs()+this.problem.getVehicles()];
         this.successors = new int[this.problem.getPOIs()+this.problem.getVehicles()];
-        this.waitingTime = new double[this.problem.getPOIs()];
-        this.positionInRoute = new int[this.problem.getPOIs()];
+        this.waitingTime = new double[this.problem.getPOIs()+this.problem.getVehicles()];
+        this.positionInRoute = new int[this.problem.getPOIs()+this.problem.getVehicles()];
         Arrays.fill(this.predecessors, TOPTWSolution.NO_INITIALIZED);
         Arrays.fill(this.successors, TOPTWSolution.NO_INITIALIZED);
         Arrays.fill(this.waitingTime, TOPTWSolution.NO_INITIALIZED);
         Arrays.fill(this.positionInRoute, TOPTWSolution.NO_INITIALIZED);
+        this.arrivalTime = new double[this.problem.getPOIs()+this.problem.getVehicles()];
+        this.departureTime = new double[this.problem.getPOIs()+this.problem.getVehicles()];
+        this.latestArrival = new double[this.problem.getPOIs()+this.problem.getVehicles()];
+        this.waitingSuffix = new double[this.problem.getPOIs()+this.problem.getVehicles()];
+        this.routeEndTime = new double[this.problem.getVehicles()];
+        this.routeOfNode = new int[this.problem.getPOIs()+this.problem.getVehicles()];
+        Arrays.fill(this.routeOfNode, TOPTWSolution.NO_INITIALIZED);
         this.routes = new int[this.problem.getVehicles()];
         this.objectiveFunctionValue = TOPTWEvaluator.NO_EVALUATED;
+        this.evaluator = new TOPTWEvaluator(this.problem);
+        this.evaluations = 0;
+        this.openedRoutes = 0;
+        this.hash = 0L;
+        this.journaling = false;
+        this.journal = new int[64 * JOURNAL_STRIDE];
+        this.journalSize = 0;
+        this.dirtyRoutes = new boolean[this.problem.getVehicles()];
     }
     
     /**
      * @brief Inicializa o resetea la solución a un estado básico.
-     * @details Crea una única ruta con el depósito principal (índice 0) y establece los vehículos disponibles.
+     * @details Equivale a `reset`.
      */
     public void initSolution() {
-        this.predecessors = new int[this.problem.getPOIs()+this.problem.getVehicles()];
-        this.successors = new int[this.problem.getPOIs()+this.problem.getVehicles()];
+        this.reset();
+    }
+
+    /**
+     * @brief Resetea la solución a su estado inicial: una única ruta vacía con el depósito principal (índice 0).
+     * @details Reutiliza los arrays existentes, por lo que no reserva memoria. Descarta el diario de cambios.
+     */
+    public void reset() {
+        this.clearJournal();
         Arrays.fill(this.predecessors, TOPTWSolution.NO_INITIALIZED);
         Arrays.fill(this.successors, TOPTWSolution.NO_INITIALIZED);
-        this.routes = new int[this.problem.getVehicles()];
         Arrays.fill(this.routes, TOPTWSolution.NO_INITIALIZED);
         this.routes[0] = 0;
-        this.predecessors[0] = 0;
-        this.successors[0] = 0;
+        this.hash = 0L;
+        this.evaluator.reset();
+        this.setPredecessor(0, 0);
+        this.setSuccessor(0, 0);
         this.availableVehicles = this.problem.getVehicles() - 1;
+        Arrays.fill(this.departureTime, 0.0);
+        Arrays.fill(this.waitingTime, TOPTWSolution.NO_INITIALIZED);
+        Arrays.fill(this.positionInRoute, TOPTWSolution.NO_INITIALIZED);
+        Arrays.fill(this.routeOfNode, TOPTWSolution.NO_INITIALIZED);
+        this.updateRouteTimes(0);
+    }
+
+    /**
+     * @brief Copia en esta solución el estado de otra de la misma instancia.
+     * @details Copia rutas, enlaces, tiempos, holguras y hash sobre los arrays existentes, por lo que no reserva
+     * memoria. Descarta el diario de cambios; el contador de evaluaciones no se copia.
+     * @param other La solución a copiar.
+     * @throws IllegalArgumentException Si la otra solución es de otra instancia.
+     */
+    public void copyFrom(TOPTWSolution other) {
+        if(other.problem != this.problem) {
+            throw new IllegalArgumentException("Solo pueden copiarse soluciones de la misma instancia");
+        }
+        this.clearJournal();
+        System.arraycopy(other.predecessors, 0, this.predecessors, 0, this.predecessors.length);
+        System.arraycopy(other.successors, 0, this.successors, 0, this.successors.length);
+        System.arraycopy(other.waitingTime, 0, this.waitingTime, 0, this.waitingTime.length);
+        System.arraycopy(other.positionInRoute, 0, this.positionInRoute, 0, this.positionInRoute.length);
+        System.arraycopy(other.arrivalTime, 0, this.arrivalTime, 0, this.arrivalTime.length);
+        System.arraycopy(other.departureTime, 0, this.departureTime, 0, this.departureTime.length);
+        System.arraycopy(other.latestArrival, 0, this.latestArrival, 0, this.latestArrival.length);
+        System.arraycopy(other.waitingSuffix, 0, this.waitingSuffix, 0, this.waitingSuffix.length);
+        System.arraycopy(other.routeEndTime, 0, this.routeEndTime, 0, this.routeEndTime.length);
+        System.arraycopy(other.routeOfNode, 0, this.routeOfNode, 0, this.routeOfNode.length);
+        System.arraycopy(other.routes, 0, this.routes, 0, this.routes.length);
+        this.availableVehicles = other.availableVehicles;
+        this.objectiveFunctionValue = other.objectiveFunctionValue;
+        this.hash = other.hash;
+        this.evaluator.copyFrom(other.evaluator);
+    }
+
+    /**
+     * @brief Empieza o continúa el registro de cambios y devuelve la posición actual del diario.
+     * @details Mientras el diario está activo, cada cambio de predecesor, de sucesor y cada ruta añadida se
+     * anota con su valor anterior, de modo que `undo` puede deshacer un movimiento tentativo en tiempo
+     * proporcional al número de cambios, sin copiar la solución. Las marcas pueden anidarse.
+     * @return La marca a la que `undo` devuelve la solución.
+     */
+    public int mark() {
+        this.journaling = true;
+        return this.journalSize;
+    }
+
+    /**
+     * @brief Deshace los cambios anotados desde una marca.
+     * @details Restaura los enlaces en orden inverso y recalcula los tiempos de las rutas afectadas, una vez
+     * por ruta. El diario sigue activo.
+     * @param mark La marca devuelta por `mark`.
+     */
+    public void undo(int mark) {
+        boolean active = this.journaling;
+        this.journaling = false;
+        while(this.journalSize > mark) {
+            this.journalSize -= JOURNAL_STRIDE;
+            int kind = this.journal[this.journalSize];
+            int node = this.journal[this.journalSize + 1];
+            int old = this.journal[this.journalSize + 2];
+            int route = this.journal[this.journalSize + 3];
+            if(kind == JOURNAL_PREDECESSOR) {
+                this.setPredecessor(node, old);
+                if(old == TOPTWSolution.NO_INITIALIZED) {
+                    this.routeOfNode[node] = TOPTWSolution.NO_INITIALIZED;
+                    this.positionInRoute[node] = TOPTWSolution.NO_INITIALIZED;
+                    this.waitingTime[node] = TOPTWSolution.NO_INITIALIZED;
+                }
+            } else if(kind == JOURNAL_SUCCESSOR) {
+                this.successors[node] = old;
+            } else { // JOURNAL_ADD_ROUTE: node es la posición de la ruta
+                this.routes[node] = TOPTWSolution.NO_INITIALIZED;
+                this.availableVehicles++;
+                this.evaluator.clearRoute(node);
+                this.dirtyRoutes[node] = false;
+            }
+            if(route != TOPTWSolution.NO_INITIALIZED && kind != JOURNAL_ADD_ROUTE) {
+                this.dirtyRoutes[route] = true;
+            }
+        }
+        for(int r = 0; r < this.dirtyRoutes.length; r++) {
+            if(this.dirtyRoutes[r]) {
+                this.dirtyRoutes[r] = false;
+                if(this.routes[r] != TOPTWSolution.NO_INITIALIZED) {
+                    this.updateRouteTimes(r);
+                }
+            }
+        }
+        this.journaling = active;
+    }
+
+    /**
+     * @brief Descarta el diario de cambios y deja de registrar cambios.
+     */
+    public void clearJournal() {
+        this.journaling = false;
+        this.journalSize = 0;
+    }
+
+    /**
+     * @brief Anota un cambio en el diario, ampliándolo si es necesario.
+     * @param kind El tipo de cambio.
+     * @param node El nodo modificado (o la posición de la ruta añadida).
+     * @param old El valor anterior.
+     */
+    private void record(int kind, int node, int old) {
+        if(this.journalSize == this.journal.length) {
+            this.journal = Arrays.copyOf(this.journal, this.journal.length * 2);
+        }
+        this.journal[this.journalSize] = kind;
+        this.journal[this.journalSize + 1] = node;
+        this.journal[this.journalSize + 2] = old;
+        this.journal[this.journalSize + 3] = kind == JOURNAL_ADD_ROUTE ? TOPTWSolution.NO_INITIALIZED : this.routeOfNode[node];
+        this.journalSize += JOURNAL_STRIDE;
     }
     
     /**
@@ -81,10 +251,14 @@ public class TOPTWSolution {
     
     /**
      * @brief Compara si dos soluciones son iguales basándose en sus arrays de predecesores.
+     * @details Las soluciones con distinto hash de Zobrist se descartan sin recorrer los arrays.
      * @param otherSolution La otra solución con la que comparar.
      * @return `true` si las soluciones son idénticas, `false` en caso contrario.
      */
     public boolean equals(TOPTWSolution otherSolution) {
+        if (this.hash != otherSolution.hash) {
+            return false;
+        }
         for (int i = 0; i < this.predecessors.length; i++) {
             if (this.predecessors[i] != otherSolution.predecessors[i]) {
                 return false;
@@ -107,12 +281,43 @@ public class TOPTWSolution {
             return false;
         }
         TOPTWSolution that = (TOPTWSolution) o;
-        return Arrays.equals(predecessors, that.predecessors);
+        return this.hash == that.hash && Arrays.equals(predecessors, that.predecessors);
     }
 
+    /**
+     * @brief Obtiene el código hash de la solución en tiempo constante.
+     * @return Los 64 bits del hash de Zobrist plegados en un `int`.
+     */
     @Override
     public int hashCode() {
-        return Arrays.hashCode(predecessors);
+        return (int) (this.hash ^ (this.hash >>> 32));
+    }
+
+    /**
+     * @brief Obtiene el hash de Zobrist de la solución.
+     * @details Es el XOR de una clave pseudoaleatoria de 64 bits por cada par (nodo, predecesor) de la solución,
+     * y se actualiza en tiempo constante en cada `setPredecessor`. Como los sucesores se deducen de los
+     * predecesores, dos soluciones iguales tienen el mismo hash y dos distintas casi nunca coinciden.
+     * Los cambios hechos directamente sobre el array de `getPredecessors` no lo actualizan.
+     * @return El hash de la solución.
+     */
+    public long getHash() {
+        return this.hash;
+    }
+
+    /**
+     * @brief Calcula la clave de Zobrist de un par (nodo, predecesor).
+     * @details En lugar de una tabla de claves aleatorias, que ocuparía un `long` por cada par de nodos, la
+     * clave se obtiene mezclando el par con el finalizador de SplitMix64.
+     * @param node El nodo.
+     * @param predecessor Su predecesor.
+     * @return La clave del par.
+     */
+    private static long arcKey(int node, int predecessor) {
+        long z = (((long) node << 32) | (predecessor & 0xFFFFFFFFL)) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 
     /**
@@ -226,6 +431,291 @@ public class TOPTWSolution {
         return this.waitingTime[customer];
     }
 
+    /**
+     * @brief Obtiene el tiempo de llegada a un nodo.
+     * @details Para un depósito devuelve el tiempo de llegada al final de su ruta.
+     * @param node El índice del nodo.
+     * @return El tiempo de llegada.
+     */
+    public double getArrivalTime(int node) {
+        return this.arrivalTime[node];
+    }
+
+    /**
+     * @brief Obtiene el tiempo de salida de un nodo (inicio del servicio más el tiempo de servicio).
+     * @details Para un depósito devuelve el tiempo de salida al inicio de su ruta.
+     * @param node El índice del nodo.
+     * @return El tiempo de salida.
+     */
+    public double getDepartureTime(int node) {
+        return this.departureTime[node];
+    }
+
+    /**
+     * @brief Obtiene el máximo retraso en la llegada a un nodo que mantiene factible el resto de su ruta.
+     * @details Es la holgura hacia delante (max-shift): un retraso mayor viola la ventana de tiempo de este nodo
+     * o de alguno posterior, o el tiempo máximo por ruta.
+     * @param node El índice del nodo.
+     * @return El máximo retraso admisible.
+     */
+    public double getMaxShift(int node) {
+        return this.latestArrival[node] - this.arrivalTime[node];
+    }
+
+    /**
+     * @brief Obtiene el último instante de llegada a un nodo que mantiene factible el resto de su ruta.
+     * @param node El índice del nodo.
+     * @return La última llegada admisible.
+     */
+    public double getLatestArrival(int node) {
+        return this.latestArrival[node];
+    }
+
+    /**
+     * @brief Obtiene el tiempo de finalización (regreso al depósito) de una ruta.
+     * @param route El índice de la ruta.
+     * @return El tiempo de finalización de la ruta.
+     */
+    public double getRouteEndTime(int route) {
+        return this.routeEndTime[route];
+    }
+
+    /**
+     * @brief Recalcula los tiempos de llegada, salida, espera y holgura de todos los nodos de una ruta.
+     * @details Un recorrido hacia delante calcula llegadas, esperas y posiciones, y otro hacia atrás la última
+     * llegada admisible de cada nodo, de la que se deriva la holgura (max-shift), y la espera acumulada hasta
+     * el final de la ruta. En el recorrido hacia delante se recogen también la puntuación, el tiempo de viaje,
+     * la espera y la factibilidad de la ruta para el evaluador. Debe llamarse tras modificar la ruta.
+     * @param route El índice de la ruta.
+     */
+    public void updateRouteTimes(int route) {
+        int depot = this.routes[route];
+        double maxTime = this.problem.getMaxTimePerRoute();
+        double departure = this.departureTime[depot];
+        double score = 0.0, travelTime = 0.0, waitingTime = 0.0;
+        boolean feasible = true;
+        int pre = depot, suc = -1, position = 0;
+        do {
+            suc = this.successors[pre];
+            double distance = this.problem.getDistance(pre, suc);
+            double arrival = departure + distance;
+            feasible &= arrival < this.problem.getDueTime(suc);
+            double start = arrival;
+            if(start < this.problem.getReadyTime(suc)) {
+                start = this.problem.getReadyTime(suc);
+            }
+            this.arrivalTime[suc] = arrival;
+            this.waitingTime[suc] = start - arrival;
+            departure = start + this.problem.getServiceTime(suc);
+            feasible &= departure <= maxTime;
+            travelTime += distance;
+            waitingTime += start - arrival;
+            if(suc != depot) {
+                this.departureTime[suc] = departure;
+                this.positionInRoute[suc] = ++position;
+                score += this.problem.getScore(suc);
+            }
+            this.routeOfNode[suc] = route;
+            pre = suc;
+        } while(suc != depot);
+        this.positionInRoute[depot] = 0;
+        this.routeEndTime[route] = departure;
+        this.evaluator.updateRoute(route, score, travelTime, waitingTime, feasible);
+        
+        // La llegada debe ser estrictamente anterior al cierre de la ventana y la salida no superar el máximo
+        double latestArrival = Math.min(Math.nextDown(this.problem.getDueTime(depot)), maxTime - this.problem.getServiceTime(depot));
+        this.latestArrival[depot] = latestArrival;
+        this.waitingSuffix[depot] = this.waitingTime[depot];
+        int next = depot;
+        int node = this.predecessors[depot];
+        while(node != depot) {
+            latestArrival = Math.min(latestArrival - this.problem.getDistance(node, next), maxTime) - this.problem.getServiceTime(node);
+            latestArrival = Math.min(latestArrival, Math.nextDown(this.problem.getDueTime(node)));
+            this.latestArrival[node] = latestArrival;
+            this.waitingSuffix[node] = this.waitingTime[node] + this.waitingSuffix[next];
+            next = node;
+            node = this.predecessors[node];
+        }
+    }
+
+    /**
+     * @brief Evalúa en tiempo constante la inserción de un cliente a continuación de un nodo de una ruta.
+     * @details Comprueba la ventana de tiempo del cliente y el tiempo máximo por ruta, y compara la nueva llegada
+     * al sucesor con su última llegada admisible, es decir, el retraso que provoca con su holgura (max-shift). Requiere que los tiempos de la ruta estén actualizados.
+     * @param customer El cliente a insertar.
+     * @param route El índice de la ruta.
+     * @param predecessor El nodo tras el cual se insertaría el cliente.
+     * @return El nuevo tiempo de finalización de la ruta, o `INFEASIBLE_INSERTION` si la inserción no es factible.
+     */
+    public double evaluateInsertion(int customer, int route, int predecessor) {
+        return this.evaluateInsertion(customer, route, predecessor, this.successors[predecessor]);
+    }
+
+    /**
+     * @brief Evalúa en tiempo constante la colocación de un cliente entre dos nodos de una ruta.
+     * @details Los nodos que haya entre `predecessor` y `successor` se consideran eliminados, lo que permite
+     * evaluar una sustitución (predecesor y sucesor del nodo sustituido) además de una inserción. Se basa en la
+     * salida del predecesor y en la última llegada admisible del sucesor, que no dependen de esos nodos.
+     * @param customer El cliente a colocar.
+     * @param route El índice de la ruta.
+     * @param predecessor El nodo que precederá al cliente.
+     * @param successor El nodo que seguirá al cliente.
+     * @return El tiempo de finalización de la ruta si no hay nodos eliminados (cota superior si los hay),
+     * o `INFEASIBLE_INSERTION` si no es factible.
+     */
+    public double evaluateInsertion(int customer, int route, int predecessor, int successor) {
+        this.evaluations++;
+        double arrival = this.departureTime[predecessor] + this.problem.getDistance(predecessor, customer);
+        if(!(arrival < this.problem.getDueTime(customer))) {
+            return INFEASIBLE_INSERTION;
+        }
+        if(arrival < this.problem.getReadyTime(customer)) {
+            arrival = this.problem.getReadyTime(customer);
+        }
+        double departure = arrival + this.problem.getServiceTime(customer);
+        if(departure > this.problem.getMaxTimePerRoute()) {
+            return INFEASIBLE_INSERTION;
+        }
+        double arrivalSuccessor = departure + this.problem.getDistance(customer, successor);
+        if(arrivalSuccessor > this.latestArrival[successor]) {
+            return INFEASIBLE_INSERTION;
+        }
+        double shift = arrivalSuccessor - this.arrivalTime[successor];
+        // El retraso se va absorbiendo con las esperas de los nodos posteriores
+        double endShift = shift - this.waitingSuffix[successor];
+        return endShift > TIME_EPSILON ? this.routeEndTime[route] + endShift : this.routeEndTime[route];
+    }
+
+    /**
+     * @brief Comprueba con la matriz de compatibilidad si la inserción de un cliente tras un nodo puede ser factible.
+     * @details Consulta dos bits (`TOPTW.isCompatible`) sin calcular tiempos, para descartar antes de
+     * `evaluateInsertion` las posiciones cuyos arcos nunca son factibles.
+     * @param customer El cliente a insertar.
+     * @param predecessor El nodo tras el cual se insertaría.
+     * @return `false` si alguno de los dos arcos nuevos es incompatible.
+     */
+    public boolean isCompatibleInsertion(int customer, int predecessor) {
+        return this.problem.isCompatible(predecessor, customer) && this.problem.isCompatible(customer, this.successors[predecessor]);
+    }
+
+    /**
+     * @brief Obtiene los nodos de una ruta tras los que merece la pena evaluar la inserción de un cliente.
+     * @details Sin listas de vecinos (`TOPTW.hasNeighbors`) son todos los nodos de la ruta, empezando por el
+     * depósito. Con ellas, el vecindario es granular: solo los vecinos cercanos del cliente que están en la ruta y
+     * sus predecesores (el cliente quedaría justo después o justo antes de un vecino), además del depósito y de
+     * su predecesor para poder empezar o terminar la ruta, que con ventanas de tiempo suele ser donde hay hueco.
+     * Las posiciones lejanas casi nunca son la mejor inserción, y así el coste no depende de la longitud de las
+     * rutas. Puede haber posiciones repetidas.
+     * @param customer El cliente a insertar.
+     * @param route El índice de la ruta.
+     * @param predecessors Array donde se guardan los nodos; con `2 * (getPOIs() + 1)` posiciones basta siempre.
+     * @return El número de nodos guardados.
+     */
+    public int getInsertionPositions(int customer, int route, int[] predecessors) {
+        int depot = this.routes[route];
+        int count = 0;
+        if(!this.problem.hasNeighbors()) {
+            int pre = depot;
+            do {
+                predecessors[count++] = pre;
+                pre = this.successors[pre];
+            } while(pre != depot);
+            return count;
+        }
+        predecessors[count++] = depot;
+        if(this.predecessors[depot] != depot) {
+            predecessors[count++] = this.predecessors[depot];
+        }
+        for(int i = 0; i < this.problem.getNeighborCount(); i++) {
+            int neighbor = this.problem.getNeighbor(customer, i);
+            if(this.routeOfNode[neighbor] == route) {
+                predecessors[count++] = neighbor;
+                predecessors[count++] = this.predecessors[neighbor];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @brief Obtiene el número de evaluaciones de inserción realizadas sobre esta solución.
+     * @details Cuenta las llamadas a `evaluateInsertion` desde la creación de la solución; sirve como medida
+     * del trabajo realizado que no depende de la velocidad de la máquina.
+     * @return El número de evaluaciones.
+     */
+    public long getEvaluations() {
+        return this.evaluations;
+    }
+
+    /**
+     * @brief Obtiene el número de rutas abiertas con `addRoute` sobre esta solución.
+     * @details Como `getEvaluations`, cuenta desde la creación de la solución, incluidas las rutas que
+     * después se deshacen o se descartan al reiniciarla.
+     * @return El número de rutas abiertas.
+     */
+    public long getOpenedRoutes() {
+        return this.openedRoutes;
+    }
+
+    /**
+     * @brief Obtiene la ruta en la que se encuentra un nodo.
+     * @param node El índice del nodo.
+     * @return El índice de la ruta, o `NO_INITIALIZED` si el nodo no está en ninguna ruta.
+     */
+    public int getRoute(int node) {
+        return this.routeOfNode[node];
+    }
+
+    /**
+     * @brief Comprueba si un cliente está asignado a alguna ruta.
+     * @param customer El índice del cliente.
+     * @return `true` si el cliente se visita en la solución.
+     */
+    public boolean isVisited(int customer) {
+        return this.predecessors[customer] != TOPTWSolution.NO_INITIALIZED;
+    }
+
+    /**
+     * @brief Inserta un cliente a continuación de un nodo de una ruta y actualiza los tiempos de la ruta.
+     * @param customer El cliente a insertar, que no debe estar en ninguna ruta.
+     * @param route El índice de la ruta.
+     * @param predecessor El nodo tras el cual se inserta el cliente.
+     */
+    public void insertCustomer(int customer, int route, int predecessor) {
+        int successor = this.successors[predecessor];
+        this.setPredecessor(customer, predecessor);
+        this.setSuccessor(customer, successor);
+        this.setSuccessor(predecessor, customer);
+        this.setPredecessor(successor, customer);
+        this.updateRouteTimes(route);
+    }
+
+    /**
+     * @brief Elimina un cliente de su ruta y actualiza los tiempos de la ruta.
+     * @param customer El cliente a eliminar.
+     */
+    public void removeCustomer(int customer) {
+        int route = this.routeOfNode[customer];
+        this.unlinkCustomer(customer);
+        this.updateRouteTimes(route);
+    }
+
+    /**
+     * @brief Desengancha un cliente de su ruta sin recalcular los tiempos.
+     * @details Permite encadenar varios cambios en una ruta y actualizarla una sola vez al final.
+     * @param customer El cliente a desenganchar.
+     */
+    public void unlinkCustomer(int customer) {
+        int predecessor = this.predecessors[customer];
+        int successor = this.successors[customer];
+        this.setSuccessor(predecessor, successor);
+        this.setPredecessor(successor, predecessor);
+        this.setPredecessor(customer, TOPTWSolution.NO_INITIALIZED);
+        this.setSuccessor(customer, TOPTWSolution.NO_INITIALIZED);
+        this.routeOfNode[customer] = TOPTWSolution.NO_INITIALIZED;
+        this.positionInRoute[customer] = TOPTWSolution.NO_INITIALIZED;
+        this.waitingTime[customer] = TOPTWSolution.NO_INITIALIZED;
+    }
+
     /**
      * @brief Establece el valor de la función objetivo.
      * @param objectiveFunctionValue El nuevo valor.
@@ -244,11 +734,24 @@ public class TOPTWSolution {
     }
 
     /**
-     * @brief Establece el predecesor de un nodo.
+     * @brief Establece el predecesor de un nodo y actualiza el hash de la solución.
      * @param customer El índice del nodo.
-     * @param predecessor El índice del nuevo predecesor.
+     * @param predecessor El índice del nuevo predecesor, o `NO_INITIALIZED`.
      */
     public void setPredecessor(int customer, int predecessor) {
+        int old = this.predecessors[customer];
+        if(this.journaling) {
+            this.record(JOURNAL_PREDECESSOR, customer, old);
+        }
+        if(old != TOPTWSolution.NO_INITIALIZED) {
+            this.hash ^= arcKey(customer, old);
+        }
+        if(predecessor != TOPTWSolution.NO_INITIALIZED) {
+            this.hash ^= arcKey(customer, predecessor);
+        }
+        if((old == TOPTWSolution.NO_INITIALIZED) != (predecessor == TOPTWSolution.NO_INITIALIZED)) {
+            this.evaluator.visit(customer, predecessor != TOPTWSolution.NO_INITIALIZED);
+        }
         this.predecessors[customer] = predecessor;
     }
 
@@ -258,6 +761,9 @@ public class TOPTWSolution {
      * @param succesor El índice del nuevo sucesor.
      */
     public void setSuccessor(int customer, int succesor) {
+        if(this.journaling) {
+            this.record(JOURNAL_SUCCESSOR, customer, this.successors[customer]);
+        }
         this.successors[customer] = succesor;
     }
 
@@ -277,89 +783,108 @@ public class TOPTWSolution {
      * @return Una cadena formateada con el resumen de la solución y los detalles de cada ruta.
      */
     public String getInfoSolution() {
+        return this.appendInfoSolution(new StringBuilder()).toString();
+    }
+
+    /**
+     * @brief Añade a un StringBuilder la información detallada de la solución.
+     * @details Produce el mismo texto que `getInfoSolution`, escribiendo directamente en el StringBuilder
+     * en lugar de concatenar cadenas, de modo que el coste es lineal en el tamaño del informe.
+     * @param builder El StringBuilder donde se escribe el informe.
+     * @return El mismo StringBuilder, para encadenar llamadas.
+     */
+    public StringBuilder appendInfoSolution(StringBuilder builder) {
         final int COLUMN_WIDTH = 15;
-        String text = "\n"+"NODES: " + this.problem.getPOIs() + "\n" + "MAX TIME PER ROUTE: " + this.problem.getMaxTimePerRoute() + "\n" + "MAX NUMBER OF ROUTES: " + this.problem.getMaxRoutes() + "\n";
-        String textSolution = "\n"+"SOLUTION: "+"\n";
+        final String[] HEADER = {"CUST NO.", "X COORD.", "Y. COORD.", "READY TIME", "DUE DATE", "ARRIVE TIME", " LEAVE TIME", "SERVICE TIME"};
+        StringBuilder text = new StringBuilder();
+        text.append("\n").append("NODES: ").append(this.problem.getPOIs()).append("\n").append("MAX TIME PER ROUTE: ").append(this.problem.getMaxTimePerRoute()).append("\n").append("MAX NUMBER OF ROUTES: ").append(this.problem.getMaxRoutes()).append("\n");
+        builder.append("\n").append("SOLUTION: ").append("\n");
         double costTimeSolution = 0.0, fitnessScore = 0.0;
         boolean validSolution = true;
         for(int k = 0; k < this.getCreatedRoutes(); k++) { // rutas creadas
-            String[] strings = new String[]{"\n" + "ROUTE " + k };
-            int[] width = new int[strings.length];
-            Arrays.fill(width, COLUMN_WIDTH);
-            text += ExpositoUtilities.getFormat(strings, width) + "\n";
-            strings = new String[]{"CUST NO.", "X COORD.", "Y. COORD.", "READY TIME", "DUE DATE", "ARRIVE TIME", " LEAVE TIME", "SERVICE TIME"};
-            width = new int[strings.length];
-            Arrays.fill(width, COLUMN_WIDTH);
-            text += ExpositoUtilities.getFormat(strings, width) + "\n";
-            strings = new String[strings.length];
+            ExpositoUtilities.appendFormat(text, "\n" + "ROUTE " + k, COLUMN_WIDTH).append("\n");
+            for(int i = 0; i < HEADER.length; i++) {
+                ExpositoUtilities.appendFormat(text, HEADER[i], COLUMN_WIDTH);
+            }
+            text.append("\n");
             int depot = this.getIndexRoute(k);
             int pre=-1, suc=-1;
             double costTimeRoute = 0.0, fitnessScoreRoute = 0.0;
             pre = depot;
-            int index = 0;
-            strings[index++] = "" + pre;
-            strings[index++] = "" + this.getProblem().getX(pre);
-            strings[index++] = "" + this.getProblem().getY(pre);
-            strings[index++] = "" + this.getProblem().getReadyTime(pre);
-            strings[index++] = "" + this.getProblem().getDueTime(pre);
-            strings[index++] = "" + 0;
-            strings[index++] = "" + 0;
-            strings[index++] = "" + this.getProblem().getServiceTime(pre);
-            text += ExpositoUtilities.getFormat(strings, width);
-            text += "\n";
+            this.appendNodeColumns(text, pre, COLUMN_WIDTH);
+            ExpositoUtilities.appendFormat(text, 0, COLUMN_WIDTH);
+            ExpositoUtilities.appendFormat(text, 0, COLUMN_WIDTH);
+            ExpositoUtilities.appendFormat(text, this.getProblem().getServiceTime(pre), COLUMN_WIDTH);
+            text.append("\n");
+            // Si una llegada no es factible la fila repite los tiempos de la última fila factible
+            boolean depotTimes = true;
+            double arriveTime = 0.0, leaveTime = 0.0, serviceTime = this.getProblem().getServiceTime(pre);
             do {                // recorremos la ruta
-                index = 0;
                 suc = this.getSuccessor(pre);
-                textSolution += pre+" - ";
-                strings[index++] = "" + suc;
-                strings[index++] = "" + this.getProblem().getX(suc);
-                strings[index++] = "" + this.getProblem().getY(suc);
-                strings[index++] = "" + this.getProblem().getReadyTime(suc);
-                strings[index++] = "" + this.getProblem().getDueTime(suc);
+                builder.append(pre).append(" - ");
+                this.appendNodeColumns(text, suc, COLUMN_WIDTH);
                 costTimeRoute += this.getDistance(pre, suc);
                 if(costTimeRoute < (this.getProblem().getDueTime(suc))) {
                     if(costTimeRoute < this.getProblem().getReadyTime(suc)) {
                         costTimeRoute = this.getProblem().getReadyTime(suc);
                     }
-                    strings[index++] = "" + costTimeRoute;
+                    arriveTime = costTimeRoute;
                     costTimeRoute +=  this.getProblem().getServiceTime(suc);
-                    strings[index++] = "" + costTimeRoute;
-                    strings[index++] = "" + this.getProblem().getServiceTime(pre);
+                    leaveTime = costTimeRoute;
+                    serviceTime = this.getProblem().getServiceTime(pre);
+                    depotTimes = false;
                     if(costTimeRoute > this.getProblem().getMaxTimePerRoute()) { validSolution = false; }
                     fitnessScoreRoute += this.problem.getScore(suc);
-                } else { validSolution = false; }                  
+                } else { validSolution = false; }
+                if(depotTimes) {
+                    ExpositoUtilities.appendFormat(text, 0, COLUMN_WIDTH);
+                    ExpositoUtilities.appendFormat(text, 0, COLUMN_WIDTH);
+                } else {
+                    ExpositoUtilities.appendFormat(text, arriveTime, COLUMN_WIDTH);
+                    ExpositoUtilities.appendFormat(text, leaveTime, COLUMN_WIDTH);
+                }
+                ExpositoUtilities.appendFormat(text, serviceTime, COLUMN_WIDTH);
                 pre = suc;
-                text += ExpositoUtilities.getFormat(strings, width);
-                text += "\n";
+                text.append("\n");
             } while(suc != depot);
-            textSolution += suc+"\n";
+            builder.append(suc).append("\n");
             costTimeSolution += costTimeRoute;
             fitnessScore += fitnessScoreRoute;
         }
-        textSolution += "FEASIBLE SOLUTION: "+validSolution+"\n"+"SCORE: "+fitnessScore+"\n"+"TIME COST: "+costTimeSolution+"\n";
-        return textSolution+text;
+        builder.append("FEASIBLE SOLUTION: ").append(validSolution).append("\n").append("SCORE: ").append(fitnessScore).append("\n").append("TIME COST: ").append(costTimeSolution).append("\n");
+        return builder.append(text);
+    }
+
+    /**
+     * @brief Añade las columnas fijas de un nodo (índice, coordenadas y ventana de tiempo) a una fila del informe.
+     * @param text El StringBuilder del informe.
+     * @param node El índice del nodo.
+     * @param width El ancho de cada columna.
+     */
+    private void appendNodeColumns(StringBuilder text, int node, int width) {
+        ExpositoUtilities.appendFormat(text, node, width);
+        ExpositoUtilities.appendFormat(text, this.getProblem().getX(node), width);
+        ExpositoUtilities.appendFormat(text, this.getProblem().getY(node), width);
+        ExpositoUtilities.appendFormat(text, this.getProblem().getReadyTime(node), width);
+        ExpositoUtilities.appendFormat(text, this.getProblem().getDueTime(node), width);
     }
     
     /**
      * @brief Evalúa la función objetivo de la solución (puntuación total).
-     * @details Suma las puntuaciones de todos los nodos visitados en todas las rutas.
+     * @details Devuelve en tiempo constante la suma de las puntuaciones de todos los POIs visitados, que el
+     * evaluador de la solución mantiene de forma incremental (ver `TOPTWEvaluator`).
      * @return La puntuación total de la solución.
      */
     public double evaluateFitness() {
-        double objectiveFunction = 0.0;
-        double objectiveFunctionPerRoute = 0.0;
-        for(int k = 0; k < this.getCreatedRoutes(); k++) {
-            int depot = this.getIndexRoute(k);
-            int pre=depot, suc = -1;
-            do {
-                suc = this.getSuccessor(pre);
-                objectiveFunctionPerRoute = objectiveFunctionPerRoute + this.problem.getScore(suc);
-                pre = suc;
-            } while((suc != depot));
-            objectiveFunction = objectiveFunction + objectiveFunctionPerRoute;
-            objectiveFunctionPerRoute = 0.0;
-        }
-        return objectiveFunction;
+        return this.evaluator.getScore();
+    }
+
+    /**
+     * @brief Obtiene el evaluador incremental de la solución.
+     * @return El evaluador, con la puntuación, el tiempo de viaje, la espera y la factibilidad de cada ruta.
+     */
+    public TOPTWEvaluator getEvaluator() {
+        return this.evaluator;
     }
     
     /**
@@ -379,11 +904,16 @@ public class TOPTWSolution {
                 routePos = i+1;
             }
         }
+        if(this.journaling) {
+            this.record(JOURNAL_ADD_ROUTE, routePos, TOPTWSolution.NO_INITIALIZED);
+        }
         this.routes[routePos] = depot;
         this.availableVehicles--;
-        this.predecessors[depot] = depot;
-        this.successors[depot] = depot;
-        this.problem.addNodeDepot();
+        this.openedRoutes++;
+        this.setPredecessor(depot, depot);
+        this.setSuccessor(depot, depot);
+        this.departureTime[depot] = 0.0;
+        this.updateRouteTimes(routePos);
         return depot;
     }
     
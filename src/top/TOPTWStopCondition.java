@@ -0,0 +1,171 @@
+/**
+ * @file TOPTWStopCondition.java
+ * @brief Contiene la clase TOPTWStopCondition, el criterio de parada del GRASP.
+ */
+package top;
+
+/**
+ * @class TOPTWStopCondition
+ * @brief Agrupa los límites que detienen una ejecución del GRASP.
+ * @details La ejecución se detiene en cuanto se alcanza cualquiera de los límites establecidos:
+ * - Número de iteraciones.
+ * - Tiempo de reloj, en milisegundos desde el comienzo de la ejecución.
+ * - Número de evaluaciones de inserción (`TOPTWSolution.getEvaluations`), un presupuesto que no depende
+ *   de la velocidad de la máquina.
+ * - Estancamiento: iteraciones seguidas sin mejorar la mejor solución.
+ * - Puntuación objetivo, por ejemplo una cota superior conocida: no tiene sentido seguir al alcanzarla.
+ *
+ * Los límites se comprueban entre iteraciones, por lo que una iteración empezada siempre termina.
+ * Los límites sin establecer valen `NO_LIMIT`; al menos uno debe establecerse antes de ejecutar.
+ */
+public class TOPTWStopCondition {
+    /**
+     * @brief Valor de un límite no establecido.
+     */
+    public static final int NO_LIMIT = -1;
+    private int maxIterations;
+    private long maxTimeMillis;
+    private long maxEvaluations;
+    private int maxStagnation;
+    private double targetFitness;
+
+    /**
+     * @brief Constructor de la clase TOPTWStopCondition, sin ningún límite establecido.
+     */
+    public TOPTWStopCondition() {
+        this.maxIterations = NO_LIMIT;
+        this.maxTimeMillis = NO_LIMIT;
+        this.maxEvaluations = NO_LIMIT;
+        this.maxStagnation = NO_LIMIT;
+        this.targetFitness = NO_LIMIT;
+    }
+
+    /**
+     * @brief Crea un criterio de parada por número de iteraciones.
+     * @param maxIterations El número de iteraciones.
+     * @return El criterio de parada.
+     */
+    public static TOPTWStopCondition iterations(int maxIterations) {
+        TOPTWStopCondition stopCondition = new TOPTWStopCondition();
+        stopCondition.setMaxIterations(maxIterations);
+        return stopCondition;
+    }
+
+    /**
+     * @brief Crea un criterio de parada por tiempo de reloj.
+     * @param maxTimeMillis El tiempo máximo en milisegundos.
+     * @return El criterio de parada.
+     */
+    public static TOPTWStopCondition timeMillis(long maxTimeMillis) {
+        TOPTWStopCondition stopCondition = new TOPTWStopCondition();
+        stopCondition.setMaxTimeMillis(maxTimeMillis);
+        return stopCondition;
+    }
+
+    /**
+     * @brief Comprueba si se ha alcanzado alguno de los límites.
+     * @param iterations Las iteraciones completadas.
+     * @param elapsedMillis Los milisegundos transcurridos desde el comienzo.
+     * @param evaluations Las evaluaciones de inserción realizadas.
+     * @param stagnation Las iteraciones completadas desde la última mejora.
+     * @param bestFitness La mejor puntuación encontrada.
+     * @return `true` si la ejecución debe detenerse.
+     */
+    public boolean isReached(int iterations, long elapsedMillis, long evaluations, int stagnation, double bestFitness) {
+        return (this.maxIterations != NO_LIMIT && iterations >= this.maxIterations)
+            || (this.maxTimeMillis != NO_LIMIT && elapsedMillis >= this.maxTimeMillis)
+            || (this.maxEvaluations != NO_LIMIT && evaluations >= this.maxEvaluations)
+            || (this.maxStagnation != NO_LIMIT && stagnation >= this.maxStagnation)
+            || (this.targetFitness != NO_LIMIT && bestFitness >= this.targetFitness);
+    }
+
+    /**
+     * @brief Comprueba si hay algún límite que garantice el fin de la ejecución.
+     * @details La puntuación objetivo por sí sola puede no alcanzarse nunca, por lo que no cuenta.
+     * @return `true` si se ha establecido un límite de iteraciones, tiempo, evaluaciones o estancamiento.
+     */
+    public boolean isBounded() {
+        return this.maxIterations != NO_LIMIT || this.maxTimeMillis != NO_LIMIT
+            || this.maxEvaluations != NO_LIMIT || this.maxStagnation != NO_LIMIT;
+    }
+
+    /**
+     * @brief Obtiene el número máximo de iteraciones.
+     * @return El límite, o `NO_LIMIT`.
+     */
+    public int getMaxIterations() {
+        return this.maxIterations;
+    }
+
+    /**
+     * @brief Establece el número máximo de iteraciones.
+     * @param maxIterations El límite, o `NO_LIMIT`.
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @brief Obtiene el tiempo máximo de reloj.
+     * @return El límite en milisegundos, o `NO_LIMIT`.
+     */
+    public long getMaxTimeMillis() {
+        return this.maxTimeMillis;
+    }
+
+    /**
+     * @brief Establece el tiempo máximo de reloj.
+     * @param maxTimeMillis El límite en milisegundos, o `NO_LIMIT`.
+     */
+    public void setMaxTimeMillis(long maxTimeMillis) {
+        this.maxTimeMillis = maxTimeMillis;
+    }
+
+    /**
+     * @brief Obtiene el número máximo de evaluaciones de inserción.
+     * @return El límite, o `NO_LIMIT`.
+     */
+    public long getMaxEvaluations() {
+        return this.maxEvaluations;
+    }
+
+    /**
+     * @brief Establece el número máximo de evaluaciones de inserción.
+     * @param maxEvaluations El límite, o `NO_LIMIT`.
+     */
+    public void setMaxEvaluations(long maxEvaluations) {
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    /**
+     * @brief Obtiene el número máximo de iteraciones seguidas sin mejora.
+     * @return El límite, o `NO_LIMIT`.
+     */
+    public int getMaxStagnation() {
+        return this.maxStagnation;
+    }
+
+    /**
+     * @brief Establece el número máximo de iteraciones seguidas sin mejora.
+     * @param maxStagnation El límite, o `NO_LIMIT`.
+     */
+    public void setMaxStagnation(int maxStagnation) {
+        this.maxStagnation = maxStagnation;
+    }
+
+    /**
+     * @brief Obtiene la puntuación objetivo.
+     * @return La puntuación, o `NO_LIMIT`.
+     */
+    public double getTargetFitness() {
+        return this.targetFitness;
+    }
+
+    /**
+     * @brief Establece la puntuación objetivo, por ejemplo una cota superior conocida del óptimo.
+     * @param targetFitness La puntuación, o `NO_LIMIT`.
+     */
+    public void setTargetFitness(double targetFitness) {
+        this.targetFitness = targetFitness;
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * @file TOPTWValidation.java
+ * @brief Contiene la clase TOPTWValidation, el resultado de validar una solución TOPTW.
+ */
+package top;
+
+/**
+ * @class TOPTWValidation
+ * @brief Resultado de `TOPTWValidator.validate`: factibilidad, primera infracción y holgura de cada ruta.
+ * @details El validador reutiliza siempre la misma instancia, de modo que validar no reserva memoria; los
+ * valores son los de la última validación.
+ */
+public class TOPTWValidation {
+    /**
+     * @brief La solución es factible.
+     */
+    public static final int NO_VIOLATION = 0;
+    /**
+     * @brief Se llega a un nodo en el cierre de su ventana de tiempo o después.
+     */
+    public static final int TIME_WINDOW = 1;
+    /**
+     * @brief La salida de un nodo o la vuelta al depósito superan el tiempo máximo por ruta.
+     */
+    public static final int MAX_TIME = 2;
+    /**
+     * @brief Un POI aparece más de una vez en la solución.
+     */
+    public static final int REPEATED_NODE = 3;
+    /**
+     * @brief Una ruta no vuelve a su depósito (enlaces rotos o ciclo sin depósito).
+     */
+    public static final int BROKEN_ROUTE = 4;
+    private int violation;
+    private int violatedRoute;
+    private int violatedNode;
+    private int routes;
+    private final double[] routeSlack;
+
+    /**
+     * @brief Constructor de la clase TOPTWValidation.
+     * @param vehicles El número máximo de rutas.
+     */
+    TOPTWValidation(int vehicles) {
+        this.routeSlack = new double[vehicles];
+        this.clear(0);
+    }
+
+    /**
+     * @brief Prepara el resultado para una nueva validación.
+     * @param routes El número de rutas de la solución.
+     */
+    void clear(int routes) {
+        this.violation = NO_VIOLATION;
+        this.violatedRoute = TOPTWSolution.NO_INITIALIZED;
+        this.violatedNode = TOPTWSolution.NO_INITIALIZED;
+        this.routes = routes;
+    }
+
+    /**
+     * @brief Anota la primera infracción encontrada.
+     * @param violation El tipo de infracción.
+     * @param route La ruta donde se produce.
+     * @param node El nodo donde se produce.
+     */
+    void fail(int violation, int route, int node) {
+        this.violation = violation;
+        this.violatedRoute = route;
+        this.violatedNode = node;
+    }
+
+    /**
+     * @brief Guarda la holgura de una ruta.
+     * @param route La ruta.
+     * @param slack La holgura.
+     */
+    void setRouteSlack(int route, double slack) {
+        this.routeSlack[route] = slack;
+    }
+
+    /**
+     * @brief Indica si la solución validada es factible.
+     * @return `true` si no hay ninguna infracción.
+     */
+    public boolean isFeasible() {
+        return this.violation == NO_VIOLATION;
+    }
+
+    /**
+     * @brief Obtiene el tipo de la primera infracción.
+     * @return `NO_VIOLATION`, `TIME_WINDOW`, `MAX_TIME`, `REPEATED_NODE` o `BROKEN_ROUTE`.
+     */
+    public int getViolation() {
+        return this.violation;
+    }
+
+    /**
+     * @brief Obtiene la ruta de la primera infracción.
+     * @return El índice de la ruta, o `NO_INITIALIZED` si la solución es factible.
+     */
+    public int getViolatedRoute() {
+        return this.violatedRoute;
+    }
+
+    /**
+     * @brief Obtiene el nodo de la primera infracción.
+     * @return El índice del nodo, o `NO_INITIALIZED` si la solución es factible.
+     */
+    public int getViolatedNode() {
+        return this.violatedNode;
+    }
+
+    /**
+     * @brief Obtiene el número de rutas validadas.
+     * @return El número de rutas.
+     */
+    public int getRoutes() {
+        return this.routes;
+    }
+
+    /**
+     * @brief Obtiene la holgura de una ruta: cuánto puede retrasarse su salida del depósito sin perder la factibilidad.
+     * @details Tiene en cuenta que las esperas absorben los retrasos. Solo es válida para las rutas validadas
+     * antes de la primera infracción.
+     * @param route El índice de la ruta.
+     * @return La holgura, negativa o cero si la ruta no es factible.
+     */
+    public double getRouteSlack(int route) {
+        return this.routeSlack[route];
+    }
+
+    /**
+     * @brief Genera una descripción del resultado, para mensajes de error.
+     * @return La descripción.
+     */
+    @Override
+    public String toString() {
+        if(this.isFeasible()) {
+            return "factible ("+this.routes+" rutas)";
+        }
+        String[] names = {"", "ventana de tiempo", "tiempo máximo por ruta", "nodo repetido", "ruta rota"};
+        return "infactible: "+names[this.violation]+" en el nodo "+this.violatedNode+" de la ruta "+this.violatedRoute;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * @file TOPTWValidator.java
+ * @brief Contiene la clase TOPTWValidator, que comprueba la factibilidad de una solución TOPTW.
+ */
+package top;
+
+import java.util.Arrays;
+
+/**
+ * @class TOPTWValidator
+ * @brief Comprueba que una solución respeta las ventanas de tiempo y el tiempo máximo por ruta.
+ * @details Recorre las rutas a partir de los sucesores y de los datos de la instancia, propagando los tiempos
+ * desde la salida del depósito en el instante 0, sin fiarse de los tiempos guardados en la solución. Comprueba
+ * también que ningún POI se repite y que cada ruta vuelve a su depósito.
+ *
+ * No reserva memoria: el resultado es siempre la misma instancia de `TOPTWValidation` y los POIs vistos se
+ * marcan con un contador de época, sin limpiar arrays. Un validador no debe compartirse entre hilos sin
+ * sincronización.
+ */
+public class TOPTWValidator {
+    private final TOPTW problem;
+    private final TOPTWValidation result;
+    private final int[] seen;
+    private int epoch;
+
+    /**
+     * @brief Constructor de la clase TOPTWValidator.
+     * @param problem La instancia del problema de las soluciones a validar.
+     */
+    public TOPTWValidator(TOPTW problem) {
+        this.problem = problem;
+        this.result = new TOPTWValidation(problem.getVehicles());
+        this.seen = new int[problem.getPOIs() + 1];
+        this.epoch = 0;
+    }
+
+    /**
+     * @brief Valida una solución.
+     * @details Se detiene en la primera infracción.
+     * @param solution La solución a validar.
+     * @return El resultado, que se sobrescribe en la siguiente validación.
+     */
+    public TOPTWValidation validate(TOPTWSolution solution) {
+        this.result.clear(solution.getCreatedRoutes());
+        if(++this.epoch == 0) { // desbordamiento del contador: se reinician las marcas
+            Arrays.fill(this.seen, 0);
+            this.epoch = 1;
+        }
+        double maxTime = this.problem.getMaxTimePerRoute();
+        int pois = this.problem.getPOIs();
+        for(int k = 0; k < solution.getCreatedRoutes(); k++) {
+            int depot = solution.getIndexRoute(k);
+            double departure = 0.0, waiting = 0.0;
+            double slack = Double.POSITIVE_INFINITY;
+            int pre = depot, node, steps = 0;
+            do {
+                node = solution.getSuccessor(pre);
+                if(node == TOPTWSolution.NO_INITIALIZED || (node != depot && (node > pois || ++steps > pois))) {
+                    this.result.fail(TOPTWValidation.BROKEN_ROUTE, k, pre);
+                    return this.result;
+                }
+                if(node != depot) {
+                    if(this.seen[node] == this.epoch) {
+                        this.result.fail(TOPTWValidation.REPEATED_NODE, k, node);
+                        return this.result;
+                    }
+                    this.seen[node] = this.epoch;
+                }
+                double arrival = departure + this.problem.getDistance(pre, node);
+                // Retrasar la salida del depósito en d retrasa esta llegada en max(0, d - esperas anteriores)
+                slack = Math.min(slack, this.problem.getDueTime(node) - arrival + waiting);
+                if(!(arrival < this.problem.getDueTime(node))) {
+                    this.result.setRouteSlack(k, slack);
+                    this.result.fail(TOPTWValidation.TIME_WINDOW, k, node);
+                    return this.result;
+                }
+                double start = Math.max(arrival, this.problem.getReadyTime(node));
+                waiting += start - arrival;
+                departure = start + this.problem.getServiceTime(node);
+                slack = Math.min(slack, maxTime - departure + waiting);
+                if(departure > maxTime) {
+                    this.result.setRouteSlack(k, slack);
+                    this.result.fail(TOPTWValidation.MAX_TIME, k, node);
+                    return this.result;
+                }
+                pre = node;
+            } while(node != depot);
+            this.result.setRouteSlack(k, slack);
+        }
+        return this.result;
+    }
+}
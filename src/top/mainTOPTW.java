@@ -4,50 +4,45 @@
  */
 package top;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * @class mainTOPTW
  * @brief Clase principal que contiene el método `main` para ejecutar el experimento.
- * @details Esta clase define un conjunto de instancias de prueba, las lee una por una,
- * y ejecuta el algoritmo GRASP con diferentes tamaños de RCL para cada una.
+ * @details Delega en `TOPTWBatchRunner`, que ejecuta en paralelo todas las combinaciones de instancias,
+ * configuraciones y semillas indicadas en los argumentos. Sin argumentos, ejecuta el GRASP reactivo, que
+ * elige el tamaño de la RCL entre 3, 5 y 7, sobre las instancias c1, r1 y rc1 de `Instances/TOPTW`.
  */
 public class mainTOPTW {
 
     /**
      * @brief Método principal que ejecuta el solver TOPTW GRASP.
-     * @details Itera sobre una lista predefinida de archivos de instancia, carga cada problema,
-     * y ejecuta el algoritmo GRASP varias veces con diferentes tamaños de RCL (3, 5, 7)
-     * para cada instancia, imprimiendo los resultados en la consola.
-     * @param args Argumentos de la línea de comandos (no se utilizan).
+     * @details Escribe el resultado de cada ejecución en CSV o NDJSON, en la salida estándar o en el fichero
+     * de `--output`, en cuanto termina; cada línea incluye la semilla, con la que puede repetirse la ejecución.
+     * Si los argumentos no son válidos o algún patrón no coincide con ninguna instancia, muestra el uso y
+     * termina con código 2.
+     * @param args Las opciones y los patrones de instancias (ver `TOPTWBatchRunner.USAGE`).
+     * @throws IOException Si no se puede abrir o cerrar el fichero de resultados.
      */
-    public static void main(String[] args) {
-        
-        String[] instances = new String[29];
-        
-        instances[0] = "c101.txt"; instances[3] = "c104.txt"; instances[6] = "c107.txt";
-        instances[1] = "c102.txt"; instances[4] = "c105.txt"; instances[7] = "c108.txt";
-        instances[2] = "c103.txt"; instances[5] = "c106.txt"; instances[8] = "c109.txt"; 
-
-        instances[9] = "r101.txt";  instances[12] = "r104.txt"; instances[15] = "r107.txt";
-        instances[10] = "r102.txt"; instances[13] = "r105.txt"; instances[16] = "r108.txt";
-        instances[11] = "r103.txt"; instances[14] = "r106.txt"; instances[17] = "r109.txt";
-        instances[18] = "r110.txt"; instances[19] = "r111.txt"; instances[20] = "r112.txt";
-        
-        instances[21] = "rc101.txt"; instances[24] = "rc104.txt"; instances[27] = "rc107.txt";
-        instances[22] = "rc102.txt"; instances[25] = "rc105.txt"; instances[28] = "rc108.txt";
-        instances[23] = "rc103.txt"; instances[26] = "rc106.txt"; 
-        
-        for(int i = 0; i < instances.length; i++) {
-            String INSTANCE = "Instances/TOPTW/"+instances[i];
-            TOPTW problem = TOPTWReader.readProblem(INSTANCE);
-            TOPTWSolution solution = new TOPTWSolution(problem);
-            TOPTWGRASP grasp = new TOPTWGRASP(solution);
-
-            System.out.println(" --> Instance: "+instances[i]);
-            grasp.GRASP(10000, 3);
-            grasp.GRASP(10000, 5);
-            grasp.GRASP(10000, 7);
-            System.out.println("");
+    public static void main(String[] args) throws IOException {
+        try {
+            TOPTWBatchRunner runner = TOPTWBatchRunner.fromArguments(args);
+            if(runner.getOutputFile() == null) {
+                runner.run(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                return;
+            }
+            try (Writer output = new OutputStreamWriter(new FileOutputStream(runner.getOutputFile()), StandardCharsets.UTF_8)) {
+                runner.run(output);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(TOPTWBatchRunner.USAGE);
+            System.exit(2);
         }
     }
-    
+
 }